@@ -0,0 +1,196 @@
+package dungeonmania;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+
+/**
+ * A TickBenchmark measures how many ticks a second DungeonManiaController.tick plays on dungeons of different kinds:
+ * <ul>
+ * <li> maze and advanced, from /resources/dungeons
+ * <li> prims, a 50x50 dungeon generated by Prims
+ * <li> horde, an open arena of HORDE_SIZE tiles holding HORDE_ZOMBIES zombies and HORDE_MERCENARIES mercenaries
+ * </ul>
+ * The player moves the same way in every run, each game is seeded from the number of games started before it, and
+ * a new game is started every GAME_TICKS ticks or once the player is killed, so every iteration measures games of
+ * the same age. Games are started in a setup run before each tick, outside of the time and allocations measured,
+ * as starting a Prims or horde game costs far more than a tick. With headless set, the engine is measured alone: no
+ * response is built and no tick is kept for rewinding. Every game is played with the pathfinding engine given, which
+ * Mercenaries and Assassins chase the player with.
+ * Run with gradle jmh, which always adds the GC profiler, so that the allocation rate (gc.alloc.rate.norm, in bytes
+ * per tick) is reported alongside ops/s. JMH options are passed on, eg. gradle jmh --args="-p dungeon=horde".
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class TickBenchmark {
+	public static final int GAME_TICKS = 100;
+	public static final int HORDE_SIZE = 60;
+	public static final int HORDE_ZOMBIES = 200;
+	public static final int HORDE_MERCENARIES = 100;
+	private static final String HORDE = "horde";
+	private static final String PRIMS = "prims";
+	private static final int MOVES = 1024;
+
+	private static final PersistenceWriter WRITER = new PersistenceWriter(new InMemoryGameStore(), PersistenceWriter.DEFAULT_CAPACITY);
+
+	@Param({"maze", "advanced", PRIMS, HORDE})
+	public String dungeon;
+
+	@Param({"standard"})
+	public String gameMode;
+
+	@Param({Dungeon.DIJKSTRA, Dungeon.ASTAR, Dungeon.JUMP_POINT})
+	public String pathfinding;
+
+	@Param({"false", "true"})
+	public boolean headless;
+
+	private Direction[] moves;
+	private byte[] horde;
+	private DungeonManiaController controller;
+	private int games;
+	private int ticks;
+
+	@Setup(Level.Trial)
+	public void setUpTrial() throws IOException {
+		SplittableRandom random = new SplittableRandom(MOVES);
+		moves = new Direction[MOVES];
+		for (int i = 0; i < MOVES; i++) {
+			moves[i] = Direction.values()[random.nextInt(Direction.values().length)];
+		}
+		if (dungeon.equals(HORDE)) {
+			// Kept in the binary save format, which is quicker to start a game from than json
+			horde = GameInOut.toBytes(DungeonReader.read("new", new StringReader(hordeDungeon(random)), HORDE, 0, gameMode, 0));
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void setUpIteration() {
+		games = 0;
+		startGame();
+	}
+
+	/**
+	 * Start a new game once the last has been played for GAME_TICKS ticks or its player is killed. Checking costs
+	 * next to nothing, so running before every tick does not skew the ticks measured.
+	 */
+	@Setup(Level.Invocation)
+	public void setUpTick() {
+		if (ticks == GAME_TICKS || controller.getCurrentDungeon().getPlayer() == null) {
+			startGame();
+		}
+	}
+
+	/**
+	 * @return	the dungeon after the tick, for JMH to consume
+	 */
+	@Benchmark
+	public Object tick() {
+		Direction move = moves[ticks++ % MOVES];
+		if (headless) {
+			controller.advance(null, move);
+			return controller.getCurrentDungeon();
+		}
+		return controller.tick(null, move);
+	}
+
+	private void startGame() {
+		controller = headless ? DungeonManiaController.headless() : new DungeonManiaController(RewindBuffer.MIN_CAPACITY, WRITER);
+		long seed = games++;
+		if (dungeon.equals(PRIMS)) {
+			controller.generateDungeon(1, 1, 48, 48, gameMode, seed);
+		} else if (dungeon.equals(HORDE)) {
+			try {
+				controller.resumeGame(horde, HORDE);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			controller.getCurrentDungeon().setRandomSeed(seed);
+		} else {
+			controller.startGame(dungeon, gameMode, seed);
+		}
+		controller.getCurrentDungeon().setPathfinding(pathfinding);
+		ticks = 0;
+	}
+
+	/**
+	 * @return	the horde dungeon as json: a walled arena with the player in the middle and the zombies and mercenaries
+	 * 			on random tiles at least 5 tiles away from it
+	 */
+	private static String hordeDungeon(SplittableRandom random) {
+		StringBuilder json = new StringBuilder();
+		json.append("{\"width\": ").append(HORDE_SIZE).append(", \"height\": ").append(HORDE_SIZE).append(", \"entities\": [");
+		Position player = new Position(HORDE_SIZE / 2, HORDE_SIZE / 2);
+		appendEntity(json, player, "player");
+		for (int i = 0; i < HORDE_SIZE; i++) {
+			appendEntity(json, new Position(i, 0), "wall");
+			appendEntity(json, new Position(i, HORDE_SIZE - 1), "wall");
+			if (i > 0 && i < HORDE_SIZE - 1) {
+				appendEntity(json, new Position(0, i), "wall");
+				appendEntity(json, new Position(HORDE_SIZE - 1, i), "wall");
+			}
+		}
+
+		Set<Position> taken = new HashSet<>();
+		for (int i = 0; i < HORDE_ZOMBIES + HORDE_MERCENARIES; i++) {
+			Position position;
+			do {
+				position = new Position(random.nextInt(1, HORDE_SIZE - 1), random.nextInt(1, HORDE_SIZE - 1));
+			} while (taken.contains(position) || Math.abs(position.getX() - player.getX()) + Math.abs(position.getY() - player.getY()) < 5);
+			taken.add(position);
+			appendEntity(json, position, (i < HORDE_ZOMBIES) ? "zombie_toast" : "mercenary");
+		}
+		json.append("], \"goal-condition\": {\"goal\": \"enemies\"}}");
+		return json.toString();
+	}
+
+	private static void appendEntity(StringBuilder json, Position position, String type) {
+		if (json.charAt(json.length() - 1) != '[') {
+			json.append(", ");
+		}
+		json.append("{\"x\": ").append(position.getX()).append(", \"y\": ").append(position.getY())
+			.append(", \"type\": \"").append(type).append("\"}");
+	}
+
+	/**
+	 * Run the benchmarks matching the arguments, as org.openjdk.jmh.Main does, with the GC profiler added
+	 * @param args	JMH command line options, eg. "TickBenchmark -p dungeon=horde"
+	 */
+	public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+		new Runner(new OptionsBuilder()
+			.parent(new CommandLineOptions(args))
+			.addProfiler(GCProfiler.class)
+			.build()
+		).run();
+	}
+}
@@ -2,13 +2,25 @@ import spark.Request;
 import spark.Spark;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 
+import dungeonmania.Action;
 import dungeonmania.DungeonManiaController;
+import dungeonmania.DungeonManiaController.RewindMode;
+import dungeonmania.PersistenceWriter;
+import dungeonmania.RewindBuffer;
 import dungeonmania.response.models.GenericResponseWrapper;
 import dungeonmania.util.Direction;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -23,21 +35,100 @@ import scintilla.Scintilla;
  * @author Braedon Wooding, Nick Patrikeos, Noa Challis, George Litsas
  */
 public class App {
-    private static volatile Map<String, DungeonManiaController> sessionStates = new HashMap<>();
+    /**
+     * Minutes a session may go without a request before its games are suspended into the store, set with
+     * -Ddungeonmania.sessionIdleMinutes (0 keeps every session in memory)
+     */
+    private static final long SESSION_IDLE_MINUTES = Long.getLong("dungeonmania.sessionIdleMinutes", 30);
+    /**
+     * Where games are rewound from, set with -Ddungeonmania.rewindMode: snapshots (the default), or action_log to
+     * replay the actions of the game instead of keeping snapshots
+     */
+    private static final RewindMode REWIND_MODE = RewindMode.valueOf(System.getProperty("dungeonmania.rewindMode", "snapshots").toUpperCase());
+    /**
+     * Games a session keeps in memory, set with -Ddungeonmania.maxGames. The games used longest ago are spilled
+     * into the store
+     */
+    private static final int MAX_GAMES = Integer.getInteger("dungeonmania.maxGames", DungeonManiaController.DEFAULT_MAX_GAMES);
 
-    private static synchronized DungeonManiaController getDungeonManiaController(Request request) {
+    private static final ConcurrentMap<String, SessionState> sessionStates = new ConcurrentHashMap<>();
+
+    /**
+     * The controller of a session, and when it was last used. The controller is created, or resumed if the session
+     * was suspended, by the first request to use it, outside of sessionStates, so a slow store only holds up requests
+     * of the same session.
+     */
+    private static final class SessionState {
+        private final String session;
+        private volatile DungeonManiaController controller;
+        private volatile long lastUsed = System.nanoTime();
+
+        private SessionState(String session) {
+            this.session = session;
+        }
+
+        private DungeonManiaController controller() {
+            DungeonManiaController current = controller;
+            if (current != null) {
+                return current;
+            }
+            synchronized (this) {
+                if (controller == null) {
+                    DungeonManiaController created = newController();
+                    DungeonManiaController resumed = DungeonManiaController.resume(session, created);
+                    controller = (resumed != null) ? resumed : created;
+                }
+                return controller;
+            }
+        }
+    }
+
+    /**
+     * Finds the state of the session, adding it on its first request, or after the session was suspended
+     */
+    private static SessionState getSessionState(Request request) {
         String session = request.session().id();
         if (session == null) {
             System.out.println("No Session Found... using default.");
             session = "__DEFAULT_SESSION__";
         }
 
-        if (sessionStates.containsKey(session)) {
-            return sessionStates.get(session);
-        } else {
-            DungeonManiaController bc = new DungeonManiaController();
-            sessionStates.put(session, bc);
-            return bc;
+        SessionState state = sessionStates.get(session);
+        if (state == null) {
+            SessionState added = new SessionState(session);
+            state = sessionStates.putIfAbsent(session, added);
+            if (state == null) {
+                state = added;
+            }
+        }
+        state.lastUsed = System.nanoTime();
+        return state;
+    }
+
+    private static DungeonManiaController newController() {
+        return new DungeonManiaController(RewindBuffer.MIN_CAPACITY, PersistenceWriter.getDefault(),
+            MAX_GAMES, REWIND_MODE);
+    }
+
+    /**
+     * Suspends the sessions that have gone idle, so their games no longer take up memory. A session is suspended
+     * while holding its controller, and only removed once suspended, so a request for it either finds it still in
+     * memory, or finds it suspended and resumes it from the store once its games are queued to be written.
+     */
+    private static void suspendIdleSessions() {
+        long idleSince = System.nanoTime() - TimeUnit.MINUTES.toNanos(SESSION_IDLE_MINUTES);
+        for (SessionState state : sessionStates.values()) {
+            DungeonManiaController controller = state.controller;
+            if (controller == null || state.lastUsed - idleSince > 0) {
+                continue;
+            }
+            synchronized (controller) {
+                if (state.lastUsed - idleSince > 0 || controller.isSuspended()) {
+                    continue;
+                }
+                controller.suspend(state.session);
+            }
+            sessionStates.remove(state.session, state);
         }
     }
 
@@ -52,9 +143,16 @@ public class App {
 
     private static<T> GenericResponseWrapper<T> callUsingSessionAndArgument(Request request, Function<DungeonManiaController, T> runnable) {
         try {
-            DungeonManiaController dmc = getDungeonManiaController(request);
-            synchronized (dmc) {
-                return GenericResponseWrapper.Ok(runnable.apply(dmc));
+            while (true) {
+                SessionState state = getSessionState(request);
+                DungeonManiaController dmc = state.controller();
+                synchronized (dmc) {
+                    if (!dmc.isSuspended()) {
+                        return GenericResponseWrapper.Ok(runnable.apply(dmc));
+                    }
+                }
+                // the session was suspended while waiting for its lock, so it is resumed by a new state
+                sessionStates.remove(state.session, state);
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -62,12 +160,34 @@ public class App {
         }
     }
 
+    /**
+     * Reads the ticks of a batch, sent as [{"itemUsed": null, "movementDirection": "up"}, ...]
+     */
+    private static List<Action> parseActions(String body) {
+        List<Action> actions = new ArrayList<>();
+        for (JsonElement element : JsonParser.parseString(body).getAsJsonArray()) {
+            JsonObject step = element.getAsJsonObject();
+            JsonElement itemUsed = step.get("itemUsed");
+            String item = (itemUsed == null || itemUsed.isJsonNull()) ? null : itemUsed.getAsString();
+            actions.add(new Action(item, Direction.valueOf(step.get("movementDirection").getAsString().toUpperCase())));
+        }
+        return actions;
+    }
+
     public static void main(String[] args) throws Exception {
         Scintilla.initialize(); 
         GsonBuilder gsonBuilder = new GsonBuilder();
 
         Gson gson = gsonBuilder.create();
-        Object globalLock = new Object();
+
+        if (SESSION_IDLE_MINUTES > 0) {
+            ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "session-sweeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            sweeper.scheduleWithFixedDelay(App::suspendIdleSessions, 1, 1, TimeUnit.MINUTES);
+        }
 
         Spark.after((request, response) -> {
             response.header("Access-Control-Allow-Origin", "*");
@@ -76,10 +196,8 @@ public class App {
         });
 
         Spark.get("/api/dungeons/", "application/json", (request, response) -> {
-            // we don't *need* to globally lock this but we might as well just to keep a nice standard.
-            synchronized (globalLock) {
-                return callWithWrapper(() -> DungeonManiaController.dungeons());
-            }
+            // the catalogue of dungeons is safe to read from any session at once, so no lock is needed
+            return callWithWrapper(() -> DungeonManiaController.dungeons());
         }, gson::toJson);
 
         Spark.post("/api/game/new/", "application/json", (request, response) -> {
@@ -102,6 +220,15 @@ public class App {
             return callUsingSessionAndArgument(request, (dmc) -> dmc.tick(request.queryParams("itemUsed"), Direction.valueOf(request.queryParams("movementDirection").toUpperCase())));
         }, gson::toJson);
 
+        Spark.post("/api/game/tick/delta/", "application/json", (request, response) -> {
+            String acknowledged = request.queryParams("acknowledged");
+            return callUsingSessionAndArgument(request, (dmc) -> dmc.tickDelta(request.queryParams("itemUsed"), Direction.valueOf(request.queryParams("movementDirection").toUpperCase()), (acknowledged == null) ? -1 : Integer.valueOf(acknowledged)));
+        }, gson::toJson);
+
+        Spark.post("/api/game/tick/batch/", "application/json", (request, response) -> {
+            return callUsingSessionAndArgument(request, (dmc) -> dmc.tickBatch(parseActions(request.body())));
+        }, gson::toJson);
+
         Spark.post("/api/game/build/", "application/json", (request, response) -> {
             return callUsingSessionAndArgument(request, (dmc) -> dmc.build(request.queryParams("buildable")));
         }, gson::toJson);
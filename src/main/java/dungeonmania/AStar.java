@@ -0,0 +1,174 @@
+package dungeonmania;
+
+import dungeonmania.util.Position;
+
+/**
+ * AStar finds the next position for a Mercenary/Assassin to move onto with the A* algorithm, reading the cost of
+ * each cell from the CostGrid of the dungeon. Unlike Dijkstra's algorithm, which settles every cell of the dungeon,
+ * it is guided towards the player by the Manhattan distance scaled by the cheapest cell of the dungeon, which never
+ * overestimates even when there are swamps cheaper than an open cell. Between cells as promising as each other, the
+ * one furthest along its path is expanded first, so on open maps only the cells near a straight line to the player
+ * are expanded.
+ * As with Dijkstra's algorithm, only the bounding box of the dungeon widened by one cell is searched. A path found
+ * is as short as the one Dijkstra's algorithm finds, though it may be a different one of the same length.
+ * The arrays used by the search are kept between searches, and only grow with the dungeon.
+ */
+public class AStar {
+	protected int minX;
+	protected int minY;
+	protected int width;
+	protected int height;
+	protected CostGrid costGrid;
+	protected int[] g = new int[0];
+	protected int[] prev = new int[0];
+	private int[] searched = new int[0];
+	private int search = 0;
+	private IndexedMinHeap open = new IndexedMinHeap(0);
+	private int target;
+	protected int targetX;
+	protected int targetY;
+	private int heuristicCost;
+	private int expanded;
+
+	/**
+	 * Returns the next position for the Mercenary/Assassin to move onto in pursuit of the player
+	 * @param currentDungeon the current Dungeon
+	 * @param source the current position of the Mercenary/Assassin
+	 * @return the next position for the Mercenary/Assassin to move onto
+	 * 			<li> null, if the player cannot be reached
+	 */
+	public Position move(Dungeon currentDungeon, Position source) {
+		Position destination = currentDungeon.getPlayerPosition();
+		expanded = 0;
+		if (destination == null) {
+			return null;
+		}
+
+		minX = currentDungeon.getMinX() - 1;
+		minY = currentDungeon.getMinY() - 1;
+		width = currentDungeon.getMaxX() + 1 - minX + 1;
+		height = currentDungeon.getMaxY() + 1 - minY + 1;
+		costGrid = currentDungeon.getCostGrid();
+		heuristicCost = costGrid.getMinCost();
+
+		int s = cellOf(source.getX(), source.getY());
+		target = cellOf(destination.getX(), destination.getY());
+		targetX = destination.getX();
+		targetY = destination.getY();
+		if (s == -1 || target == -1 || s == target) {
+			return null;
+		}
+		startSearch();
+
+		visit(-1, s, 0);
+		while (!open.isEmpty()) {
+			int u = open.poll();
+			if (u == target) {
+				return firstStep(s);
+			}
+			expanded++;
+			expand(u);
+		} return null;
+	}
+
+	/**
+	 * @return the number of cells expanded by the last search
+	 */
+	public int getExpanded() {
+		return expanded;
+	}
+
+	/**
+	 * Adds the cells reachable from the given cell to the search
+	 * @param u index of the cell being expanded
+	 */
+	protected void expand(int u) {
+		int x = xOf(u);
+		int y = yOf(u);
+		int[][] adjacent = {{x, y - 1}, {x + 1, y}, {x, y + 1}, {x - 1, y}};
+		for (int[] adj : adjacent) {
+			int v = cellOf(adj[0], adj[1]);
+			if (v != -1 && costOf(v) != CostGrid.BLOCKED) {
+				visit(u, v, g[u] + costOf(v));
+			}
+		}
+	}
+
+	/**
+	 * Reaches a cell from another, if this is the shortest way found to it so far
+	 * @param from index of the cell the path comes from, -1 for the source
+	 * @param cell index of the cell reached
+	 * @param distance the length of the path to the cell
+	 */
+	protected void visit(int from, int cell, int distance) {
+		if (searched[cell] == search && g[cell] <= distance) {
+			return;
+		}
+		searched[cell] = search;
+		g[cell] = distance;
+		prev[cell] = from;
+
+		int f = distance + heuristicCost * (Math.abs(xOf(cell) - targetX) + Math.abs(yOf(cell) - targetY));
+		open.push(cell, ((long) f << 32) + (Integer.MAX_VALUE - distance));
+	}
+
+	protected boolean isTarget(int cell) {
+		return cell == target;
+	}
+
+	protected int cellOf(int x, int y) {
+		if (x < minX || x >= minX + width || y < minY || y >= minY + height) {
+			return -1;
+		} return (x - minX) * height + (y - minY);
+	}
+
+	protected int xOf(int cell) {
+		return minX + cell / height;
+	}
+
+	protected int yOf(int cell) {
+		return minY + cell % height;
+	}
+
+	protected int costOf(int cell) {
+		return costGrid.getCost(xOf(cell), yOf(cell));
+	}
+
+	/**
+	 * @return true if the cell is in the searched area and can be moved onto
+	 */
+	protected boolean isOpen(int x, int y) {
+		return cellOf(x, y) != -1 && costGrid.getCost(x, y) != CostGrid.BLOCKED;
+	}
+
+	/**
+	 * Walks the path back from the target to the cell after the source. The cell may be several steps away in a
+	 * straight line, so the position one step towards it is returned.
+	 */
+	private Position firstStep(int source) {
+		int currCell = target;
+		while (prev[currCell] != source) {
+			currCell = prev[currCell];
+		}
+		int x = xOf(source);
+		int y = yOf(source);
+		return new Position(x + Integer.signum(xOf(currCell) - x), y + Integer.signum(yOf(currCell) - y));
+	}
+
+	/**
+	 * Makes sure the arrays cover the searched area, and starts a new search. Cells keep the number of the search
+	 * that last reached them, so the arrays do not need clearing between searches.
+	 */
+	private void startSearch() {
+		int size = width * height;
+		if (g.length < size || search == Integer.MAX_VALUE) {
+			g = new int[size];
+			prev = new int[size];
+			searched = new int[size];
+			open = new IndexedMinHeap(size);
+			search = 0;
+		}
+		search++;
+		open.clear();
+	}
+}
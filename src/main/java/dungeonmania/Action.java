@@ -0,0 +1,28 @@
+package dungeonmania;
+
+import dungeonmania.util.Direction;
+
+/**
+ * An Action is one tick a player asks for: the item used that tick, if any, and the direction the player moves in
+ */
+public class Action {
+	private final String itemUsed;
+	private final Direction movementDirection;
+
+	/**
+	 * @param itemUsed	Id of the item used this tick, or null
+	 * @param movementDirection	Direction the player moves in
+	 */
+	public Action(String itemUsed, Direction movementDirection) {
+		this.itemUsed = itemUsed;
+		this.movementDirection = movementDirection;
+	}
+
+	public String getItemUsed() {
+		return itemUsed;
+	}
+
+	public Direction getMovementDirection() {
+		return movementDirection;
+	}
+}
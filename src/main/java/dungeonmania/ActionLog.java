@@ -0,0 +1,294 @@
+package dungeonmania;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.util.ArrayList;
+import java.util.List;
+
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+
+/**
+ * An ActionLog keeps how a game started and every tick, build and interact it has been played with since, so that
+ * any of its ticks can be rebuilt by replaying them: every random choice of a game is drawn from its seed, so the
+ * same actions always play out the same.
+ * A game started from a dungeon file or generated by Prims starts from its name or its maze and its seed. A game
+ * loaded or rewound starts from a checkpoint: the game in the binary save format. Only the origin and the actions
+ * are written, each tick taking a byte or two, and the actions are kept in memory in the same form.
+ * While the game is played a checkpoint is also kept in memory every CHECKPOINT_INTERVAL ticks, so that a tick is
+ * replayed from the checkpoint before it rather than from the start. These are never written.
+ */
+public class ActionLog {
+	public static final int CHECKPOINT_INTERVAL = 50;
+
+	/* How the game started */
+	private static final int TEMPLATE = 0;
+	private static final int GENERATED = 1;
+	private static final int CHECKPOINT = 2;
+
+	/* Kinds of action, kept in the two low bits of the action with the direction moved in above them */
+	private static final int TICK = 0;
+	private static final int TICK_WITH_ITEM = 1;
+	private static final int BUILD = 2;
+	private static final int INTERACT = 3;
+
+	private final int origin;
+	private final String dungeonName;
+	private final String gameMode;
+	private final long seed;
+	private final Position start;
+	private final Position end;
+	private final byte[] originGame;
+	private final int startTick;
+
+	private final BinaryWriter actions = new BinaryWriter();
+	private int actionCount = 0;
+	private int endTick;
+	private final List<Checkpoint> checkpoints = new ArrayList<>();
+
+	/**
+	 * A game as it was at a tick, in the binary save format, before the action it was taken before
+	 */
+	private static class Checkpoint {
+		private final int tick;
+		private final int action;
+		private final byte[] game;
+
+		private Checkpoint(int tick, int action, byte[] game) {
+			this.tick = tick;
+			this.action = action;
+			this.game = game;
+		}
+	}
+
+	private ActionLog(int origin, String dungeonName, String gameMode, long seed, Position start, Position end, byte[] originGame, int startTick) {
+		this.origin = origin;
+		this.dungeonName = dungeonName;
+		this.gameMode = gameMode;
+		this.seed = seed;
+		this.start = start;
+		this.end = end;
+		this.originGame = originGame;
+		this.startTick = startTick;
+		this.endTick = startTick;
+	}
+
+	/**
+	 * @param dungeonName	Dungeon file the game was started from
+	 * @param gameMode	Game mode of the game
+	 * @param seed	Seed of the random stream of the game
+	 * @return	a log of a game started from a dungeon file
+	 */
+	public static ActionLog ofTemplate(String dungeonName, String gameMode, long seed) {
+		return new ActionLog(TEMPLATE, dungeonName, gameMode, seed, null, null, null, 0);
+	}
+
+	/**
+	 * @param start	Position of the player
+	 * @param end	Position of the exit
+	 * @param gameMode	Game mode of the game
+	 * @param seed	Seed the maze was generated from
+	 * @return	a log of a game generated by Prims
+	 */
+	public static ActionLog ofGenerated(Position start, Position end, String gameMode, long seed) {
+		return new ActionLog(GENERATED, null, gameMode, seed, start, end, null, 0);
+	}
+
+	/**
+	 * @param dungeon	Game as it is now, eg. just loaded or rewound
+	 * @return	a log of a game carrying on from its current tick
+	 */
+	public static ActionLog ofCheckpoint(Dungeon dungeon) {
+		return new ActionLog(CHECKPOINT, dungeon.getName(), null, 0, null, null, GameInOut.toBytes(dungeon), dungeon.getTickNumber());
+	}
+
+	/**
+	 * @return	the tick the game started from
+	 */
+	public int getStartTick() {
+		return startTick;
+	}
+
+	/**
+	 * @return	the tick the game has been played up to
+	 */
+	public int getEndTick() {
+		return endTick;
+	}
+
+	/**
+	 * Keep a checkpoint of the game if the last was CHECKPOINT_INTERVAL ticks ago, before its next tick is played
+	 * @param dungeon	Game about to be ticked
+	 */
+	public void beforeTick(Dungeon dungeon) {
+		int lastTick = checkpoints.isEmpty() ? startTick : checkpoints.get(checkpoints.size() - 1).tick;
+		if (dungeon.getTickNumber() - lastTick >= CHECKPOINT_INTERVAL) {
+			checkpoints.add(new Checkpoint(dungeon.getTickNumber(), actionCount, GameInOut.toBytes(dungeon)));
+		}
+	}
+
+	/**
+	 * @param itemUsed	Id of the item used, or null
+	 * @param movementDirection	Direction the player moved in
+	 */
+	public void recordTick(String itemUsed, Direction movementDirection) {
+		if (itemUsed == null) {
+			actions.writeCount(movementDirection.ordinal() << 2 | TICK);
+		} else {
+			actions.writeCount(movementDirection.ordinal() << 2 | TICK_WITH_ITEM);
+			actions.writeString(itemUsed);
+		}
+		actionCount++;
+		endTick++;
+	}
+
+	/**
+	 * @param buildable	Type of the item built
+	 */
+	public void recordBuild(String buildable) {
+		actions.writeCount(BUILD);
+		actions.writeString(buildable);
+		actionCount++;
+	}
+
+	/**
+	 * @param entityId	Id of the entity interacted with
+	 */
+	public void recordInteract(String entityId) {
+		actions.writeCount(INTERACT);
+		actions.writeString(entityId);
+		actionCount++;
+	}
+
+	/**
+	 * Rebuild the game as it was at a tick, once every build and interact before the tick was played, from the
+	 * checkpoint before it. Nothing is recorded or written while replaying.
+	 * @param tick	Tick number
+	 * @return	the game at the tick, or null if the tick is not between the start of the log and its end
+	 * @throws IllegalStateException	If the game the log started from cannot be read or started again, eg. its
+	 * 									dungeon file is gone
+	 */
+	public Dungeon replay(int tick) throws IllegalStateException {
+		if (tick < startTick || tick > endTick) {
+			return null;
+		}
+		Checkpoint from = null;
+		for (Checkpoint checkpoint : checkpoints) {
+			if (checkpoint.tick <= tick) {
+				from = checkpoint;
+			}
+		}
+
+		DungeonManiaController controller = DungeonManiaController.headless();
+		BinaryReader in;
+		try {
+			if (from != null) {
+				controller.resumeGame(from.game, dungeonName);
+			} else if (origin == TEMPLATE) {
+				controller.startGame(dungeonName, gameMode, seed);
+			} else if (origin == GENERATED) {
+				controller.resumeGame(Prims.generateDungeon(start, end, gameMode, 0, seed));
+			} else {
+				controller.resumeGame(originGame, dungeonName);
+			}
+			in = new BinaryReader(actions.toBytes());
+		} catch (IOException | IllegalArgumentException e) {
+			throw new IllegalStateException("Game Cannot Be Replayed; Its Start Cannot Be Read", e);
+		}
+
+		int skipped = (from == null) ? 0 : from.action;
+		for (int i = 0; i < actionCount; i++) {
+			int action = in.readCount();
+			int kind = action & 3;
+			String argument = (kind == TICK) ? null : in.readString();
+			if (i < skipped) {
+				continue;
+			}
+			Dungeon dungeon = controller.getCurrentDungeon();
+			if ((kind == TICK || kind == TICK_WITH_ITEM) && dungeon.getTickNumber() == tick) {
+				break;
+			}
+
+			if (kind == TICK || kind == TICK_WITH_ITEM) {
+				try {
+					controller.advance(argument, Direction.values()[action >> 2]);
+				} catch (RuntimeException e) {
+					// The tick failed part way through when it was played too, and the game carried on from there
+				}
+			} else if (kind == BUILD) {
+				controller.applyBuild(argument);
+			} else {
+				controller.applyInteract(argument);
+			}
+		}
+		return controller.getCurrentDungeon();
+	}
+
+	/**
+	 * @return	the origin and the actions of the log, for read to read back. Checkpoints are not written.
+	 */
+	public byte[] toBytes() {
+		BinaryWriter out = new BinaryWriter();
+		out.writeCount(origin);
+		out.writeString(dungeonName);
+		out.writeString(gameMode);
+		out.writeLong(seed);
+		if (origin == GENERATED) {
+			out.writePosition(start);
+			out.writePosition(end);
+		} else if (origin == CHECKPOINT) {
+			out.writeBytes(originGame);
+			out.writeInt(startTick);
+		}
+		out.writeBytes(actions.toBytes());
+		out.writeCount(actionCount);
+		return out.toBytes();
+	}
+
+	/**
+	 * @param bytes	Log written by toBytes
+	 * @return	the log, carrying on from its last action
+	 * @throws IOException	If the log cannot be read
+	 */
+	public static ActionLog read(byte[] bytes) throws IOException {
+		try {
+			BinaryReader in = new BinaryReader(bytes);
+			int origin = in.readCount();
+			String dungeonName = in.readString();
+			String gameMode = in.readString();
+			long seed = in.readLong();
+			Position start = null;
+			Position end = null;
+			byte[] originGame = null;
+			int startTick = 0;
+			if (origin == GENERATED) {
+				start = in.readPosition();
+				end = in.readPosition();
+			} else if (origin == CHECKPOINT) {
+				originGame = in.readBytes();
+				startTick = in.readInt();
+			}
+			ActionLog log = new ActionLog(origin, dungeonName, gameMode, seed, start, end, originGame, startTick);
+
+			/* Record the actions again, as the strings they refer to are kept in the table of the log */
+			BinaryReader actions = new BinaryReader(in.readBytes());
+			int actionCount = in.readCount();
+			for (int i = 0; i < actionCount; i++) {
+				int action = actions.readCount();
+				int kind = action & 3;
+				if (kind == TICK) {
+					log.recordTick(null, Direction.values()[action >> 2]);
+				} else if (kind == TICK_WITH_ITEM) {
+					log.recordTick(actions.readString(), Direction.values()[action >> 2]);
+				} else if (kind == BUILD) {
+					log.recordBuild(actions.readString());
+				} else {
+					log.recordInteract(actions.readString());
+				}
+			}
+			return log;
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new IOException("Action Log Is Truncated", e);
+		}
+	}
+}
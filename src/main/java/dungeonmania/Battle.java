@@ -2,7 +2,6 @@ package dungeonmania;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 import dungeonmania.allEntities.*;
 
 
@@ -21,8 +20,9 @@ public class Battle {
 	public static void battle(Entity entity, Dungeon dungeon) {
 		MovingEntity enemy = (MovingEntity) entity;
 
-		// Each loop occurrence is a battle occurring
-		while (enemy.getHealth() > 0 && dungeon.getPlayer().getHealth() > 0) {
+		// Each loop occurrence is a battle occurring. A player already killed by another enemy (eg. on the same tile)
+		// has no battle left to fight.
+		while (dungeon.getPlayer() != null && enemy.getHealth() > 0 && dungeon.getPlayer().getHealth() > 0) {
 			Player player = dungeon.getPlayer();
 			// if player invincible
 			if (player.getInvincibleTickDuration() > 0) {
@@ -64,6 +64,9 @@ public class Battle {
 
 			// Check if enemy is dead
 			if(enemyDead(dungeon, entity)) continue;
+
+			// A round in which neither is hurt (eg. both are too weak to do any damage) would be fought forever
+			if (player.getHealth() == playerHp && enemy.getHealth() == enemyHp) break;
 		}
 		
 	}
@@ -113,8 +116,7 @@ public class Battle {
 		if (enemy.getHealth() <= 0) {
 			// drop armour 
 			if ((enemy instanceof Mercenary || enemy instanceof ZombieToast) && !(enemy instanceof Hydra)) {
-				Random rand = new Random();
-				if (rand.nextInt(5) == 1) {
+				if (dungeon.getRandom().nextInt(5) == 1) {
 					// Armour armour = new Armour(String.valueOf(dungeon.getHistoricalEntCount()), enemy.getPosition());
 					Entity armo = dungeon.getFactory().createEntity(String.valueOf(dungeon.getHistoricalEntCount()), "armour", enemy.getPosition());
 					Armour armour = (Armour) armo;
@@ -126,7 +128,7 @@ public class Battle {
 
 			// drop one ring
 			OneRing ring = new OneRing(String.valueOf(dungeon.getHistoricalEntCount()), dungeon.getPlayerPosition());
-			if (ring.doesSpawn()) {
+			if (ring.doesSpawn(dungeon.getRandom())) {
 				int check = 0;
 				for (CollectableEntity item : dungeon.getInventory()) {
 					if (item instanceof OneRing) {
@@ -0,0 +1,93 @@
+package dungeonmania;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import dungeonmania.util.Position;
+
+/**
+ * A BinaryReader reads back the binary save format written by BinaryWriter, in the order it was written. The
+ * header and the table of strings are read when it is created.
+ */
+public class BinaryReader {
+	private final ByteBuffer in;
+	private final int version;
+	private final String[] strings;
+
+	/**
+	 * @param bytes	File in the binary save format
+	 * @throws IOException	If the file is not in the binary save format, or is of a newer version
+	 */
+	public BinaryReader(byte[] bytes) throws IOException {
+		in = ByteBuffer.wrap(bytes);
+		try {
+			if (in.getInt() != GameInOut.BINARY_MAGIC) {
+				throw new IOException("Not A Saved Game");
+			}
+			version = in.get();
+			if (version > GameInOut.BINARY_VERSION) {
+				throw new IOException("Saved Game Version " + version + " Cannot Be Read");
+			}
+
+			strings = new String[readCount()];
+			for (int i = 0; i < strings.length; i++) {
+				int length = readCount();
+				strings[i] = new String(bytes, in.position(), length, StandardCharsets.UTF_8);
+				in.position(in.position() + length);
+			}
+		} catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+			throw new IOException("Saved Game Is Truncated", e);
+		}
+	}
+
+	/**
+	 * @return	the version of the binary save format the file was written in
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * @return	the next string, or null
+	 */
+	public String readString() {
+		int index = readCount();
+		return (index == 0) ? null : strings[index - 1];
+	}
+
+	public int readInt() {
+		int value = readCount();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	public int readCount() {
+		int value = 0;
+		for (int shift = 0; ; shift += 7) {
+			byte b = in.get();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+	}
+
+	public long readLong() {
+		return in.getLong();
+	}
+
+	public byte[] readBytes() {
+		byte[] value = new byte[readCount()];
+		in.get(value);
+		return value;
+	}
+
+	public boolean readBoolean() {
+		return in.get() != 0;
+	}
+
+	public Position readPosition() {
+		return new Position(readInt(), readInt(), readInt());
+	}
+}
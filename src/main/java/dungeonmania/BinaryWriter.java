@@ -0,0 +1,127 @@
+package dungeonmania;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import dungeonmania.util.Position;
+
+/**
+ * A BinaryWriter writes the binary save format read by BinaryReader. Every string is kept in a table and written
+ * as its index, so a type or id repeated across entities is only stored once, and numbers are written as varints:
+ * 7 bits per byte, the top bit set on every byte but the last. Signed numbers are zigzag encoded first so that
+ * small negative numbers (eg. the layer of a switch) stay small.
+ * The table can only be written once every string is known, so the fields are written into a buffer, and the
+ * table is put in front of them by toBytes.
+ */
+public class BinaryWriter {
+	private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+	private final DataOutputStream body = new DataOutputStream(buffer);
+	private final Map<String, Integer> strings = new LinkedHashMap<>();
+
+	/**
+	 * @param value	String to write, or null
+	 */
+	public void writeString(String value) {
+		if (value == null) {
+			writeCount(0);
+			return;
+		}
+		Integer index = strings.get(value);
+		if (index == null) {
+			index = strings.size();
+			strings.put(value, index);
+		}
+		writeCount(index + 1);
+	}
+
+	/**
+	 * @param value	Number to write, which may be negative
+	 */
+	public void writeInt(int value) {
+		writeCount((value << 1) ^ (value >> 31));
+	}
+
+	/**
+	 * @param value	Number to write, read as unsigned
+	 */
+	public void writeCount(int value) {
+		writeVarint(body, value);
+	}
+
+	/**
+	 * @param value	Number to write in full, eg. a seed
+	 */
+	public void writeLong(long value) {
+		try {
+			body.writeLong(value);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * @param value	Bytes to write as they are, after their length, eg. a nested file
+	 */
+	public void writeBytes(byte[] value) {
+		writeCount(value.length);
+		try {
+			body.write(value);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public void writeBoolean(boolean value) {
+		try {
+			body.writeBoolean(value);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public void writePosition(Position position) {
+		writeInt(position.getX());
+		writeInt(position.getY());
+		writeInt(position.getLayer());
+	}
+
+	/**
+	 * @return	the header and the table of strings, followed by everything written
+	 */
+	public byte[] toBytes() {
+		ByteArrayOutputStream file = new ByteArrayOutputStream(buffer.size() + 16 * strings.size() + 8);
+		DataOutputStream out = new DataOutputStream(file);
+		try {
+			out.writeInt(GameInOut.BINARY_MAGIC);
+			out.writeByte(GameInOut.BINARY_VERSION);
+			writeVarint(out, strings.size());
+			for (String value : strings.keySet()) {
+				byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+				writeVarint(out, utf8.length);
+				out.write(utf8);
+			}
+			buffer.writeTo(out);
+			out.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return file.toByteArray();
+	}
+
+	private static void writeVarint(DataOutputStream out, int value) {
+		try {
+			while ((value & ~0x7F) != 0) {
+				out.writeByte((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			out.writeByte(value);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
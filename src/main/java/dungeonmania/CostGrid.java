@@ -0,0 +1,158 @@
+package dungeonmania;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+import dungeonmania.allEntities.SwampTile;
+import dungeonmania.util.Position;
+
+/**
+ * A CostGrid holds the cost of moving onto every cell of a dungeon for Mercenaries and Assassins, one short per cell.
+ * A cell costs 2 to move onto, or the move factor of the SwampTile on it, and cells holding an entity in
+ * Dijkstra.MERC_ILLEGAL cannot be moved onto. The dungeon updates the cost of a cell whenever an entity affecting
+ * it is added to, removed from, moves onto or off the cell, or changes type (eg. a door being unlocked), so
+ * pathfinding can read the costs directly instead of looking at the entities on every cell.
+ * The grid only covers the cells that have ever held such an entity, every other cell costs 2.
+ */
+public class CostGrid {
+	public static final short BLOCKED = -1;
+	public static final short OPEN = 2;
+
+	private int minX = 0;
+	private int minY = 0;
+	private int width = 0;
+	private int height = 0;
+	private short[] cost = new short[0];
+	/**
+	 * Number of cells with each cost other than BLOCKED or OPEN, ie. the swamps
+	 */
+	private final TreeMap<Integer, Integer> weightedCells = new TreeMap<>();
+	/**
+	 * Number of times the cost of a cell has changed, so pathfinding can tell if what it keeps about the grid holds
+	 */
+	private int version = 0;
+
+	/**
+	 * @param entity an entity
+	 * @return true if the entity can change the cost of moving onto its cell
+	 */
+	public static boolean affectsCost(Entity entity) {
+		return entity instanceof SwampTile || Dijkstra.MERC_ILLEGAL.contains(entity.getType());
+	}
+
+	/**
+	 * @param entOnCell the entities on a cell
+	 * @return the cost of moving onto the cell, or BLOCKED if a Mercenary/Assassin cannot move onto it
+	 */
+	public static short costOf(List<Entity> entOnCell) {
+		int traverseSpeed = OPEN;
+		for (Entity ent : entOnCell) {
+			if (Dijkstra.MERC_ILLEGAL.contains(ent.getType())) {
+				return BLOCKED;
+			} else if (ent instanceof SwampTile) {
+				traverseSpeed = ((SwampTile) ent).getMoveFactor();
+			}
+		} return (short) Math.max(0, Math.min(traverseSpeed, Short.MAX_VALUE));
+	}
+
+	/**
+	 * @param x x coordinate of the cell
+	 * @param y y coordinate of the cell
+	 * @return the cost of moving onto the cell, or BLOCKED
+	 */
+	public int getCost(int x, int y) {
+		if (x < minX || x >= minX + width || y < minY || y >= minY + height) {
+			return OPEN;
+		} return cost[(x - minX) * height + (y - minY)];
+	}
+
+	/**
+	 * @return the lowest cost of moving onto any cell
+	 */
+	public int getMinCost() {
+		return weightedCells.isEmpty() ? OPEN : Math.min(OPEN, weightedCells.firstKey());
+	}
+
+	/**
+	 * @return true if some cells cost something other than OPEN to move onto
+	 */
+	public boolean hasWeightedCells() {
+		return !weightedCells.isEmpty();
+	}
+
+	/**
+	 * @return a number that changes whenever the cost of a cell does
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Recalculates the cost of a cell from the entities now on it
+	 * @param pos position of the cell, the layer is ignored
+	 * @param entOnCell the entities on the cell
+	 */
+	public void update(Position pos, List<Entity> entOnCell) {
+		short newCost = costOf(entOnCell);
+		int x = pos.getX();
+		int y = pos.getY();
+		if (x < minX || x >= minX + width || y < minY || y >= minY + height) {
+			if (newCost == OPEN) {
+				return;
+			}
+			grow(x, y);
+		}
+		int cell = (x - minX) * height + (y - minY);
+		if (cost[cell] == newCost) {
+			return;
+		}
+		countWeighted(cost[cell], -1);
+		countWeighted(newCost, 1);
+		cost[cell] = newCost;
+		version++;
+	}
+
+	private void countWeighted(int cellCost, int change) {
+		if (cellCost != OPEN && cellCost != BLOCKED) {
+			weightedCells.merge(cellCost, change, (a, b) -> (a + b == 0) ? null : a + b);
+		}
+	}
+
+	/**
+	 * Forget the cost of every cell
+	 */
+	public void clear() {
+		minX = 0;
+		minY = 0;
+		width = 0;
+		height = 0;
+		cost = new short[0];
+		weightedCells.clear();
+		version++;
+	}
+
+	/**
+	 * Widen the grid to cover the given cell, leaving room on every side so that entities moving about the edge
+	 * of the dungeon do not make it grow on every move
+	 */
+	private void grow(int x, int y) {
+		int newMinX = (width == 0) ? x - 8 : Math.min(minX, x - 8);
+		int newMinY = (height == 0) ? y - 8 : Math.min(minY, y - 8);
+		int newMaxX = (width == 0) ? x + 8 : Math.max(minX + width - 1, x + 8);
+		int newMaxY = (height == 0) ? y + 8 : Math.max(minY + height - 1, y + 8);
+		int newHeight = newMaxY - newMinY + 1;
+
+		short[] newCost = new short[(newMaxX - newMinX + 1) * newHeight];
+		Arrays.fill(newCost, OPEN);
+		for (int col = 0; col < width; col++) {
+			System.arraycopy(cost, col * height, newCost, (minX + col - newMinX) * newHeight + (minY - newMinY), height);
+		}
+
+		minX = newMinX;
+		minY = newMinY;
+		width = newMaxX - newMinX + 1;
+		height = newHeight;
+		cost = newCost;
+	}
+}
@@ -0,0 +1,131 @@
+package dungeonmania;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import dungeonmania.response.models.EntityResponse;
+
+/**
+ * A DeltaTracker keeps, for a Dungeon being played, which entities each response sent to the client created, changed
+ * or removed, so that a client can be sent only what changed since the last response it acknowledged rather than
+ * every entity again.
+ * Each response is numbered by sync. Every entity is stamped with the number of the first response it was seen in
+ * since it last changed, and every entity removed with the number of the first response it was missing from. The
+ * delta since a response is then the entities stamped after it and the entities removed after it.
+ * Only the last WINDOW responses can be acknowledged, older ones (or ones made by another tracker, eg. before the
+ * game was rewound or loaded) are answered with every entity.
+ */
+public class DeltaTracker {
+	public static final int WINDOW = 64;
+
+	private int sequence = 0;
+	private Map<String, EntityResponse> sent = new HashMap<>();
+	private Map<String, EntityResponse> seen = new HashMap<>();
+	private final Map<String, Integer> changedAt = new HashMap<>();
+	private final Map<String, Integer> removedAt = new HashMap<>();
+
+	/**
+	 * The entities created or changed and removed since an acknowledged response
+	 */
+	public static class Delta {
+		private final int sequence;
+		private final boolean full;
+		private final List<EntityResponse> entities;
+		private final List<String> removed;
+
+		private Delta(int sequence, boolean full, List<EntityResponse> entities, List<String> removed) {
+			this.sequence = sequence;
+			this.full = full;
+			this.entities = entities;
+			this.removed = removed;
+		}
+
+		/**
+		 * @return	the number of the response, for the client to acknowledge
+		 */
+		public int getSequence() {
+			return sequence;
+		}
+
+		/**
+		 * @return	true if every entity is given, rather than only those changed
+		 */
+		public boolean isFull() {
+			return full;
+		}
+
+		public List<EntityResponse> getEntities() {
+			return entities;
+		}
+
+		public List<String> getRemoved() {
+			return removed;
+		}
+	}
+
+	/**
+	 * Compares the entities of the dungeon with those of the last response, and numbers a new response
+	 * @param dungeon	Dungeon being played
+	 * @param acknowledged	Number of the last response the client has, or -1 for every entity
+	 * @return	the entities created or changed, and removed, since the acknowledged response
+	 */
+	public Delta sync(Dungeon dungeon, int acknowledged) {
+		sequence++;
+		seen.clear();
+		for (Entity entity : dungeon.getEntities()) {
+			EntityResponse last = sent.get(entity.getId());
+			EntityResponse current = entity.getResponse();
+			// Entities that have not changed still have the response last sent
+			if (last == null || (last != current && changed(last, current))) {
+				changedAt.put(entity.getId(), sequence);
+				removedAt.remove(entity.getId());
+			}
+			seen.put(entity.getId(), current);
+		}
+		for (String id : sent.keySet()) {
+			if (!seen.containsKey(id)) {
+				changedAt.remove(id);
+				removedAt.put(id, sequence);
+			}
+		}
+		Map<String, EntityResponse> swap = sent;
+		sent = seen;
+		seen = swap;
+
+		// Forget removals no response that can still be acknowledged needs
+		int oldest = Math.max(1, sequence - WINDOW);
+		for (Iterator<Integer> it = removedAt.values().iterator(); it.hasNext();) {
+			if (it.next() <= oldest) {
+				it.remove();
+			}
+		}
+
+		boolean full = acknowledged < oldest || acknowledged >= sequence;
+		List<EntityResponse> entities = new ArrayList<>();
+		for (Entity entity : dungeon.getEntities()) {
+			if (full || changedAt.get(entity.getId()) > acknowledged) {
+				entities.add(sent.get(entity.getId()));
+			}
+		}
+		List<String> removed = new ArrayList<>();
+		if (!full) {
+			for (Map.Entry<String, Integer> entry : removedAt.entrySet()) {
+				if (entry.getValue() > acknowledged) {
+					removed.add(entry.getKey());
+				}
+			}
+		}
+		return new Delta(sequence, full, entities, removed);
+	}
+
+	/**
+	 * @return	true if the entity no longer looks as it did in the last response. An entity that has moved away and
+	 * 			back since has a new response, but is not changed.
+	 */
+	private static boolean changed(EntityResponse last, EntityResponse current) {
+		return !last.equals(current) || last.getPosition().getLayer() != current.getPosition().getLayer();
+	}
+}
@@ -14,6 +14,11 @@ import dungeonmania.util.Position;
  */
 public interface Dijkstra {
 
+	/**
+	 * Entity types Mercenary/Assassins cannot coincide with
+	 */
+	public static final List<String> MERC_ILLEGAL = List.of("door", "door_1", "door_2", "wall", "boulder", "zombie_toast_spawner", "bomb");
+
 	/**
 	 * This method returns the most optimal position for the Mercenary/Assassin to move onto in pursuit of the player.
 	 * @param source the source position (position of the Mercenary/Assassin)
@@ -48,15 +53,7 @@ public interface Dijkstra {
 		
 		/*A list of entity types Mercenary/Assasins cannot coincide with. If at least one of these entities exist on a cell,
 		there will be no edges between this cell and its adjacent cells in the weighted graph */
-		List<String> mercIllegal = new ArrayList<>();
-		
-		mercIllegal.add("door");
-		mercIllegal.add("door_1");
-		mercIllegal.add("door_2");
-		mercIllegal.add("wall");
-		mercIllegal.add("boulder");
-		mercIllegal.add("zombie_toast_spawner");
-		mercIllegal.add("bomb");
+		List<String> mercIllegal = MERC_ILLEGAL;
 
 		/* iterating through the current dungeon to check if each cell should be able traversed by the Merc/Assasin */
 		for (int x = minX; x <= maxX; x++) {
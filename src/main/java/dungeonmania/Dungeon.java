@@ -1,8 +1,12 @@
 package dungeonmania;
 
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.SplittableRandom;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Arrays;
 
 import dungeonmania.allEntities.*;
 import dungeonmania.util.*;
@@ -10,15 +14,19 @@ import dungeonmania.util.*;
 public class Dungeon {
 	private int id;
 	private String name;
-	private List<CollectableEntity> inventory;
-    private List<Entity> entities;
+	/*
+	 * The game mode and tick are declared before the entities so that they are saved first, and DungeonReader
+	 * can create each entity as it reads it
+	 */
     private String gameMode;
-    private String goals;
-	private int historicalEntCount;
 	/**
 	 * Current tick of the dungeon 
 	 */
 	private int tickNumber;
+	private List<CollectableEntity> inventory;
+    private List<Entity> entities;
+    private String goals;
+	private int historicalEntCount;
 	private Position spawnpoint;
 	private GoalNode foundGoals;
 	private String goalConditions;
@@ -32,6 +40,90 @@ public class Dungeon {
 	 */
 	private int spiderSpawnrate;
 	private String rewindPath;
+	/**
+	 * Seed of the random stream of the current tick. Every random choice in the game (spawning, battles, zombie
+	 * movement...) is drawn from that one stream, and each tick starts a new stream seeded from the seed of the
+	 * last, so a game started from the same seed and played the same way plays out the same. Saves and snapshots,
+	 * taken between ticks, only need the seed.
+	 */
+	private long randomSeed = new SplittableRandom().nextLong();
+	private transient SplittableRandom random;
+	/**
+	 * Pathfinding engine Mercenaries/Assassins use to chase the player, one of DIJKSTRA, ASTAR or JUMP_POINT
+	 */
+	private String pathfinding = DIJKSTRA;
+	/**
+	 * Entities grouped by the cell they are on (regardless of layer), each cell kept in the
+	 * same order as the list of entities. Rebuilt whenever the entities are set, so it is not
+	 * serialised.
+	 */
+	private transient Map<Position, List<Entity>> cells = new HashMap<>();
+	/**
+	 * Entities by id. Ids are not guaranteed to be unique (eg. unlocked doors), in which case
+	 * the first matching entity in the list of entities is kept, as a linear search would.
+	 */
+	private transient Map<String, Entity> ids = new HashMap<>();
+	/**
+	 * Entities grouped by type, each kept in the same order as the list of entities
+	 */
+	private transient Map<String, List<Entity>> types = new HashMap<>();
+	/**
+	 * Entities grouped by the classes in TRACKED_CLASSES, each kept in the same order as the
+	 * list of entities
+	 */
+	private transient Map<Class<?>, List<Entity>> classes = new HashMap<>();
+	private transient Player player;
+	/**
+	 * Bounding box of the positions of all entities. Extended as entities are added or moved,
+	 * and only recomputed once an entity on the boundary has moved or been removed.
+	 */
+	private transient int minX, maxX, minY, maxY;
+	private transient boolean boundsStale = true;
+	/**
+	 * Shortest paths to the player, shared by all Mercenaries/Assassins moving during a tick
+	 */
+	private transient FlowField flowField;
+	/**
+	 * Cost of moving onto each cell for Mercenaries/Assassins, updated as entities blocking
+	 * cells or slowing movement change
+	 */
+	private transient CostGrid costGrid = new CostGrid();
+	private transient AStar pathFinder;
+	/**
+	 * Snapshots of the last ticks, kept in memory for rewinding
+	 */
+	private transient RewindBuffer rewindBuffer;
+	/**
+	 * Entities sent in each response, for responding with only what changed
+	 */
+	private transient DeltaTracker deltaTracker;
+	/**
+	 * Actions the game has been played with, for rebuilding any of its ticks
+	 */
+	private transient ActionLog actionLog;
+	/**
+	 * Entities changed since the RewindBuffer recording this dungeon last took them, kept from the first time it
+	 * does. Not serialised.
+	 */
+	private transient EntityChanges entityChanges;
+	private transient RewindBuffer entityChangesFor;
+	/**
+	 * Number of entities placed in this dungeon so far, used to order the entities on a cell
+	 */
+	private transient int placementCount;
+	/**
+	 * Pathfinding engines a dungeon can be played with, see setPathfinding
+	 */
+	public static final String DIJKSTRA = "dijkstra";
+	public static final String ASTAR = "astar";
+	public static final String JUMP_POINT = "jps";
+	/**
+	 * Classes of entities that are frequently searched for, eg. by goals, movement and spawning
+	 */
+	private static final List<Class<? extends Entity>> TRACKED_CLASSES = List.of(
+		MovingEntity.class, ZombieToast.class, Mercenary.class, Boulder.class, Switch.class, 
+		ZombieToastSpawner.class, Portal.class, TimeTravellingPortal.class, Exit.class, Bomb.class, Treasure.class
+	);
 
 
     public Dungeon(int id, String name, List<Entity> entities, String gameMode, String goals, GoalNode foundGoals, String goalConditions) {
@@ -39,6 +131,7 @@ public class Dungeon {
 		this.name = name;	
 		this.inventory = new ArrayList<>();	
         this.entities = entities;
+		indexEntities();
         this.gameMode = gameMode;
         this.goals = goals;
 		this.historicalEntCount = entities.size();
@@ -85,6 +178,14 @@ public class Dungeon {
 		return foundGoals;
 	}
 
+	public String getGameMode() {
+		return gameMode;
+	}
+
+	public String getGoalConditions() {
+		return goalConditions;
+	}
+
 	public int getMercSpawnrate() {
 		return mercSpawnrate;
 	}
@@ -98,12 +199,8 @@ public class Dungeon {
 	 * @return
 	 */
 	public int getMinX() {
-		int retInt = 1000;
-		for (Entity ent : getEntities()) {
-			if (ent.getPosition().getX() < retInt) {
-				retInt = ent.getPosition().getX();
-			}
-		} return retInt;
+		updateBounds();
+		return minX;
 	}
 
 	/**
@@ -111,12 +208,8 @@ public class Dungeon {
 	 * @return
 	 */
 	public int getMaxX() {
-		int retInt = -1000;
-		for (Entity ent : getEntities()) {
-			if (ent.getPosition().getX() > retInt) {
-				retInt = ent.getPosition().getX();
-			}
-		} return retInt;
+		updateBounds();
+		return maxX;
 	}
 
 	/**
@@ -124,12 +217,8 @@ public class Dungeon {
 	 * @return
 	 */
 	public int getMinY() {
-		int retInt = 1000;
-		for (Entity ent : getEntities()) {
-			if (ent.getPosition().getY() < retInt) {
-				retInt = ent.getPosition().getY();
-			}
-		} return retInt;
+		updateBounds();
+		return minY;
 	}
 
 	/**
@@ -137,12 +226,44 @@ public class Dungeon {
 	 * @return
 	 */
 	public int getMaxY() {
-		int retInt = -1000;
+		updateBounds();
+		return maxY;
+	}
+
+	/**
+	 * Recompute the bounding box of the dungeon, if it is out of date
+	 */
+	private void updateBounds() {
+		if (!boundsStale) return;
+		minX = 1000;
+		maxX = -1000;
+		minY = 1000;
+		maxY = -1000;
+		boundsStale = false;
 		for (Entity ent : getEntities()) {
-			if (ent.getPosition().getY() > retInt) {
-				retInt = ent.getPosition().getY();
-			}
-		} return retInt;
+			extendBounds(ent.getPosition());
+		}
+	}
+
+	/**
+	 * Extend the bounding box to include a position an entity has been placed on
+	 */
+	private void extendBounds(Position position) {
+		if (boundsStale || position == null) return;
+		minX = Math.min(minX, position.getX());
+		maxX = Math.max(maxX, position.getX());
+		minY = Math.min(minY, position.getY());
+		maxY = Math.max(maxY, position.getY());
+	}
+
+	/**
+	 * Invalidate the bounding box if an entity has left a position on its boundary
+	 */
+	private void shrinkBounds(Position position) {
+		if (boundsStale || position == null) return;
+		if (position.getX() == minX || position.getX() == maxX || position.getY() == minY || position.getY() == maxY) {
+			boundsStale = true;
+		}
 	}
 
 	/**
@@ -169,12 +290,7 @@ public class Dungeon {
 	 * @return the player entity of a dungeon
 	 */
 	public Player getPlayer() {
-		for (Entity entity : getEntities()) {
-			if (entity instanceof Player) {
-				return (Player)entity;
-			}	
-		}
-		return null;
+		return player;
 	}
 
 
@@ -186,14 +302,7 @@ public class Dungeon {
 	 * 				<li> null, if it doesn't exist
 	 */
 	public Entity getEntity(String id) {
-		int entId = 0;
-		for (Entity entity : getEntities()) {
-			if (entity.getId().equals(id)) {
-				entId = getEntities().indexOf(entity);
-				return entities.get(entId);
-			}
-		}
-		return null;
+		return ids.get(id);
 	}
 
 	/**
@@ -203,8 +312,8 @@ public class Dungeon {
 	 * 					<li> null, if it doesn't exist
 	 */
 	public Entity getEntity(Position position) {
-		for (Entity entity : getEntities()) {
-			if (entity.getPosition().equals(position) && entity.getPosition().getLayer() == position.getLayer()) {
+		for (Entity entity : cellOf(position)) {
+			if (entity.getPosition().getLayer() == position.getLayer()) {
 				return entity;
 			}
 		}
@@ -219,8 +328,8 @@ public class Dungeon {
 	 * 				<li> null, if it doesn't exist
 	 */
 	public Entity getEntity(String type, Position position) {
-		for (Entity entity : getEntities()) {
-			if (entity.getPosition().equals(position) && entity.getType().equals(type)) {
+		for (Entity entity : cellOf(position)) {
+			if (entity.getType().equals(type)) {
 				return entity;
 			}
 		}
@@ -233,25 +342,89 @@ public class Dungeon {
 	 * @return	List<Entity> of entities on cell
 	 */
 	public List<Entity> getEntitiesOnCell(Position cell) {
-		List<Entity> result = new ArrayList<>();
-		for (Entity entity : getEntities()) {
-			if (entity.getPosition().getX() == cell.getX() && entity.getPosition().getY() == cell.getY()) {
-				result.add(entity);
+		return new ArrayList<>(cellOf(cell));
+	}
+
+	/**
+	 * @return player's curr position in the dungeon
+	 */
+	public Position getPlayerPosition() {
+		return (player == null) ? null : player.getPosition();
+	}
+
+	/**
+	 * @return	cost of moving onto each cell for Mercenaries/Assassins
+	 */
+	public CostGrid getCostGrid() {
+		return costGrid;
+	}
+
+	/**
+	 * Returns the FlowField towards the player, building it again if the player has moved or
+	 * the cost of moving onto a cell has changed since it was last built
+	 * @return	FlowField towards the player
+	 */
+	public FlowField getFlowField() {
+		if (flowField == null || !flowField.isFor(this)) {
+			flowField = new FlowField(this);
+		}
+		return flowField;
+	}
+
+	/**
+	 * Returns the next position for a Mercenary/Assassin to move onto in pursuit of the player, using the
+	 * pathfinding engine of the dungeon
+	 * @param source	Current position of the Mercenary/Assassin
+	 * @return	the next position to move onto, or null if the player cannot be reached
+	 */
+	public Position nextPosTowardsPlayer(Position source) {
+		if (pathfinding.equals(DIJKSTRA)) {
+			return getFlowField().nextPos(source);
+		} else if (pathFinder == null) {
+			pathFinder = pathfinding.equals(JUMP_POINT) ? new JumpPointSearch() : new AStar();
+		}
+		return pathFinder.move(this, source);
+	}
+
+	/**
+	 * Get all the entities of a type
+	 * @param type	Type of entity
+	 * @return	List<Entity> of entities of the type, in the same order as the list of entities
+	 */
+	public List<Entity> getEntitiesOfType(String type) {
+		List<Entity> bucket = types.get(type);
+		return (bucket == null) ? new ArrayList<>() : new ArrayList<>(bucket);
+	}
+
+	/**
+	 * Get all the entities that are instances of a class. Frequently used classes are looked up
+	 * directly, other classes are searched for.
+	 * @param entityClass	Class of entity, eg. MovingEntity.class
+	 * @return	List of entities of the class, in the same order as the list of entities
+	 */
+	public <T extends Entity> List<T> getEntitiesOfClass(Class<T> entityClass) {
+		List<T> result = new ArrayList<>();
+		List<Entity> bucket = classes.get(entityClass);
+		for (Entity entity : (bucket == null) ? getEntities() : bucket) {
+			if (entityClass.isInstance(entity)) {
+				result.add(entityClass.cast(entity));
 			}
 		}
 		return result;
 	}
 
 	/**
-	 * @return player's curr position in the dungeon
+	 * Check if any entity is an instance of a class
+	 * @param entityClass	Class of entity
+	 * @return	true if such an entity exists in the dungeon
+	 * 			<li> false if otherwise
 	 */
-	public Position getPlayerPosition() {
-		for (Entity entity : getEntities()) {
-			if (entity instanceof Player) {
-				return entity.getPosition();
-			}	
+	public boolean entityExists(Class<? extends Entity> entityClass) {
+		List<Entity> bucket = classes.get(entityClass);
+		if (bucket != null) {
+			return !bucket.isEmpty();
 		}
-		return null;
+		return !getEntitiesOfClass(entityClass).isEmpty();
 	}
 
 	public boolean getMidnightStatus() {
@@ -313,12 +486,7 @@ public class Dungeon {
 		if ((wood >= 1 || arrow >= 2) && (key >= 1 || treasure >= 1) && (sunStone >= 1)) {
 			result.add("sceptre");
 		} 
-		Boolean zombie = false;
-		for (Entity ent : getEntities()) {
-			if (ent instanceof ZombieToast) {
-				zombie = true;
-			}
-		}
+		Boolean zombie = entityExists(ZombieToast.class);
 		if (armour >= 1 && sunStone >= 1 && zombie == false) {
 			result.add("midnight_armour");
 		}
@@ -339,6 +507,61 @@ public class Dungeon {
 		this.rewindPath = rewindPath;
 	}
 
+	public RewindBuffer getRewindBuffer() {
+		return rewindBuffer;
+	}
+
+	public void setRewindBuffer(RewindBuffer rewindBuffer) {
+		this.rewindBuffer = rewindBuffer;
+	}
+
+	public ActionLog getActionLog() {
+		return actionLog;
+	}
+
+	/**
+	 * Take the entities placed, removed, moved, renamed or retyped since the RewindBuffer last took them, and start
+	 * keeping the changes from now on
+	 * @param buffer	RewindBuffer recording the dungeon
+	 * @return	the changes, or null if they were not all kept for the buffer (eg. the first time, or after the
+	 * 			entities were replaced) so the whole dungeon must be recorded
+	 */
+	EntityChanges takeEntityChanges(RewindBuffer buffer) {
+		EntityChanges taken = (entityChangesFor == buffer) ? entityChanges : null;
+		entityChanges = new EntityChanges();
+		entityChangesFor = buffer;
+		return taken;
+	}
+
+	public void setActionLog(ActionLog actionLog) {
+		this.actionLog = actionLog;
+	}
+
+	public DeltaTracker getDeltaTracker() {
+		return deltaTracker;
+	}
+
+	public void setDeltaTracker(DeltaTracker deltaTracker) {
+		this.deltaTracker = deltaTracker;
+	}
+
+	public String getPathfinding() {
+		return pathfinding;
+	}
+
+	/**
+	 * Choose the pathfinding engine Mercenaries/Assassins use to chase the player
+	 * @param pathfinding	DIJKSTRA, ASTAR or JUMP_POINT
+	 * @throws IllegalArgumentException	If the engine does not exist
+	 */
+	public void setPathfinding(String pathfinding) throws IllegalArgumentException {
+		if (!Arrays.asList(DIJKSTRA, ASTAR, JUMP_POINT).contains(pathfinding)) {
+			throw new IllegalArgumentException("Pathfinding engine does not exist");
+		}
+		this.pathfinding = pathfinding;
+		this.pathFinder = null;
+	}
+
 	public void setSpawnpoint(Position spawnpoint) {
 		this.spawnpoint = spawnpoint;
 	}
@@ -351,6 +574,29 @@ public class Dungeon {
 		this.tickNumber = tickNumber;
 	}
 
+	/**
+	 * @return	the random stream of the current tick, which every random choice in the game is drawn from
+	 */
+	public SplittableRandom getRandom() {
+		if (random == null) {
+			random = new SplittableRandom(randomSeed);
+		}
+		return random;
+	}
+
+	public long getRandomSeed() {
+		return randomSeed;
+	}
+
+	/**
+	 * Start the random stream of the current tick again from a seed
+	 * @param randomSeed	Seed of the stream
+	 */
+	public void setRandomSeed(long randomSeed) {
+		this.randomSeed = randomSeed;
+		this.random = null;
+	}
+
 	public void setGoals(String goals) {
 		this.goals = goals;
 	}
@@ -365,6 +611,7 @@ public class Dungeon {
 
 	public void setEntities(List<Entity> entities) {
 		this.entities = entities;
+		indexEntities();
 	}
 
 	/**
@@ -374,12 +621,7 @@ public class Dungeon {
 	 * 			<li> false if otherwise
 	 */
 	public boolean entityExists(String type) {
-		for (Entity ent : getEntities()) {
-			if (ent.getType().equals(type)) {
-				return true;
-			}
-		}
-		return false;
+		return types.containsKey(type);
 	}
 
 	/**
@@ -389,12 +631,7 @@ public class Dungeon {
 	 * 			<li> false if otherwise
 	 */
 	public boolean entityExists(Position position) {
-		for (Entity ent : getEntities()) {
-			if (ent.getPosition().equals(position)) {
-				return true;
-			}
-		}
-		return false;
+		return !cellOf(position).isEmpty();
 	}
 
 	/**
@@ -405,12 +642,7 @@ public class Dungeon {
 	 * 			<li> false if otherwise
 	 */
 	public boolean entityExists(String type, Position position) {		
-		for (Entity ent : getEntities()) {
-			if (ent.getPosition().equals(position) && ent.getType().equals(type)) {
-				return true;
-			}
-		}
-		return false;
+		return getEntity(type, position) != null;
 	}
 
 	/**
@@ -418,7 +650,7 @@ public class Dungeon {
 	 * @param newEntity	Entity to be added
 	 */
     public void addEntity(Entity newEntity) {
-        this.entities.add(newEntity);
+        placeEntity(newEntity);
 		historicalEntCount++;
     }
 
@@ -427,7 +659,226 @@ public class Dungeon {
 	 * @param entity	Entity to be removed
 	 */
 	public void removeEntity(Entity entity) {
-		getEntities().remove(entity);
+		for (int i = 0; i < entities.size(); i++) {
+			if (entities.get(i) == entity) {
+				entities.remove(i);
+				if (entityChanges != null) {
+					entityChanges.removed(entity);
+				}
+				removeFromCell(entity, entity.getPosition());
+				shrinkBounds(entity.getPosition());
+				removeId(entity, entity.getId());
+				removeFromGroups(entity, entity.getType());
+				if (entity.getDungeon() == this) {
+					entity.setDungeon(null);
+				}
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Put an entity on the map without counting it as a newly created entity
+	 * @param entity	Entity to be placed
+	 */
+	private void placeEntity(Entity entity) {
+		entities.add(entity);
+		index(entity);
+		if (entityChanges != null) {
+			entityChanges.placed(entity);
+		}
+	}
+
+	/**
+	 * Keep the cell lookup and bounding box up to date when an entity of this dungeon changes position
+	 * @param entity	Entity that moved
+	 * @param previous	Position of the entity before it moved
+	 */
+	void entityMoved(Entity entity, Position previous) {
+		removeFromCell(entity, previous);
+		shrinkBounds(previous);
+		addToCell(entity, entity.getPosition());
+		extendBounds(entity.getPosition());
+		if (entityChanges != null) {
+			entityChanges.changed(entity);
+		}
+	}
+
+	/**
+	 * Keep the id lookup up to date when an entity of this dungeon changes id
+	 * @param entity	Entity that changed id
+	 * @param previous	Id of the entity before it changed
+	 */
+	void entityRenamed(Entity entity, String previous) {
+		removeId(entity, previous);
+		addId(entity);
+		if (entityChanges != null) {
+			entityChanges.changed(entity);
+		}
+	}
+
+	/**
+	 * Keep the type lookup up to date when an entity of this dungeon changes type
+	 * @param entity	Entity that changed type
+	 * @param previous	Type of the entity before it changed
+	 */
+	void entityRetyped(Entity entity, String previous) {
+		removeFromGroup(types, previous, entity);
+		addToGroup(types, entity.getType(), entity);
+		if (CostGrid.affectsCost(entity) || Dijkstra.MERC_ILLEGAL.contains(previous)) {
+			cellChanged(entity.getPosition());
+		}
+		if (entityChanges != null) {
+			entityChanges.changed(entity);
+		}
+	}
+
+	/**
+	 * Keep the cost of a cell up to date when an entity on it changes how it can be moved across
+	 * @param position	Position of the cell
+	 */
+	void cellChanged(Position position) {
+		if (position == null) return;
+		costGrid.update(position, cellOf(position));
+	}
+
+	/**
+	 * Rebuild the lookups from the list of entities
+	 */
+	private void indexEntities() {
+		cells.clear();
+		ids.clear();
+		types.clear();
+		classes.clear();
+		costGrid.clear();
+		player = null;
+		boundsStale = true;
+		placementCount = 0;
+		// The entities were replaced, so the changes kept no longer describe them
+		entityChanges = null;
+		for (Entity entity : entities) {
+			index(entity);
+		}
+	}
+
+	private void index(Entity entity) {
+		entity.setDungeon(this);
+		entity.setPlacement(placementCount++);
+		addToCell(entity, entity.getPosition());
+		extendBounds(entity.getPosition());
+		addId(entity);
+		addToGroup(types, entity.getType(), entity);
+		for (Class<? extends Entity> tracked : TRACKED_CLASSES) {
+			if (tracked.isInstance(entity)) {
+				addToGroup(classes, tracked, entity);
+			}
+		}
+		if (entity instanceof Player && (player == null || ((Entity) player).getPlacement() > entity.getPlacement())) {
+			player = (Player) entity;
+		}
+	}
+
+	private void removeFromGroups(Entity entity, String type) {
+		removeFromGroup(types, type, entity);
+		for (Class<? extends Entity> tracked : TRACKED_CLASSES) {
+			if (tracked.isInstance(entity)) {
+				removeFromGroup(classes, tracked, entity);
+			}
+		}
+		if (player == entity) {
+			player = null;
+			// Fall back to the next player, if there is one
+			for (Entity other : entities) {
+				if (other instanceof Player) {
+					player = (Player) other;
+					break;
+				}
+			}
+		}
+	}
+
+	private void addId(Entity entity) {
+		if (entity.getId() == null) return;
+		Entity existing = ids.get(entity.getId());
+		if (existing == null || existing.getPlacement() > entity.getPlacement()) {
+			ids.put(entity.getId(), entity);
+		}
+	}
+
+	private void removeId(Entity entity, String id) {
+		if (id == null || ids.get(id) != entity) return;
+		ids.remove(id);
+		// Fall back to the next entity sharing the id, if there is one
+		for (Entity other : entities) {
+			if (other != entity && id.equals(other.getId())) {
+				ids.put(id, other);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @param position	Position of cell, the layer is ignored
+	 * @return	the entities on the cell, in the same order as the list of entities. Must not be modified.
+	 */
+	private List<Entity> cellOf(Position position) {
+		List<Entity> cell = cells.get(cellKey(position));
+		return (cell == null) ? Collections.emptyList() : cell;
+	}
+
+	private void addToCell(Entity entity, Position position) {
+		if (position == null) return;
+		addToGroup(cells, cellKey(position), entity);
+		if (CostGrid.affectsCost(entity)) {
+			cellChanged(position);
+		}
+	}
+
+	private void removeFromCell(Entity entity, Position position) {
+		if (position == null) return;
+		removeFromGroup(cells, cellKey(position), entity);
+		if (CostGrid.affectsCost(entity)) {
+			cellChanged(position);
+		}
+	}
+
+	/**
+	 * Add an entity to a group of a lookup, keeping the group in placement order
+	 */
+	private static <K> void addToGroup(Map<K, List<Entity>> lookup, K key, Entity entity) {
+		if (key == null) return;
+		List<Entity> group = lookup.computeIfAbsent(key, k -> new ArrayList<>(2));
+		// Entities are almost always placed last, so search for the insertion point from the back
+		int i = group.size();
+		while (i > 0 && group.get(i - 1).getPlacement() > entity.getPlacement()) {
+			i--;
+		}
+		group.add(i, entity);
+	}
+
+	/**
+	 * Remove an entity from a group of a lookup, dropping the group once it is empty
+	 */
+	private static <K> void removeFromGroup(Map<K, List<Entity>> lookup, K key, Entity entity) {
+		if (key == null) return;
+		List<Entity> group = lookup.get(key);
+		if (group == null) return;
+		for (int i = 0; i < group.size(); i++) {
+			if (group.get(i) == entity) {
+				group.remove(i);
+				break;
+			}
+		}
+		if (group.isEmpty()) {
+			lookup.remove(key);
+		}
+	}
+
+	/**
+	 * Position hashes include the layer while equality does not, so cells are always keyed on layer 0
+	 */
+	private static Position cellKey(Position position) {
+		return new Position(position.getX(), position.getY());
 	}
 
 	/**
@@ -436,13 +887,8 @@ public class Dungeon {
 	 * @return	the number of entities of same type in the dungeon
 	 */
 	public int numOfEntities(String type) {
-		int counter = 0;
-		for (Entity ent : getEntities()) {
-			if (ent.getType().equals(type)) {
-				counter++;
-			}
-		}
-		return counter;
+		List<Entity> bucket = types.get(type);
+		return (bucket == null) ? 0 : bucket.size();
 	}
 
 	/**
@@ -450,6 +896,8 @@ public class Dungeon {
 	 */
 	public void tickOne() {
 		tickNumber++;
+		// Seeded from the last seed rather than the last stream, so how much of it was drawn does not matter
+		setRandomSeed(new SplittableRandom(randomSeed).nextLong());
 	}
 
 	/**
@@ -478,7 +926,7 @@ public class Dungeon {
 				util.use(getPlayer());
 				
 				if (item instanceof Bomb) {
-					this.getEntities().add(item);
+					placeEntity(item);
 				}
 			}
 		}
@@ -490,19 +938,13 @@ public class Dungeon {
 	 * Move enemies and boulder
 	 */
 	public void moveEnemiesAndBoulder() {
-		// Create a list of temp MovingEntities, to avoid Concurrent modifier exception
-		List<MovingEntity> tempEnts = new ArrayList<>();
-
-		for (Entity entity : this.getEntities()) {
-			if (entity instanceof MovingEntity) {
-				MovingEntity mov = (MovingEntity) entity;
-				tempEnts.add(mov);
-			} else if (entity instanceof Boulder) {
-				Boulder boulder = (Boulder) entity;
-				boulder.move(this);
-			}
+		for (Boulder boulder : getEntitiesOfClass(Boulder.class)) {
+			boulder.move(this);
 		}
 
+		// A copy of the MovingEntities, to avoid Concurrent modifier exception
+		List<MovingEntity> tempEnts = getEntitiesOfClass(MovingEntity.class);
+
 		// Move all Movable Entities
 		for (MovingEntity mov : tempEnts) {
 			Player player = getPlayer();
@@ -521,18 +963,15 @@ public class Dungeon {
 	public void detonateBombs() {
 		// Explode all valid bombs
 		List<Entity> toRemove = new ArrayList<>();
-		for (Entity entity : this.getEntities()) {
-			if (entity instanceof Bomb) {
-				Bomb bomb = (Bomb)entity;
-				if (bomb.isActive()) {
-					toRemove.addAll(bomb.explode(this));
-				}
+		for (Bomb bomb : getEntitiesOfClass(Bomb.class)) {
+			if (bomb.isActive()) {
+				toRemove.addAll(bomb.explode(this));
 			}
 		}
 
-		if (toRemove.size() != 0) {
-			this.getEntities().removeAll(toRemove);
-		}	
+		for (Entity entity : toRemove) {
+			removeEntity(entity);
+		}
 	}
 
 	/**
@@ -607,10 +1046,7 @@ public class Dungeon {
 			if (!newMerc.collide(entity, this)) return;
 		}
 		
-		Random rand = new Random();
-		int random = rand.nextInt(10);
-		
-		if (random < 2) {
+		if (getRandom().nextInt(10) < 2) {
 			Assassin newAssassin = factory.createAssassin(String.valueOf(newId), spawnpoint);
 			addEntity(newAssassin);
 		} else {
@@ -628,14 +1064,8 @@ public class Dungeon {
 	 */
 	private void zombieSpawn() {
 		// Spawn in zombies if appropriate
-		List<ZombieToastSpawner> spawners = new ArrayList<ZombieToastSpawner>();
+		List<ZombieToastSpawner> spawners = getEntitiesOfClass(ZombieToastSpawner.class);
 
-		for (Entity entity : getEntities()) {
-			if (entity.getType().equals("zombie_toast_spawner")) {
-				ZombieToastSpawner spawner = (ZombieToastSpawner)entity;
-				spawners.add(spawner);
-			}
-		}
 		// Spawn in new zombietoast after 20 ticks (20 ticks checked inside method)
 		for (ZombieToastSpawner spawner : spawners) {
 			spawner.spawnZombie(this);
@@ -701,15 +1131,13 @@ public class Dungeon {
 	 * @return	Position of random spawnpoint
 	 */
 	private Position randomSpawnpoint() {
-		Random rng = new Random();
-
 		int minX  = getMinX() > 0 ? getMinX() : 0;
 		int maxX = getMaxX() > minX ? getMaxX() : minX + 1;
-		int randX = rng.nextInt(maxX - minX) + minX;
+		int randX = getRandom().nextInt(minX, maxX);
 
 		int minY  = getMinY() > 0 ? getMinY() : 0;
 		int maxY = getMaxY() > minY ? getMaxY() : minY + 1;
-		int randY = rng.nextInt(maxY - minY) + minY;
+		int randY = getRandom().nextInt(minY, maxY);
 
 		Position ret = new Position(randX, randY);
 
@@ -0,0 +1,210 @@
+package dungeonmania;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import dungeonmania.util.FileLoader;
+
+/**
+ * A DungeonCatalogue keeps the names of the dungeons that can be played in memory, so that listing them, or checking
+ * a name before a game is started, does not list a directory.
+ * The dungeons are listed once, when the catalogue is created. Afterwards their directory is watched with a
+ * WatchService, so files added or removed by hand are picked up. Dungeons read from the classpath outside of a
+ * directory (eg. from a jar) cannot change, so they are listed once and not watched.
+ * A DungeonInfo of each dungeon is worked out the first time it is asked for, and kept until its file changes.
+ */
+public class DungeonCatalogue implements Closeable {
+	public static final String DUNGEON_RESOURCE = "/dungeons";
+
+	private static DungeonCatalogue defaultCatalogue;
+
+	private final Path dungeonDirectory;
+	private final Set<String> dungeons = ConcurrentHashMap.newKeySet();
+	private final Map<String, DungeonInfo> dungeonInfo = new ConcurrentHashMap<>();
+	private final WatchService watcher;
+
+	/**
+	 * Lists the dungeons, and starts watching their directory
+	 * @param dungeonDirectory	Directory of the dungeon files, or null to list /dungeons on the classpath once
+	 */
+	public DungeonCatalogue(Path dungeonDirectory) {
+		this.dungeonDirectory = dungeonDirectory;
+
+		WatchService watchService = null;
+		if (dungeonDirectory != null) {
+			try {
+				watchService = FileSystems.getDefault().newWatchService();
+				dungeonDirectory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+			} catch (IOException e) {
+				System.err.println("Cannot Watch Dungeon Directory, Dungeons Added Later Are Not Listed: " + e.getMessage());
+				if (watchService != null) {
+					try {
+						watchService.close();
+					} catch (IOException closeFailed) {
+						// Nothing is watched through it, so there is nothing left to stop
+					}
+					watchService = null;
+				}
+			}
+		}
+		this.watcher = watchService;
+
+		listDungeons();
+
+		if (watcher != null) {
+			Thread thread = new Thread(this::watch, "dungeon-catalogue");
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	/**
+	 * @return	the catalogue of the dungeons in /dungeons on the classpath, shared by every controller
+	 */
+	public static synchronized DungeonCatalogue getDefault() {
+		if (defaultCatalogue == null) {
+			defaultCatalogue = new DungeonCatalogue(DungeonTemplateCache.resourceFile(DUNGEON_RESOURCE));
+		}
+		return defaultCatalogue;
+	}
+
+	/**
+	 * @return	the names of the dungeons that can be played, in alphabetical order
+	 */
+	public List<String> dungeonNames() {
+		List<String> names = new ArrayList<>(dungeons);
+		Collections.sort(names);
+		return names;
+	}
+
+	public boolean hasDungeon(String dungeonName) {
+		return dungeons.contains(dungeonName);
+	}
+
+	/**
+	 * @param dungeonName	Name of a dungeon, eg. "maze"
+	 * @return	how many entities the dungeon holds and how much of the grid they cover, or null if there is no
+	 * 			such dungeon
+	 * @throws IOException	If the dungeon file cannot be read
+	 */
+	public DungeonInfo dungeonInfo(String dungeonName) throws IOException {
+		if (!hasDungeon(dungeonName)) {
+			return null;
+		}
+		DungeonInfo info = dungeonInfo.get(dungeonName);
+		if (info == null) {
+			String fileName = dungeonName + ".json";
+			try (Reader reader = (dungeonDirectory == null)
+					? FileLoader.openResourceFile(DUNGEON_RESOURCE + "/" + fileName)
+					: Files.newBufferedReader(dungeonDirectory.resolve(fileName), StandardCharsets.UTF_8)) {
+				info = DungeonReader.readTemplate(reader, dungeonName).getInfo();
+			}
+			dungeonInfo.put(dungeonName, info);
+		}
+		return info;
+	}
+
+	/**
+	 * Stop watching the directory
+	 */
+	@Override
+	public void close() throws IOException {
+		if (watcher != null) {
+			watcher.close();
+		}
+	}
+
+	/**
+	 * List the dungeons, adding those not yet known and removing those no longer there
+	 */
+	private void listDungeons() {
+		Set<String> fileNames;
+		if (dungeonDirectory == null) {
+			try {
+				fileNames = FileLoader.listFileNamesInResourceDirectory(DUNGEON_RESOURCE).stream()
+					.map(name -> name + ".json")
+					.collect(Collectors.toSet());
+			} catch (IOException e) {
+				System.err.println("Cannot List Dungeons: " + e.getMessage());
+				return;
+			}
+		} else {
+			try (Stream<Path> files = Files.list(dungeonDirectory)) {
+				fileNames = files.filter(Files::isRegularFile)
+					.map(file -> file.getFileName().toString())
+					.collect(Collectors.toSet());
+			} catch (IOException e) {
+				System.err.println("Cannot List Dungeons: " + e.getMessage());
+				return;
+			}
+		}
+
+		for (String dungeonName : new ArrayList<>(dungeons)) {
+			if (!fileNames.contains(dungeonName + ".json") && !fileNames.contains(dungeonName)) {
+				dungeons.remove(dungeonName);
+				dungeonInfo.remove(dungeonName);
+			}
+		}
+		for (String fileName : fileNames) {
+			dungeonChanged(fileName, true);
+		}
+	}
+
+	private void dungeonChanged(String fileName, boolean exists) {
+		if (fileName.startsWith(".")) {
+			return;
+		}
+		String dungeonName = fileName.replace(".json", "");
+		dungeonInfo.remove(dungeonName);
+		if (exists) {
+			dungeons.add(dungeonName);
+		} else {
+			dungeons.remove(dungeonName);
+		}
+	}
+
+	/**
+	 * Keep the catalogue up to date with the files added, changed and removed in the directory, until the catalogue
+	 * is closed
+	 */
+	private void watch() {
+		while (true) {
+			WatchKey key;
+			try {
+				key = watcher.take();
+			} catch (InterruptedException | ClosedWatchServiceException e) {
+				return;
+			}
+
+			for (WatchEvent<?> event : key.pollEvents()) {
+				if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+					// Events were lost, so the directory is listed again
+					listDungeons();
+					continue;
+				}
+				// The file is checked rather than trusting the kind of event, as it may have changed again since
+				String fileName = event.context().toString();
+				dungeonChanged(fileName, Files.isRegularFile(dungeonDirectory.resolve(fileName)));
+			}
+			key.reset();
+		}
+	}
+}
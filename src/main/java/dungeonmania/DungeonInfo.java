@@ -0,0 +1,67 @@
+package dungeonmania;
+
+import java.util.Collection;
+
+import dungeonmania.util.Position;
+
+/**
+ * A DungeonInfo describes a dungeon file or saved game without it being loaded: how many entities it holds, how much
+ * of the grid they cover, and the mode it is played in.
+ */
+public class DungeonInfo {
+	private final String name;
+	private final int entityCount;
+	private final int width;
+	private final int height;
+	private final String gameMode;
+
+	/**
+	 * @param name	Name of the dungeon or saved game
+	 * @param positions	Position of each entity
+	 * @param gameMode	Mode the game is played in, or null for a dungeon file, which is played in any mode
+	 */
+	public DungeonInfo(String name, Collection<Position> positions, String gameMode) {
+		int minX = Integer.MAX_VALUE;
+		int minY = Integer.MAX_VALUE;
+		int maxX = Integer.MIN_VALUE;
+		int maxY = Integer.MIN_VALUE;
+		for (Position position : positions) {
+			minX = Math.min(minX, position.getX());
+			minY = Math.min(minY, position.getY());
+			maxX = Math.max(maxX, position.getX());
+			maxY = Math.max(maxY, position.getY());
+		}
+
+		this.name = name;
+		this.entityCount = positions.size();
+		this.width = positions.isEmpty() ? 0 : maxX - minX + 1;
+		this.height = positions.isEmpty() ? 0 : maxY - minY + 1;
+		this.gameMode = gameMode;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getEntityCount() {
+		return entityCount;
+	}
+
+	/**
+	 * @return	the number of columns between the leftmost and rightmost entities
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return	the number of rows between the topmost and bottommost entities
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	public String getGameMode() {
+		return gameMode;
+	}
+}
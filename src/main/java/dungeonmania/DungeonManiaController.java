@@ -2,37 +2,151 @@ package dungeonmania;
 
 import dungeonmania.exceptions.InvalidActionException;
 import dungeonmania.response.models.AnimationQueue;
+import dungeonmania.response.models.DungeonDeltaResponse;
 import dungeonmania.response.models.DungeonResponse;
 import dungeonmania.response.models.EntityResponse;
 import dungeonmania.response.models.ItemResponse;
 import dungeonmania.util.Direction;
-import dungeonmania.util.FileLoader;
 import dungeonmania.util.Position;
 import dungeonmania.allEntities.*;
 
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
 
-import java.io.File;
+
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
 import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 public class DungeonManiaController {
 
+	public static final int DEFAULT_MAX_GAMES = 8;
+	public static final String ACTION_LOG_FILE = "actions.log";
+
+	/**
+	 * Where the tick a game is rewound to comes from
+	 */
+	public enum RewindMode {
+		/** The snapshots of the last ticks kept by the RewindBuffer of the game */
+		SNAPSHOTS,
+		/** Replaying the ActionLog of the game, which keeps no snapshots and reaches back to the start of the game */
+		ACTION_LOG
+	}
+
+	/**
+	 * LinkedHashMap games: each game kept in memory by its id, the game used longest ago first
+	 */
+	private final LinkedHashMap<Integer, Dungeon> games = new LinkedHashMap<>(16, 0.75f, true);
+	/**
+	 * Names of the games spilled into the GameStore by their id, to be read back when they are next used
+	 */
+	private final Map<Integer, String> spilledGames = new HashMap<>();
+	/**
+	 * Number of games kept in memory, besides those spilled
+	 */
+	private final int maxGames;
+	/**
+	 * Start of the file names of the games this controller spills, which no other controller uses
+	 */
+	private String spillPrefix = ".spilled-" + UUID.randomUUID() + "-";
+	private boolean suspended = false;
 	/**
-	 * ArrayList games: each game is stored as a map of existing entities, with their unique id as the key (stored as an int).
+	 * True for a controller only driving games for simulation, which keeps no ticks for rewinding
 	 */
-	private List<Dungeon> games =  new ArrayList<>();
+	private boolean headless = false;
 	private int lastUsedDungeonId = 0;
 	private Dungeon currentDungeon;
+	/**
+	 * Number of ticks each game keeps in memory for rewinding
+	 */
+	private final int rewindCapacity;
+	private final RewindMode rewindMode;
+	/**
+	 * Writes saved games into the GameStore in the background
+	 */
+	private final PersistenceWriter persistenceWriter;
+	/**
+	 * Games that can be loaded from the store of the PersistenceWriter
+	 */
+	private final GameCatalogue catalogue;
+
+	/**
+	 * Time the last rewind path was named after, so no two games are given the same one
+	 */
+	private static final AtomicLong lastRewindPathTime = new AtomicLong();
+
+	/**
+	 * Writer of headless controllers, which never save into its store
+	 */
+	static final PersistenceWriter HEADLESS_WRITER = new PersistenceWriter(new InMemoryGameStore(), PersistenceWriter.DEFAULT_CAPACITY);
 
     public DungeonManiaController() {
+		this(RewindBuffer.MIN_CAPACITY);
+	}
 
+	/**
+	 * @param rewindCapacity	Number of ticks each game keeps in memory for rewinding
+	 * @throws IllegalArgumentException	If fewer than RewindBuffer.MIN_CAPACITY ticks would be kept
+	 */
+	public DungeonManiaController(int rewindCapacity) throws IllegalArgumentException {
+		this(rewindCapacity, PersistenceWriter.getDefault());
+	}
+
+	/**
+	 * @param rewindCapacity	Number of ticks each game keeps in memory for rewinding
+	 * @param persistenceWriter	Writer saving games into its GameStore in the background
+	 * @throws IllegalArgumentException	If fewer than RewindBuffer.MIN_CAPACITY ticks would be kept
+	 */
+	public DungeonManiaController(int rewindCapacity, PersistenceWriter persistenceWriter) throws IllegalArgumentException {
+		this(rewindCapacity, persistenceWriter, DEFAULT_MAX_GAMES);
+	}
+
+	/**
+	 * @param rewindCapacity	Number of ticks each game keeps in memory for rewinding
+	 * @param persistenceWriter	Writer saving games into its GameStore in the background
+	 * @param maxGames	Number of games kept in memory, the games used longest ago are spilled into the GameStore
+	 * @throws IllegalArgumentException	If fewer than RewindBuffer.MIN_CAPACITY ticks would be kept, or not even the
+	 * 									current game would be kept in memory
+	 */
+	public DungeonManiaController(int rewindCapacity, PersistenceWriter persistenceWriter, int maxGames) throws IllegalArgumentException {
+		this(rewindCapacity, persistenceWriter, maxGames, RewindMode.SNAPSHOTS);
+	}
+
+	/**
+	 * @param rewindCapacity	Number of ticks each game keeps in memory for rewinding, when rewinding from snapshots
+	 * @param persistenceWriter	Writer saving games into its GameStore in the background
+	 * @param maxGames	Number of games kept in memory, the games used longest ago are spilled into the GameStore
+	 * @param rewindMode	Where the tick a game is rewound to comes from
+	 * @throws IllegalArgumentException	If fewer than RewindBuffer.MIN_CAPACITY ticks would be kept, or not even the
+	 * 									current game would be kept in memory
+	 */
+	public DungeonManiaController(int rewindCapacity, PersistenceWriter persistenceWriter, int maxGames, RewindMode rewindMode) throws IllegalArgumentException {
+		RewindBuffer.checkCapacity(rewindCapacity);
+		if (maxGames <= 0) {
+			throw new IllegalArgumentException("Invalid Number Of Games Passed; The Current Game Must Be Kept In Memory.");
+		}
+		this.rewindCapacity = rewindCapacity;
+		this.persistenceWriter = persistenceWriter;
+		this.catalogue = persistenceWriter.getCatalogue();
+		this.maxGames = maxGames;
+		this.rewindMode = rewindMode;
 	}
 
 	public String getSkin() {
@@ -82,11 +196,7 @@ public class DungeonManiaController {
 	 * Done for you.
 	*/
 	public static List<String> dungeons() {
-		try {
-			return FileLoader.listFileNamesInResourceDirectory("/dungeons");
-		} catch (IOException e) {
-			return new ArrayList<>();
-		}
+		return DungeonCatalogue.getDefault().dungeonNames();
 	}
 
 	/**
@@ -94,22 +204,8 @@ public class DungeonManiaController {
 	 * @return a list of dungeons current available, as strings.
 	 */
 	public static List<String> getDungeons() {
-
-		String[] dungeons;
-
-        // Creates a new File instance by converting the given pathname string
-        // into an abstract pathname
-        File f = new File("src/main/resources/dungeons");
-
-        // Populates the array with names of files and directories
-        dungeons = f.list();
-
-		List<String> returnList = new ArrayList<>();
-
-        // Put every file name into a list
-        for (String dungeonFile : dungeons) {
-            returnList.add(dungeonFile.replace(".json", ""));
-		} return returnList;
+		// The directory is watched rather than listed again
+		return DungeonCatalogue.getDefault().dungeonNames();
 	}
 
 	/**
@@ -120,49 +216,27 @@ public class DungeonManiaController {
 	 * @throws IllegalArgumentException
 	 */
 	public DungeonResponse newGame(String dungeonName, String gameMode) throws IllegalArgumentException {
-		gameMode = gameMode.toLowerCase();
-		checkValidNewGame(dungeonName, gameMode);
-		String fileName = (dungeonName + ".json"); 
+		startGame(dungeonName, gameMode);
+		return newGameResponse();
+	}
 
-		try {
-			String fileString = FileLoader.loadResourceFile("/dungeons/" + fileName);
-			currentDungeon = GameInOut.fromJSON("new", fileString, dungeonName, lastUsedDungeonId, gameMode, 0);
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+	/**
+	 * Create a new game whose random choices (spawning, battles, zombie movement...) are drawn from a seed, so two
+	 * games with the same seed played the same way play out the same
+	 * @param dungeonName		fileName of the dungeon
+	 * @param gameMode			gameMode of the dungeon (Peaceful, Standard or Hard)
+	 * @param seed				seed of the random stream of the game
+	 * @return DungeonResponse	the dungeon which is being created
+	 * @throws IllegalArgumentException
+	 */
+	public DungeonResponse newGame(String dungeonName, String gameMode, long seed) throws IllegalArgumentException {
+		startGame(dungeonName, gameMode, seed);
+		return newGameResponse();
+	}
 
-		Date date = new Date();
-		long currTime = date.getTime();
-		String rewindTime = Long.toString(currTime);
-		String rewindPath = "/rewind/" + rewindTime + "/";
-		currentDungeon.setRewindPath(rewindPath);
+	private DungeonResponse newGameResponse() {
+		List<EntityResponse> entitiyResponses = getDungeonInfo(currentDungeon.getId()).getEntities();
 
-		try {
-			Path path = Paths.get("persistence" + rewindPath);
-			Files.createDirectories(path);
-		
-		} catch (IOException e) {
-			System.err.println("Failed to create directory!" + e.getMessage());
-		}
-
-		int currentId = currentDungeon.getId();
-		lastUsedDungeonId++;
-		games.add(currentDungeon);
-				
-		List<EntityResponse> entitiyResponses = getDungeonInfo(currentId).getEntities();
-
-		for (Entity entity : currentDungeon.getEntities()) {
-			if (entity instanceof Switch) {
-				Position pos = entity.getPosition();
-				Position newPos = new Position(pos.getX(), pos.getY(), 0);
-				Boulder boulder = (Boulder) currentDungeon.getEntity("boulder", newPos);
-				if (boulder != null) {
-					Switch sw = (Switch) entity;
-					sw.setStatus(true);
-				}
-			}
-		}
-		evalGoal(currentDungeon, currentDungeon.getFoundGoals());
 		DungeonResponse result = new DungeonResponse(
 			String.valueOf(currentDungeon.getId()), 
 			currentDungeon.getName(), 
@@ -176,24 +250,71 @@ public class DungeonManiaController {
 		return result;
 	}
 		
+	/**
+	 * Create a new game and make it the current game, as newGame does, without building a response
+	 * @param dungeonName		fileName of the dungeon
+	 * @param gameMode			gameMode of the dungeon (Peaceful, Standard or Hard)
+	 * @return	the new game
+	 * @throws IllegalArgumentException	If there is no such dungeon or game mode
+	 */
+	Dungeon startGame(String dungeonName, String gameMode) throws IllegalArgumentException {
+		return startGame(dungeonName, gameMode, new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * Create a new game whose random stream is seeded, and make it the current game, without building a response
+	 * @param dungeonName		fileName of the dungeon
+	 * @param gameMode			gameMode of the dungeon (Peaceful, Standard or Hard)
+	 * @param seed				seed of the random stream of the game
+	 * @return	the new game
+	 * @throws IllegalArgumentException	If there is no such dungeon or game mode
+	 */
+	Dungeon startGame(String dungeonName, String gameMode, long seed) throws IllegalArgumentException {
+		gameMode = gameMode.toLowerCase();
+		checkValidNewGame(dungeonName, gameMode);
+
+		try {
+			// The dungeon file is only read the first time the dungeon is played, or once it has changed
+			currentDungeon = DungeonTemplateCache.getDefault().get(dungeonName).instantiate(lastUsedDungeonId, gameMode);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+
+		currentDungeon.setRandomSeed(seed);
+		currentDungeon.setRewindPath(newRewindPath());
+		if (!headless) {
+			if (rewindMode == RewindMode.SNAPSHOTS) {
+				currentDungeon.setRewindBuffer(new RewindBuffer(rewindCapacity));
+			}
+			currentDungeon.setActionLog(ActionLog.ofTemplate(dungeonName, gameMode, seed));
+		}
+
+		lastUsedDungeonId++;
+		addGame(currentDungeon);
+
+		for (Switch sw : currentDungeon.getEntitiesOfClass(Switch.class)) {
+			Position pos = sw.getPosition();
+			Position newPos = new Position(pos.getX(), pos.getY(), 0);
+			Boulder boulder = (Boulder) currentDungeon.getEntity("boulder", newPos);
+			if (boulder != null) {
+				sw.setStatus(true);
+			}
+		}
+		evalGoal(currentDungeon, currentDungeon.getFoundGoals());
+		return currentDungeon;
+	}
+
 	/**
 	 * Gets the dungeon from dungeonId and returns a DungeonResponse class
 	 * @param dungeonId		- Identifier of the dungeon in the list in controller
 	 * @return DungeonResponse
 	 */
 	public DungeonResponse getDungeonInfo(int dungeonId) {
-		Dungeon target = null;
-		for (Dungeon dungeon : games) {
-			if (dungeon.getId() == dungeonId) {
-				target = dungeon;
-				break;
-			}
-		}
+		Dungeon target = getGame(dungeonId);
 
 		List<EntityResponse> listER = new ArrayList<EntityResponse>();
 		for (Entity entity : target.getEntities()) {
-			EntityResponse eR = new EntityResponse(entity.getId(), entity.getType(), entity.getPosition(), entity.isInteractable());
-			listER.add(eR);
+			listER.add(entity.getResponse());
 		}
 
 		List<ItemResponse> inventory = new ArrayList<ItemResponse>();
@@ -210,6 +331,240 @@ public class DungeonManiaController {
 		return new DungeonResponse(retId, retName, listER, inventory, retBuild, retGoals, this.getAnimations());
 	}
 
+	/**
+	 * Gets the dungeon from dungeonId as only the entities created, changed or removed since the response the client
+	 * last acknowledged. Every entity is given if the client has no response, or one too old to be relative to.
+	 * @param dungeonId		- Identifier of the dungeon in the list in controller
+	 * @param acknowledged	- Sequence of the last response the client has, or -1 for a full response
+	 * @return DungeonDeltaResponse
+	 */
+	public DungeonDeltaResponse getDungeonDelta(int dungeonId, int acknowledged) {
+		Dungeon target = getGame(dungeonId);
+		if (target.getDeltaTracker() == null) {
+			target.setDeltaTracker(new DeltaTracker());
+		}
+		DeltaTracker.Delta delta = target.getDeltaTracker().sync(target, acknowledged);
+
+		List<ItemResponse> inventory = new ArrayList<ItemResponse>();
+		for (CollectableEntity collectableEntity : target.getInventory()) {
+			inventory.add(new ItemResponse(collectableEntity.getId(), collectableEntity.getType()));
+		}
+
+		return new DungeonDeltaResponse(
+			String.valueOf(target.getId()),
+			target.getName(),
+			delta.getSequence(),
+			delta.isFull() ? -1 : acknowledged,
+			delta.isFull(),
+			delta.getEntities(),
+			delta.getRemoved(),
+			inventory,
+			target.getBuildables(),
+			target.getGoals(),
+			this.getAnimations()
+		);
+	}
+
+	/**
+	 * @param dungeonId	Identifier of the dungeon in the controller
+	 * @return	the dungeon, read back from the GameStore if it was spilled, or null if there is none
+	 */
+	private Dungeon getGame(int dungeonId) {
+		Dungeon dungeon = games.get(dungeonId);
+		if (dungeon != null || !spilledGames.containsKey(dungeonId)) {
+			return dungeon;
+		}
+
+		String fileName = spillFileName(dungeonId);
+		awaitWrites(persistenceWriter.pendingSave(fileName));
+		try {
+			dungeon = readGame(persistenceWriter.getStore().load(fileName), spilledGames.get(dungeonId), dungeonId);
+			restoreRewindBuffer(dungeon, spillHistoryPath(dungeonId));
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+		// The game is in memory again, and is written anew if it is spilled again
+		persistenceWriter.delete(fileName);
+		persistenceWriter.deleteHistory(spillHistoryPath(dungeonId));
+		addGame(dungeon);
+		return dungeon;
+	}
+
+	/**
+	 * A controller for simulating a single game, started with startGame and played with advance. It keeps no ticks
+	 * for rewinding, so a time turner or time travelling portal does not take the player back.
+	 * @return	the controller
+	 */
+	static DungeonManiaController headless() {
+		DungeonManiaController controller = new DungeonManiaController(RewindBuffer.MIN_CAPACITY, HEADLESS_WRITER, 1);
+		controller.headless = true;
+		return controller;
+	}
+
+	/**
+	 * Make a game the current game, as it is
+	 * @param dungeon	Game to carry on with, eg. one just generated
+	 */
+	void resumeGame(Dungeon dungeon) {
+		currentDungeon = dungeon;
+		lastUsedDungeonId++;
+		addGame(currentDungeon);
+	}
+
+	/**
+	 * Make a saved game the current game, as loadGame does, without reading its ticks for rewinding
+	 * @param data	Saved game, in the binary save format or as json
+	 * @param feed	Name of the game
+	 * @throws IOException	If the saved game cannot be read
+	 */
+	void resumeGame(byte[] data, String feed) throws IOException {
+		resumeGame(readGame(data, feed, lastUsedDungeonId));
+		evalGoal(currentDungeon, currentDungeon.getFoundGoals());
+	}
+
+	/**
+	 * Keep a game in memory, spilling the games used longest ago into the GameStore while there are more than
+	 * maxGames. The current game is never spilled.
+	 */
+	private void addGame(Dungeon dungeon) {
+		games.put(dungeon.getId(), dungeon);
+		spilledGames.remove(dungeon.getId());
+
+		Iterator<Dungeon> eldest = games.values().iterator();
+		while (games.size() > maxGames && eldest.hasNext()) {
+			Dungeon spilled = eldest.next();
+			if (spilled != currentDungeon && spilled != dungeon) {
+				eldest.remove();
+				spillGame(spilled);
+			}
+		}
+	}
+
+	/**
+	 * Write a game into the GameStore in the binary save format, with its ticks for rewinding, to be read back when
+	 * it is next used. Its ticks are kept apart from those written when the game is saved, and both are deleted once
+	 * the game is read back.
+	 */
+	private CompletableFuture<Void> spillGame(Dungeon dungeon) {
+		spilledGames.put(dungeon.getId(), dungeon.getName());
+		CompletableFuture<Void> spilled = CompletableFuture.allOf(
+			persistenceWriter.save(spillFileName(dungeon.getId()), GameInOut.toBytes(dungeon)),
+			persistenceWriter.saveHistory(spillHistoryPath(dungeon.getId()), historyOf(dungeon))
+		);
+		spilled.exceptionally(e -> {
+			e.printStackTrace();
+			return null;
+		});
+		return spilled;
+	}
+
+	private String spillFileName(int dungeonId) {
+		return spillPrefix + dungeonId + GameInOut.BINARY_EXTENSION;
+	}
+
+	private String spillHistoryPath(int dungeonId) {
+		return "/rewind/" + spillPrefix + dungeonId + "/";
+	}
+
+	/**
+	 * @return	the number of games kept in memory, besides those spilled into the GameStore
+	 */
+	public int gamesInMemory() {
+		return games.size();
+	}
+
+	/**
+	 * Spill every game into the GameStore, with what is needed to carry on with them, for a session that has gone
+	 * idle. The controller can no longer be used, the session is picked up again by resume.
+	 * @param sessionKey	Key of the session, eg. its id
+	 * @return	a future completed once every game is stored
+	 */
+	public CompletableFuture<Void> suspend(String sessionKey) {
+		List<CompletableFuture<Void>> writes = new ArrayList<>();
+		for (Dungeon dungeon : games.values()) {
+			writes.add(spillGame(dungeon));
+		}
+
+		JsonObject session = new JsonObject();
+		session.addProperty("spillPrefix", spillPrefix);
+		session.addProperty("lastUsedDungeonId", lastUsedDungeonId);
+		session.addProperty("currentDungeon", (currentDungeon == null) ? -1 : currentDungeon.getId());
+		JsonObject spilled = new JsonObject();
+		for (Map.Entry<Integer, String> game : spilledGames.entrySet()) {
+			spilled.addProperty(String.valueOf(game.getKey()), game.getValue());
+		}
+		session.add("games", spilled);
+		writes.add(persistenceWriter.save(sessionFileName(sessionKey), session.toString().getBytes(StandardCharsets.UTF_8)));
+
+		games.clear();
+		currentDungeon = null;
+		suspended = true;
+		return CompletableFuture.allOf(writes.toArray(CompletableFuture<?>[]::new));
+	}
+
+	/**
+	 * @return	true if the games of the controller have been spilled by suspend, and it can no longer be used
+	 */
+	public boolean isSuspended() {
+		return suspended;
+	}
+
+	/**
+	 * Pick up a session suspended into the GameStore of the default PersistenceWriter
+	 * @param sessionKey	Key of the session given to suspend
+	 * @return	a controller carrying on with the games of the session, or null if it was not suspended
+	 */
+	public static DungeonManiaController resume(String sessionKey) {
+		return resume(sessionKey, new DungeonManiaController());
+	}
+
+	/**
+	 * Pick up a suspended session in a new controller. The session is removed from the GameStore, and each of its
+	 * games once it is read back.
+	 * @param sessionKey	Key of the session given to suspend
+	 * @param controller	New controller, saving into the same GameStore as the suspended one, left as it was if
+	 * 						null is returned
+	 * @return	the controller, carrying on with the games of the session, or null if it was not suspended
+	 */
+	public static DungeonManiaController resume(String sessionKey, DungeonManiaController controller) {
+		PersistenceWriter writer = controller.persistenceWriter;
+		String fileName = sessionFileName(sessionKey);
+		writer.pendingSave(fileName).handle((result, e) -> null).join();
+		try {
+			byte[] data = writer.getStore().load(fileName);
+			if (data == null) {
+				return null;
+			}
+
+			JsonObject session = JsonParser.parseString(new String(data, StandardCharsets.UTF_8)).getAsJsonObject();
+			String spillPrefix = session.get("spillPrefix").getAsString();
+			int lastUsedDungeonId = session.get("lastUsedDungeonId").getAsInt();
+			int current = session.get("currentDungeon").getAsInt();
+			Map<Integer, String> spilledGames = new HashMap<>();
+			JsonObject spilled = session.getAsJsonObject("games");
+			for (String id : spilled.keySet()) {
+				spilledGames.put(Integer.valueOf(id), spilled.get(id).getAsString());
+			}
+
+			controller.spillPrefix = spillPrefix;
+			controller.lastUsedDungeonId = lastUsedDungeonId;
+			controller.spilledGames.putAll(spilledGames);
+			writer.delete(fileName);
+			if (current >= 0) {
+				controller.currentDungeon = controller.getGame(current);
+			}
+			return controller;
+		} catch (IOException | JsonParseException | IllegalStateException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	private static String sessionFileName(String sessionKey) {
+		return ".session-" + sessionKey + ".json";
+	}
+
 	/**
 	 * Checks if dungeonName is a real file
 	 * Checks if gameMode is Peaceful, Standard or Hard
@@ -221,20 +576,51 @@ public class DungeonManiaController {
 
 		if (!this.getGameModes().contains(gameMode)) {
 			throw new IllegalArgumentException("Invalid Game Mode Passed; Supported Game Modes: Standard, Peaceful, Hard");
-		} else if (!getDungeons().contains(dungeonName)) {
+		} else if (!DungeonCatalogue.getDefault().hasDungeon(dungeonName)) {
 			throw new IllegalArgumentException("Invalid Dungeon Map Passed; Requested Dungeon Does Not Exist");
 		}
 	}
 
 	/**
-	 * Save the game into a file in /resources/savedGames
+	 * Save the game into a file in /resources/savedGames, in the binary save format
 	 * @throws IllegalArgumentException	If the given file name is not a real file
 	 * @return	DungeonResponse
 	 */
 	public DungeonResponse saveGame(String name) throws IllegalArgumentException {
-		String feed = name.replaceFirst(".json", "");
+		saveGameAsync(name);
+		return getDungeonInfo(currentDungeon.getId());
+	}
 
-		String path = ("persistence/savedGames/" + feed + ".json"); 
+	/**
+	 * Save the game into a file in /resources/savedGames, in the binary save format. The game is written to disk in
+	 * the background, and can be played on straight away.
+	 * @return	a future completed once the game is on disk
+	 */
+	public CompletableFuture<Void> saveGameAsync(String name) {
+		return writeGame(name, GameInOut.BINARY_EXTENSION);
+	}
+
+	/**
+	 * Export the game into a .json file in /resources/savedGames, which can be loaded like a saved game
+	 * @throws IllegalArgumentException	If the given file name is not a real file
+	 * @return	DungeonResponse
+	 */
+	public DungeonResponse exportGame(String name) throws IllegalArgumentException {
+		writeGame(name, ".json");
+		return getDungeonInfo(currentDungeon.getId());
+	}
+
+	/**
+	 * Write the game into a file in /resources/savedGames. The game is encoded straight away, and the bytes handed to
+	 * the PersistenceWriter.
+	 * @param name	Name of the game
+	 * @param extension	".json", or GameInOut.BINARY_EXTENSION for the binary save format
+	 * @return	a future completed once the game is on disk
+	 */
+	private CompletableFuture<Void> writeGame(String name, String extension) {
+		String feed = name.replaceFirst(".json", "").replaceFirst(GameInOut.BINARY_EXTENSION, "");
+
+		String fileName = (feed + extension); 
 
 		int count = 0;
 		for (int i = 0; i < feed.length( ); i++) {
@@ -246,50 +632,52 @@ public class DungeonManiaController {
 		// If you are loading a gave that has previously been saved, the old timestamp must be removed.
 		if (count > 1) {
 			String reFeed = feed.replaceAll("-.*-", "-");
-			path = ("persistence/savedGames/" + reFeed + ".json");
+			fileName = (reFeed + extension);
 		}
 
-		try {
-			GameInOut.toJSON(feed, path, currentDungeon);
-		} catch (IOException e) {
-			e.printStackTrace();
+		if (currentDungeon.getRewindPath() == null) {
+			currentDungeon.setRewindPath(newRewindPath());
 		}
-		return getDungeonInfo(currentDungeon.getId());
+
+		byte[] data;
+		if (extension.equals(GameInOut.BINARY_EXTENSION)) {
+			data = GameInOut.toBytes(currentDungeon);
+		} else {
+			data = GameInOut.toJSONBytes(currentDungeon);
+		}
+		CompletableFuture<Void> saved = persistenceWriter.save(fileName, data);
+		catalogue.noteSaved(fileName);
+		// Keep the ticks in memory in the store, so the game can still be rewound once loaded
+		CompletableFuture<Void> history = persistenceWriter.saveHistory(
+			currentDungeon.getRewindPath(),
+			historyOf(currentDungeon)
+		);
+
+		CompletableFuture<Void> written = CompletableFuture.allOf(saved, history);
+		written.exceptionally(e -> {
+			e.printStackTrace();
+			return null;
+		});
+		return written;
 	}
 
 	public DungeonResponse loadGame(String name) throws IllegalArgumentException {
 		checkValidLoadGame(name);
-		String feed = name.replaceFirst(".json", "");
-		String fileName = (feed + ".json"); 
+		String feed = name.replaceFirst(".json", "").replaceFirst(GameInOut.BINARY_EXTENSION, "");
 
-		try {
-			File loadFile = new File("persistence/savedGames/" + fileName);
-			byte[] byteArray = Files.readAllBytes(loadFile.toPath());
-			String fileString = new String(byteArray);
+		GameStore store = persistenceWriter.getStore();
+		String binaryFile = feed + GameInOut.BINARY_EXTENSION;
+		String jsonFile = feed + ".json";
+		awaitWrites(persistenceWriter.pendingSave(binaryFile));
+		awaitWrites(persistenceWriter.pendingSave(jsonFile));
 
-			currentDungeon = GameInOut.fromJSON("load", fileString, feed, lastUsedDungeonId, null, 0);
+		try {
+			// A game may have been both saved and exported, the file written last is loaded
+			String loadFile = (store.lastSaved(jsonFile) > store.lastSaved(binaryFile)) ? jsonFile : binaryFile;
+			currentDungeon = readGame(store.load(loadFile), feed, lastUsedDungeonId);
+			restoreRewindBuffer(currentDungeon, currentDungeon.getRewindPath());
 			setLastUsedDungeonId(getLastUsedDungeonId() + 1);
-			games.add(currentDungeon);
-			
-			for (Entity ent : currentDungeon.getEntities()) {
-				if (ent instanceof Switch) {
-					Position entityPos = ent.getPosition();
-					List<Entity> entOnCell = currentDungeon.getEntitiesOnCell(entityPos);
-					for (Entity entCell : entOnCell) {
-						if (entCell instanceof Boulder) {
-							Switch entSwitch = (Switch) ent;
-							entSwitch.setStatus(true);
-						}
-					}
-				}
-			}
-			for (Entity ent : currentDungeon.getEntities()) {
-				if (ent instanceof OlderPlayer) {
-					OlderPlayer oP = (OlderPlayer) ent;
-					Player currentPlayer = currentDungeon.getPlayer();
-					oP.setTrackingList(currentPlayer.getTraceList());
-				}
-			}
+			addGame(currentDungeon);
 
 			evalGoal(currentDungeon, currentDungeon.getFoundGoals());
 			return getDungeonInfo(currentDungeon.getId());
@@ -300,12 +688,95 @@ public class DungeonManiaController {
 		return null;
 	}
 
+	/**
+	 * Read a saved game, and set up what is not saved with it
+	 * @param data	Saved game, in the binary save format or as json
+	 * @param feed	Name of the game
+	 * @param dungeonId	Id to give the game
+	 * @return	the game
+	 * @throws IOException	If the saved game cannot be read
+	 */
+	private Dungeon readGame(byte[] data, String feed, int dungeonId) throws IOException {
+		Dungeon dungeon;
+		if (GameInOut.isBinary(data)) {
+			dungeon = GameInOut.fromBinary("load", data, feed, dungeonId, 0);
+		} else {
+			Reader json = new InputStreamReader(new ByteArrayInputStream(data), StandardCharsets.UTF_8);
+			dungeon = DungeonReader.read("load", json, feed, dungeonId, null, 0);
+		}
+
+		for (Switch entSwitch : dungeon.getEntitiesOfClass(Switch.class)) {
+			if (dungeon.getEntity("boulder", entSwitch.getPosition()) != null) {
+				entSwitch.setStatus(true);
+			}
+		}
+		for (Entity ent : dungeon.getEntities()) {
+			if (ent instanceof OlderPlayer) {
+				OlderPlayer oP = (OlderPlayer) ent;
+				Player currentPlayer = dungeon.getPlayer();
+				oP.setTrackingList(currentPlayer.getTraceList());
+			}
+		}
+		return dungeon;
+	}
+
+	/**
+	 * Read back the ticks of a game kept in the GameStore, so it can still be rewound
+	 * @param rewindPath	Where its ticks are kept, or null if there are none
+	 */
+	private void restoreRewindBuffer(Dungeon dungeon, String rewindPath) throws IOException {
+		byte[] actionLog = null;
+		if (rewindPath != null) {
+			awaitWrites(persistenceWriter.pendingHistory(rewindPath));
+			Map<String, byte[]> history = persistenceWriter.getStore().loadHistory(rewindPath);
+			if (rewindMode == RewindMode.SNAPSHOTS) {
+				rewindBufferOf(dungeon).restore(history);
+			}
+			actionLog = history.get(ACTION_LOG_FILE);
+		}
+		dungeon.setActionLog(restoreActionLog(dungeon, actionLog));
+	}
+
+	/**
+	 * @param dungeon	Game read back
+	 * @param data	ActionLog kept with the game, or null
+	 * @return	the log, or a log starting from the game as it is if the log kept does not reach its tick
+	 */
+	private static ActionLog restoreActionLog(Dungeon dungeon, byte[] data) {
+		if (data != null) {
+			try {
+				ActionLog log = ActionLog.read(data);
+				if (log.getEndTick() == dungeon.getTickNumber()) {
+					return log;
+				}
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		return ActionLog.ofCheckpoint(dungeon);
+	}
+
+	/**
+	 * @return	the files kept in the GameStore with a game for it to still be rewound once read back: its snapshots,
+	 * 			and its ActionLog
+	 */
+	private Map<String, byte[]> historyOf(Dungeon dungeon) {
+		Map<String, byte[]> files = new LinkedHashMap<>();
+		if (rewindMode == RewindMode.SNAPSHOTS) {
+			files.putAll(rewindBufferOf(dungeon).files());
+		}
+		if (dungeon.getActionLog() != null) {
+			files.put(ACTION_LOG_FILE, dungeon.getActionLog().toBytes());
+		}
+		return files;
+	}
+
 	/**
 	 * Checks if the file name is a valid file name for loading
 	 * @param name	file name
 	 */
 	public void checkValidLoadGame(String name) throws IllegalArgumentException {
-		if (!allGames().contains(name)) {
+		if (!catalogue.hasSavedGame(name)) {
 			throw new IllegalArgumentException("Invalid Dungeon Name Passed; Requested Dungeon Cannot Be Loaded As It Does Not Exist");
 		}
 	}
@@ -315,21 +786,8 @@ public class DungeonManiaController {
 	 * @return the list of game names, stored as Strings.
 	 */
 	public List<String> allGames() {
-		String[] games;
-		// Creates a new File instance by converting the given pathname string
-		// into an abstract pathname
-		File f = new File("persistence/savedGames");
-
-		// Populates the array with names of files and directories
-		games = f.list();
-		List<String> gamesList = new ArrayList<>();
-
-		// Put every file name into a list
-		for (String gameFile : games) {
-			gamesList.add(gameFile.replace(".json", ""));
-		}
-
-		return gamesList;
+		// Games still being saved are listed as soon as they are handed to the PersistenceWriter
+		return catalogue.savedGameNames();
 	}
 
 	/**
@@ -348,10 +806,75 @@ public class DungeonManiaController {
 	 * @throws InvalidActionException
 	 */
 	public DungeonResponse tick(String itemUsed, Direction movementDirection) throws IllegalArgumentException, InvalidActionException {
+		advance(itemUsed, movementDirection);
+		return getDungeonInfo(currentDungeon.getId());
+	}
+
+	/**
+	 * Go to next tick in the current dungeon, as tick does, but respond with only what changed since the response
+	 * the client last acknowledged
+	 * @param itemUsed	Item used this tick, or null
+	 * @param movementDirection	Direction the player moves in
+	 * @param acknowledged	Sequence of the last response the client has, or -1 for a full response
+	 * @return	DungeonDeltaResponse
+	 * @throws IllegalArgumentException	If itemUsed is not a usable item in the inventory
+	 * @throws InvalidActionException	If itemUsed is not in the inventory
+	 */
+	public DungeonDeltaResponse tickDelta(String itemUsed, Direction movementDirection, int acknowledged) throws IllegalArgumentException, InvalidActionException {
+		advance(itemUsed, movementDirection);
+		return getDungeonDelta(currentDungeon.getId(), acknowledged);
+	}
+
+	/**
+	 * Go through a number of ticks in the current dungeon, as that many calls to tick would, but respond only once
+	 * the last has been applied. Stops early once the player is dead. Every tick is still kept for rewinding.
+	 * Each action is checked against the dungeon as the ticks before it left it, so an item picked up earlier in the
+	 * batch can be used. The batch stops at the first action that cannot be played: the ticks before it stay applied,
+	 * and the message of the exception ends with how many were, eg. "(Batch Stopped After 2 Of 5 Ticks)".
+	 * @param actions	Item used and direction moved in each tick, in order
+	 * @return	DungeonResponse of the dungeon after the last tick applied
+	 * @throws IllegalArgumentException	If an itemUsed is not a usable item in the inventory when its tick is played
+	 * @throws InvalidActionException	If an itemUsed is not in the inventory when its tick is played
+	 */
+	public DungeonResponse tickBatch(List<Action> actions) throws IllegalArgumentException, InvalidActionException {
+		int applied = 0;
+		for (Action action : actions) {
+			try {
+				advance(action.getItemUsed(), action.getMovementDirection());
+			} catch (InvalidActionException e) {
+				throw new InvalidActionException(e.getMessage() + batchStopped(applied, actions.size()));
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException(e.getMessage() + batchStopped(applied, actions.size()), e);
+			}
+			applied++;
+			if (currentDungeon.getPlayer() == null) {
+				break;
+			}
+		}
+		return getDungeonInfo(currentDungeon.getId());
+	}
+
+	private static String batchStopped(int applied, int size) {
+		return " (Batch Stopped After " + applied + " Of " + size + " Ticks)";
+	}
+
+	/**
+	 * Go to next tick in the current dungeon, without building a response
+	 */
+	void advance(String itemUsed, Direction movementDirection) throws IllegalArgumentException, InvalidActionException {
 		// PREVIOUS TICK ACTIONS
 		checkValidTick(itemUsed);
 
-		saveRewind(currentDungeon.getRewindPath(), currentDungeon.getTickNumber(), currentDungeon);
+		Dungeon ticked = currentDungeon;
+		ActionLog actionLog = ticked.getActionLog();
+		if (!headless && rewindMode == RewindMode.SNAPSHOTS) {
+			saveRewind(currentDungeon.getRewindPath(), currentDungeon.getTickNumber(), currentDungeon);
+		}
+		if (actionLog != null) {
+			actionLog.beforeTick(currentDungeon);
+			// Recorded before the tick is played, so a tick the engine fails part way through is replayed the same way
+			actionLog.recordTick(itemUsed, movementDirection);
+		}
 		
 		Player player = currentDungeon.getPlayer();
 
@@ -372,7 +895,7 @@ public class DungeonManiaController {
 		// Player actions
 		if (player != null) {
 			player.act(movementDirection, currentDungeon);
-			if (player.shouldTimeTravel(currentDungeon)) {
+			if (!headless && player.shouldTimeTravel(currentDungeon)) {
 				this.rewind(30);
 			}
 		}
@@ -384,7 +907,11 @@ public class DungeonManiaController {
 		currentDungeon.spawnEntities();
 		
 		evalGoal(currentDungeon, currentDungeon.getFoundGoals());
-		return getDungeonInfo(currentDungeon.getId());
+
+		if (currentDungeon != ticked) {
+			// The player travelled back in time, which the game carries on from
+			currentDungeon.setActionLog(ActionLog.ofCheckpoint(currentDungeon));
+		}
 	}
 
 	/**
@@ -479,6 +1006,17 @@ public class DungeonManiaController {
 	 * 									If out of range for ZombieToastSpawner destruction
 	 */
 	public DungeonResponse interact(String entityId) throws IllegalArgumentException, InvalidActionException {
+		applyInteract(entityId);
+		if (currentDungeon.getActionLog() != null) {
+			currentDungeon.getActionLog().recordInteract(entityId);
+		}
+		return getDungeonInfo(currentDungeon.getId());
+	}
+
+	/**
+	 * Interacts with given entityId, as interact does, without building a response
+	 */
+	void applyInteract(String entityId) throws IllegalArgumentException, InvalidActionException {
 		checkValidInteract(entityId);
 		Entity ent = currentDungeon.getEntity(entityId);
 		
@@ -488,7 +1026,7 @@ public class DungeonManiaController {
 		} else if (ent instanceof Mercenary) {
 			Mercenary merc = (Mercenary) ent;
 			merc.bribe(currentDungeon);
-		} return getDungeonInfo(currentDungeon.getId());
+		}
 	}
 
 
@@ -499,11 +1037,11 @@ public class DungeonManiaController {
 	 * @throws InvalidActionException if the player is out of range or lacks the resources to interact with the desired entity.
 	 */
 	public void checkValidInteract(String entityId) throws IllegalArgumentException, InvalidActionException{
-		if (currentDungeon.getEntity(entityId) == null) {
+		Entity interactEntity = currentDungeon.getEntity(entityId);
+		if (interactEntity == null) {
 			throw new IllegalArgumentException("Cannot Interact With Requested Entity; Entity Does Not Exist In The Map");
 		}
 
-		Entity interactEntity = currentDungeon.getEntity(entityId);
  		List<CollectableEntity> currentInventory = currentDungeon.getInventory();
 
 		boolean hasGold = false;
@@ -524,7 +1062,7 @@ public class DungeonManiaController {
 		}
 
 		Position playerPosition = currentDungeon.getPlayerPosition();
-		Position entityPosition = currentDungeon.getEntity(entityId).getPosition();
+		Position entityPosition = interactEntity.getPosition();
 
 		if (interactEntity.getType().equals("zombie_toast_spawner")) {
 			if (!Position.isCardinallyAdjacent(playerPosition, entityPosition)) {
@@ -555,6 +1093,17 @@ public class DungeonManiaController {
 	 * @throws InvalidActionException	If not enough items to build
 	 */
 	public DungeonResponse build(String buildable) throws IllegalArgumentException, InvalidActionException {
+		applyBuild(buildable);
+		if (currentDungeon.getActionLog() != null) {
+			currentDungeon.getActionLog().recordBuild(buildable);
+		}
+		return getDungeonInfo(currentDungeon.getId());
+	}
+
+	/**
+	 * Build a given entity, as build does, without building a response
+	 */
+	void applyBuild(String buildable) throws IllegalArgumentException, InvalidActionException {
 		checkValidBuild(buildable);
 		List<CollectableEntity> currentInventory = currentDungeon.getInventory();
 		int newId = currentDungeon.getHistoricalEntCount();				
@@ -582,7 +1131,7 @@ public class DungeonManiaController {
 			currentInventory.add(midnightArmour);
 			MidnightArmour midnightArmourBuilt = (MidnightArmour) midnightArmour;
 			midnightArmourBuilt.build(currentDungeon);
-		} return getDungeonInfo(currentDungeon.getId());
+		}
 	}
 
 	/**
@@ -612,7 +1161,8 @@ public class DungeonManiaController {
 	 * Milestone 3 Extension Part I: Allows the player to time travel if they possess a time turner.
 	 * @param ticks the number of ticks to rewind the game by
 	 * @return DungeonResponse
-	 * @throws IllegalArgumentException if ticks <= 0 (you cant travel into the future)
+	 * @throws IllegalArgumentException if ticks <= 0 (you cant travel into the future), or if the tick is no longer
+	 * kept for rewinding
 	 */
 	public DungeonResponse rewind(int ticks) throws IllegalArgumentException {
 		if (ticks <= 0) {
@@ -625,25 +1175,40 @@ public class DungeonManiaController {
 			return getDungeonInfo(currentDungeon.getId());
 		}
 
-		try {
-			String rewindPath = currentDungeon.getRewindPath() + "tick-" + tickNo + ".json";
-
-			File loadFile = new File("persistence" + rewindPath);
-			byte[] byteArray = Files.readAllBytes(loadFile.toPath());
-			String fileString = new String(byteArray);
+		RewindBuffer rewindBuffer = null;
+		String snapshot = null;
+		Dungeon replayed = null;
+		if (rewindMode == RewindMode.ACTION_LOG) {
+			ActionLog actionLog = currentDungeon.getActionLog();
+			replayed = (actionLog == null) ? null : actionLog.replay(tickNo);
+			if (replayed == null) {
+				throw new IllegalArgumentException("Invalid Ticks Passed; The Game Cannot Be Replayed To Tick " + tickNo + ".");
+			}
+		} else {
+			rewindBuffer = rewindBufferOf(currentDungeon);
+			snapshot = rewindBuffer.get(tickNo);
+			if (snapshot == null) {
+				throw new IllegalArgumentException("Invalid Ticks Passed; Only The Last " + rewindBuffer.getCapacity() + " Ticks Can Be Rewound.");
+			}
+		}
 
-			Dungeon rewindDungeon = GameInOut.fromJSON("rewind", fileString, currentDungeon.getName(), lastUsedDungeonId, null, ticks);
+		try {
+			Dungeon rewindDungeon;
+			if (replayed != null) {
+				// The replayed game is only used here, so it is played on rather than read back from json
+				rewindDungeon = replayed;
+				rewindDungeon.setId(lastUsedDungeonId);
+				asRewound(rewindDungeon, ticks);
+			} else {
+				rewindDungeon = DungeonReader.read("rewind", new StringReader(snapshot), currentDungeon.getName(), lastUsedDungeonId, null, ticks);
+			}
+			rewindDungeon.setRewindBuffer(rewindBuffer);
+			// The rewound game carries on apart from the game rewound, so its ticks and ActionLog are kept apart too
+			rewindDungeon.setRewindPath(newRewindPath());
 			
-			for (Entity ent : rewindDungeon.getEntities()) {
-				if (ent instanceof Switch) {
-					Position entityPos = ent.getPosition();
-					List<Entity> entOnCell = rewindDungeon.getEntitiesOnCell(entityPos);
-					for (Entity entCell : entOnCell) {
-						if (entCell instanceof Boulder) {
-							Switch entSwitch = (Switch) ent;
-							entSwitch.setStatus(true);
-						}
-					}
+			for (Switch entSwitch : rewindDungeon.getEntitiesOfClass(Switch.class)) {
+				if (rewindDungeon.getEntity("boulder", entSwitch.getPosition()) != null) {
+					entSwitch.setStatus(true);
 				}
 			}
 
@@ -662,8 +1227,12 @@ public class DungeonManiaController {
 			}
 
 			currentDungeon = rewindDungeon;
-			games.add(currentDungeon);
+			lastUsedDungeonId++;
+			addGame(currentDungeon);
 			evalGoal(currentDungeon, currentDungeon.getFoundGoals());
+			if (!headless) {
+				currentDungeon.setActionLog(ActionLog.ofCheckpoint(currentDungeon));
+			}
 
 			return getDungeonInfo(currentDungeon.getId());
 		} catch (IOException e) {
@@ -672,20 +1241,62 @@ public class DungeonManiaController {
 	}
 
 	/**
-	 * Save a game into a file in /persistence/rewind
-	 * @throws IllegalArgumentException	If the given file name is not a real file
-	 * @return	DungeonResponse of the rewinded state
+	 * Turn a dungeon replayed to an earlier tick into the game rewound to it, as reading a snapshot with expType
+	 * "rewind" does: its player becomes the older player retracing its steps, and its time turners are not kept
+	 * @param dungeon	Dungeon replayed to the tick rewound to
+	 * @param ticks	Number of ticks rewound by
 	 */
-	public void saveRewind(String rewindPath, int tick, Dungeon currentDundeon) throws IllegalArgumentException {
-		String feed = "tick-" + tick;
+	private static void asRewound(Dungeon dungeon, int ticks) {
+		List<Entity> entities = new ArrayList<>(dungeon.getEntities().size());
+		for (Entity entity : dungeon.getEntities()) {
+			if (entity.getType().equals("player")) {
+				OlderPlayer olderPlayer = (OlderPlayer) dungeon.getFactory().createEntity(entity.getId(), "older_player", entity.getPosition());
+				olderPlayer.setTraceUntil(dungeon.getTickNumber() + ticks);
+				entities.add(olderPlayer);
+			} else if (!entity.getType().equals("time_turner")) {
+				entities.add(entity);
+			}
+		}
+		dungeon.setEntities(entities);
+	}
 
-		String path = (rewindPath + feed + ".json"); 
+	/**
+	 * Keep a snapshot of the game in memory for rewinding. It is only written into /persistence/rewind when the
+	 * game is saved.
+	 * @param rewindPath	Directory in /persistence the snapshots are written into when the game is saved
+	 * @param tick	Tick number of the snapshot
+	 * @param currentDundeon	Dungeon to take the snapshot of
+	 */
+	public void saveRewind(String rewindPath, int tick, Dungeon currentDundeon) throws IllegalArgumentException {
+		rewindBufferOf(currentDundeon).record(tick, currentDundeon);
+	}
 
-		try {
-			GameInOut.toJSON(feed, "persistence" + path, currentDungeon);
-		} catch (IOException e) {
-			e.printStackTrace();
+	/**
+	 * @param dungeon	Dungeon being played
+	 * @return	the snapshots kept for rewinding the dungeon, created if it has none yet
+	 */
+	private RewindBuffer rewindBufferOf(Dungeon dungeon) {
+		if (dungeon.getRewindBuffer() == null) {
+			dungeon.setRewindBuffer(new RewindBuffer(rewindCapacity));
 		}
+		return dungeon.getRewindBuffer();
+	}
+
+	/**
+	 * Wait for a game being saved to be stored, so it is not read half written
+	 * @param pending	Future of the writes of the game, from the PersistenceWriter
+	 */
+	private void awaitWrites(CompletableFuture<Void> pending) {
+		pending.handle((result, e) -> null).join();
+	}
+
+	/**
+	 * @return	a new directory in /persistence to write the snapshots of a game into, named after the current time, or
+	 * 			a millisecond after the last directory if it was given out in the same millisecond
+	 */
+	private static String newRewindPath() {
+		long now = new Date().getTime();
+		return "/rewind/" + lastRewindPathTime.updateAndGet(last -> Math.max(last + 1, now)) + "/";
 	}
 
 	/**
@@ -699,22 +1310,40 @@ public class DungeonManiaController {
 	 * @throws IllegalArgumentException if an invalid gamemode is passed.
 	 */
 	public DungeonResponse generateDungeon(int xStart, int yStart, int xEnd, int yEnd, String gameMode) throws IllegalArgumentException {
+		return generateDungeon(xStart, yStart, xEnd, yEnd, gameMode, new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * Generates a randomised dungeon via Prim's algortihm, the same dungeon played the same way for the same seed
+	 * @param xStart the x coordinate of the starting position
+	 * @param yStart the x coordinate of the starting position
+	 * @param xEnd the x coordinate of the destination
+	 * @param yEnd the x coordinate of the destination
+	 * @param gameMode the gameMode (peaceful, standard, hard) the dungeon is to be played
+	 * @param seed the seed the dungeon is generated from, and its random stream seeded from
+	 * @return DungeonResponse
+	 * @throws IllegalArgumentException if an invalid gamemode is passed.
+	 */
+	public DungeonResponse generateDungeon(int xStart, int yStart, int xEnd, int yEnd, String gameMode, long seed) throws IllegalArgumentException {
 		if (!this.getGameModes().contains(gameMode)) {
 			throw new IllegalArgumentException("Invalid Game Mode Passed; Supported Game Modes: standard, peaceful, hard.");
 		}
 		Position startPos = new Position(xStart, yStart);
 		Position endPos = new Position(xEnd, yEnd);
 
-		Dungeon primsDungeon = Prims.generateDungeon(startPos, endPos, gameMode, lastUsedDungeonId);
+		Dungeon primsDungeon = Prims.generateDungeon(startPos, endPos, gameMode, lastUsedDungeonId, seed);
+		if (!headless) {
+			primsDungeon.setActionLog(ActionLog.ofGenerated(startPos, endPos, gameMode, seed));
+		}
 		currentDungeon = primsDungeon;
-		games.add(currentDungeon);
 		lastUsedDungeonId++;
+		addGame(currentDungeon);
 		
 		return getDungeonInfo(currentDungeon.getId());
 	}
 	
 	public Dungeon getDungeon(int dungeonId) {
-		return games.get(dungeonId);
+		return getGame(dungeonId);
 	}
 
 
@@ -0,0 +1,328 @@
+package dungeonmania;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.json.JSONObject;
+
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+
+/**
+ * A DungeonReader loads a Dungeon from a dungeon file, a saved game or a rewind snapshot as json, reading it token
+ * by token rather than first building the whole document as maps and lists. Each entity is created through the
+ * factory of the game mode as soon as its fields have been read, so the only things kept from the file are the
+ * entities themselves.
+ * An entity can only be created once the game mode is known (and, when rewinding, the tick the snapshot was taken
+ * at). Dungeon declares both before its entities so that they are written first, but entities read before them
+ * are kept as SavedEntity until they are.
+ * A dungeon file can also be read into a DungeonTemplate, which keeps every entity as SavedEntity so that new games
+ * can be created from it without reading the file again.
+ */
+public class DungeonReader {
+	private final String expType;
+	private final String feed;
+	private final int lastUsedDungeonId;
+	private final int ticks;
+
+	private String playMode;
+	private EntityFactory factory;
+	private Integer tickNumber;
+	private String goals;
+	private GoalNode foundGoals = new GoalAnd("");
+	private String goalsConvert = "";
+	private int historicalEntCount;
+	private Position spawnpoint = new Position(0, 0, 0);
+	private String rewindPath;
+	private Long randomSeed;
+	private String pathfinding;
+	private final List<Entity> entityList = new ArrayList<>();
+	private final List<SavedEntity> pending = new ArrayList<>();
+	private final List<CollectableEntity> returnInv = new ArrayList<>();
+
+	private DungeonReader(String expType, String feed, int lastUsedDungeonId, String gameMode, int ticks) {
+		this.expType = expType;
+		this.feed = feed;
+		this.lastUsedDungeonId = lastUsedDungeonId;
+		this.ticks = ticks;
+		if (expType.equals("new") && gameMode != null) {
+			playMode = gameMode;
+			factory = GameInOut.factoryFor(gameMode);
+		}
+	}
+
+	/**
+	 * Reads a Dungeon from json
+	 * @param expType the type of extraction desired, e.g. "new", "load", "rewind".
+	 * @param json the json to read, which is closed once read
+	 * @param feed the name of the dungeon
+	 * @param lastUsedDungeonId the last used Id for the games in the controller
+	 * @param gameMode the mode the dungeon should be played in. Should be null for load and rewind.
+	 * @param ticks the number of ticks the user is rewinding by, used for loading when rewinding.
+	 * @return the dungeon
+	 * @throws IOException if the json cannot be read, or is not a dungeon
+	 */
+	public static Dungeon read(String expType, Reader json, String feed, int lastUsedDungeonId, String gameMode, int ticks) throws IOException {
+		DungeonReader dungeonReader = new DungeonReader(expType, feed, lastUsedDungeonId, gameMode, ticks);
+		try (JsonReader reader = new JsonReader(json)) {
+			return dungeonReader.readDungeon(reader);
+		} catch (IllegalStateException | IllegalArgumentException | NullPointerException e) {
+			throw new IOException("Invalid Dungeon", e);
+		}
+	}
+
+	/**
+	 * Reads a dungeon file into a template new games can be created from
+	 * @param json the json of the dungeon file, which is closed once read
+	 * @param feed the name of the dungeon
+	 * @return the template
+	 * @throws IOException if the json cannot be read, or is not a dungeon
+	 */
+	public static DungeonTemplate readTemplate(Reader json, String feed) throws IOException {
+		DungeonReader dungeonReader = new DungeonReader("new", feed, 0, null, 0);
+		try (JsonReader reader = new JsonReader(json)) {
+			dungeonReader.readFields(reader);
+		} catch (IllegalStateException | IllegalArgumentException | NullPointerException e) {
+			throw new IOException("Invalid Dungeon", e);
+		}
+		// Without a game mode no entity has been created, they are all still pending
+		return new DungeonTemplate(feed, dungeonReader.pending, dungeonReader.goals, dungeonReader.goalsConvert, dungeonReader.pathfinding);
+	}
+
+	private Dungeon readDungeon(JsonReader reader) throws IOException {
+		readFields(reader);
+		addPending();
+
+		Dungeon returnDungeon = new Dungeon(lastUsedDungeonId, feed, entityList, playMode, goals, foundGoals, goalsConvert);
+		if (!expType.equals("new")) {
+			returnDungeon.setInventory(returnInv);
+			returnDungeon.setHistoricalEntCount(historicalEntCount);
+			returnDungeon.setTickNumber(tickNumber);
+			returnDungeon.setSpawnpoint(spawnpoint);
+			returnDungeon.setRewindPath(rewindPath);
+			// Games saved before the random stream was kept carry on from a new seed
+			if (randomSeed != null) {
+				returnDungeon.setRandomSeed(randomSeed);
+			}
+		}
+		if (pathfinding != null) {
+			returnDungeon.setPathfinding(pathfinding);
+		}
+		return returnDungeon;
+	}
+
+	/**
+	 * Reads the fields of the dungeon, creating its entities as far as the game mode and tick are known
+	 */
+	private void readFields(JsonReader reader) throws IOException {
+		boolean loading = !expType.equals("new");
+
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if (reader.peek() == JsonToken.NULL) {
+				reader.skipValue();
+			} else if (name.equals("entities")) {
+				reader.beginArray();
+				while (reader.hasNext()) {
+					addEntity(readEntity(reader, entityList.size() + pending.size()));
+				}
+				reader.endArray();
+			} else if (name.equals("gameMode") && loading) {
+				playMode = reader.nextString();
+				factory = GameInOut.factoryFor(playMode);
+				addPending();
+			} else if (name.equals("tickNumber") && loading) {
+				tickNumber = reader.nextInt();
+				addPending();
+			} else if (name.equals("inventory") && loading) {
+				reader.beginArray();
+				while (reader.hasNext()) {
+					CollectableEntity item = readEntity(reader, 0).createItem();
+					if (item != null) {
+						returnInv.add(item);
+					}
+				}
+				reader.endArray();
+			} else if (name.equals("goals") && loading) {
+				goals = reader.nextString();
+			} else if (name.equals("goalConditions") && loading) {
+				String goalConditions = reader.nextString();
+				if (!goalConditions.equals("")) {
+					readGoals(new JSONObject(goalConditions));
+				}
+			} else if (name.equals("goal-condition") && !loading) {
+				readGoals(new JSONObject(JsonParser.parseReader(reader).toString()));
+				goals = foundGoals.remainingString();
+			} else if (name.equals("historicalEntCount") && loading) {
+				historicalEntCount = reader.nextInt();
+			} else if (name.equals("spawnpoint") && loading) {
+				spawnpoint = readPosition(reader);
+			} else if (name.equals("rewindPath") && loading) {
+				rewindPath = reader.nextString();
+			} else if (name.equals("randomSeed") && loading) {
+				randomSeed = reader.nextLong();
+			} else if (name.equals("pathfinding")) {
+				pathfinding = reader.nextString();
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+
+		if (tickNumber == null) {
+			tickNumber = 0;
+		}
+	}
+
+	private void readGoals(JSONObject goalCon) {
+		foundGoals = GameInOut.createGoals(goalCon);
+		goalsConvert = goalCon.toString();
+	}
+
+	/**
+	 * Creates an entity if the game mode and tick are known, otherwise keeps it until they are
+	 */
+	private void addEntity(SavedEntity saved) {
+		if (factory == null || (expType.equals("rewind") && tickNumber == null) || !pending.isEmpty()) {
+			pending.add(saved);
+			return;
+		}
+		Entity entity = saved.create(factory, expType, playMode, (tickNumber == null) ? 0 : tickNumber, ticks);
+		if (entity != null) {
+			entityList.add(entity);
+		}
+	}
+
+	/**
+	 * Creates the entities kept until the game mode and tick were known, if they now are
+	 */
+	private void addPending() {
+		if (factory == null || (expType.equals("rewind") && tickNumber == null)) {
+			return;
+		}
+		List<SavedEntity> toCreate = new ArrayList<>(pending);
+		pending.clear();
+		for (SavedEntity saved : toCreate) {
+			addEntity(saved);
+		}
+	}
+
+	/**
+	 * Reads an entity or item, as written in a dungeon file (its coordinates as "x" and "y", its id its index) or in
+	 * a saved game (its "id" and "position")
+	 * @param index the index of the entity in the file
+	 */
+	private SavedEntity readEntity(JsonReader reader, int index) throws IOException {
+		SavedEntity saved = new SavedEntity();
+		saved.id = String.valueOf(index);
+		int x = 0;
+		int y = 0;
+
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if (reader.peek() == JsonToken.NULL) {
+				reader.skipValue();
+				continue;
+			}
+			switch (name) {
+				case "type":
+					saved.type = reader.nextString();
+					break;
+				case "id":
+					if (expType.equals("new")) {
+						reader.skipValue();
+					} else {
+						saved.id = reader.nextString();
+					}
+					break;
+				case "x":
+					x = reader.nextInt();
+					break;
+				case "y":
+					y = reader.nextInt();
+					break;
+				case "position":
+					saved.position = readPosition(reader);
+					break;
+				case "colour":
+					saved.colour = reader.nextString();
+					break;
+				case "key":
+					saved.key = reader.nextInt();
+					break;
+				case "movement_factor":
+				case "moveFactor":
+					saved.moveFactor = reader.nextInt();
+					break;
+				case "durability":
+					saved.durability = reader.nextInt();
+					break;
+				case "isAlly":
+					saved.isAlly = reader.nextBoolean();
+					break;
+				case "traceUntil":
+					saved.traceUntil = reader.nextInt();
+					break;
+				case "health":
+					saved.health = reader.nextInt();
+					break;
+				case "attack":
+					saved.attack = reader.nextInt();
+					break;
+				case "visible":
+					saved.visible = reader.nextBoolean();
+					break;
+				case "haveKey":
+					saved.haveKey = reader.nextBoolean();
+					break;
+				case "invincibleTickDuration":
+					saved.invincibleTickDuration = reader.nextInt();
+					break;
+				case "traceList":
+					reader.beginArray();
+					while (reader.hasNext()) {
+						saved.traceList.add(Direction.valueOf(reader.nextString()));
+					}
+					reader.endArray();
+					break;
+				default:
+					reader.skipValue();
+			}
+		}
+		reader.endObject();
+
+		if (saved.position == null) {
+			saved.position = new Position(x, y, saved.type.contains("switch") ? -1 : 0);
+		}
+		return saved;
+	}
+
+	private static Position readPosition(JsonReader reader) throws IOException {
+		int x = 0;
+		int y = 0;
+		int layer = 0;
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if (name.equals("x")) {
+				x = reader.nextInt();
+			} else if (name.equals("y")) {
+				y = reader.nextInt();
+			} else if (name.equals("layer")) {
+				layer = reader.nextInt();
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		return new Position(x, y, layer);
+	}
+}
@@ -0,0 +1,76 @@
+package dungeonmania;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.json.JSONObject;
+
+import dungeonmania.util.Position;
+
+/**
+ * A DungeonTemplate is a dungeon file already read, from which any number of new games can be created without
+ * reading the file again. Its entities are kept as SavedEntity, and are only created through the factory of the game
+ * mode when a game is, so that no two games share an entity or a goal.
+ */
+public class DungeonTemplate {
+	private final String name;
+	private final List<SavedEntity> entities;
+	private final String goals;
+	private final String goalsConvert;
+	private final String pathfinding;
+
+	/**
+	 * @param name	Name of the dungeon
+	 * @param entities	Entities of the dungeon, in the order they are in the file
+	 * @param goals	Goals of the dungeon as shown to the player, or null if it has none
+	 * @param goalsConvert	Goal condition of the dungeon as json, or "" if it has none
+	 * @param pathfinding	Pathfinding of the dungeon, or null for the default
+	 */
+	public DungeonTemplate(String name, List<SavedEntity> entities, String goals, String goalsConvert, String pathfinding) {
+		this.name = name;
+		this.entities = Collections.unmodifiableList(new ArrayList<>(entities));
+		this.goals = goals;
+		this.goalsConvert = goalsConvert;
+		this.pathfinding = pathfinding;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return	how many entities the dungeon holds and how much of the grid they cover
+	 */
+	public DungeonInfo getInfo() {
+		List<Position> positions = new ArrayList<>(entities.size());
+		for (SavedEntity saved : entities) {
+			positions.add(saved.position);
+		}
+		return new DungeonInfo(name, positions, null);
+	}
+
+	/**
+	 * Creates a new game of the dungeon, as if its file was read with DungeonReader
+	 * @param id	Id of the new game
+	 * @param gameMode	Mode the game is played in (peaceful, standard, hard)
+	 * @return	the new game
+	 */
+	public Dungeon instantiate(int id, String gameMode) {
+		EntityFactory factory = GameInOut.factoryFor(gameMode);
+		List<Entity> entityList = new ArrayList<>(entities.size());
+		for (SavedEntity saved : entities) {
+			Entity entity = saved.create(factory, "new", gameMode, 0, 0);
+			if (entity != null) {
+				entityList.add(entity);
+			}
+		}
+
+		GoalNode foundGoals = goalsConvert.equals("") ? new GoalAnd("") : GameInOut.createGoals(new JSONObject(goalsConvert));
+		Dungeon dungeon = new Dungeon(id, name, entityList, gameMode, goals, foundGoals, goalsConvert);
+		if (pathfinding != null) {
+			dungeon.setPathfinding(pathfinding);
+		}
+		return dungeon;
+	}
+}
@@ -0,0 +1,122 @@
+package dungeonmania;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import dungeonmania.util.FileLoader;
+
+/**
+ * A DungeonTemplateCache keeps each dungeon file read as a DungeonTemplate, so that starting a game of a dungeon
+ * played before does not read and parse its file again.
+ * Before a template is used, the file it was read from is checked to still have the same size and modification time,
+ * and it is read again if it does not, so a dungeon file changed while the game runs is picked up on its next game.
+ */
+public class DungeonTemplateCache {
+	private static DungeonTemplateCache defaultCache;
+
+	private final Map<String, Cached> templates = new ConcurrentHashMap<>();
+	private int reads = 0;
+
+	/**
+	 * A template, and the size and modification time of the file it was read from
+	 */
+	private static class Cached {
+		private final DungeonTemplate value;
+		private final List<Long> stamp;
+
+		private Cached(DungeonTemplate value, List<Long> stamp) {
+			this.value = value;
+			this.stamp = stamp;
+		}
+	}
+
+	/**
+	 * @return	the cache shared by every controller
+	 */
+	public static synchronized DungeonTemplateCache getDefault() {
+		if (defaultCache == null) {
+			defaultCache = new DungeonTemplateCache();
+		}
+		return defaultCache;
+	}
+
+	/**
+	 * @param dungeonName	Name of the dungeon, eg. "maze"
+	 * @return	the template of the dungeon, read from /resources/dungeons if it is not cached or its file has changed
+	 * @throws IOException	If the dungeon file cannot be read
+	 */
+	public DungeonTemplate get(String dungeonName) throws IOException {
+		String resource = "/dungeons/" + dungeonName + ".json";
+		List<Long> stamp = stampOf(resourceFile(resource));
+		Cached cached = templates.get(dungeonName);
+		if (cached != null && cached.stamp.equals(stamp)) {
+			return cached.value;
+		}
+
+		try {
+			cached = templates.compute(dungeonName, (name, old) -> {
+				if (old != null && old.stamp.equals(stamp)) {
+					return old;
+				}
+				try {
+					DungeonTemplate template = DungeonReader.readTemplate(FileLoader.openResourceFile(resource), name);
+					synchronized (this) {
+						reads++;
+					}
+					return new Cached(template, stamp);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		return cached.value;
+	}
+
+	/**
+	 * @return	the number of times a dungeon file has been read into a template
+	 */
+	public synchronized int reads() {
+		return reads;
+	}
+
+	/**
+	 * @return	the file a resource is read from, or null if it is not a file (eg. it is inside a jar)
+	 */
+	static Path resourceFile(String resource) {
+		URL url = FileLoader.class.getResource(resource);
+		if (url == null || !url.getProtocol().equals("file")) {
+			return null;
+		}
+		try {
+			return Paths.get(url.toURI());
+		} catch (URISyntaxException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return	the size and modification time of a file, or an empty list if it does not exist
+	 */
+	private static List<Long> stampOf(Path file) {
+		if (file == null) {
+			return List.of();
+		}
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+			return List.of(attributes.size(), attributes.lastModifiedTime().toMillis());
+		} catch (IOException e) {
+			return List.of();
+		}
+	}
+}
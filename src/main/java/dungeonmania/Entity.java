@@ -1,17 +1,35 @@
 package dungeonmania;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Set;
 
+import dungeonmania.response.models.EntityResponse;
 import dungeonmania.util.Position;
 
 
 public abstract class Entity {
+	private static final Set<String> INTERACTABLE_TYPES = Set.of("player", "zombie_toast_spawner", "mercenary", "assassin", "sceptre");
     
     Position position;
     String type;
 	String id;
 
+	/**
+	 * Dungeon this entity is currently placed in, so that the dungeon's lookups can be kept
+	 * up to date when the entity moves or changes id or type. Not serialised.
+	 */
+	private transient Dungeon dungeon;
+
+	/**
+	 * Order in which the entity was placed in its dungeon, used to keep per-cell lookups in
+	 * the same order as the dungeon's list of entities.
+	 */
+	private transient int placement;
+
+	/**
+	 * How the entity is sent to the client, kept until its id, type or position changes. Not serialised.
+	 */
+	private transient EntityResponse response;
+
     public Entity(String id, Position position, String type) {
 		this.id = id;
         this.position = position;
@@ -31,15 +49,55 @@ public abstract class Entity {
 	}
 
 	public void setId(String id) {
+		String previous = this.id;
 		this.id = id;
+		response = null;
+		if (dungeon != null) {
+			dungeon.entityRenamed(this, previous);
+		}
 	}
 
 	public void setType(String type) {
+		String previous = this.type;
 		this.type = type;
+		response = null;
+		if (dungeon != null) {
+			dungeon.entityRetyped(this, previous);
+		}
 	}
 
 	public void setPosition(Position position) {
+		Position previous = this.position;
 		this.position = position;
+		response = null;
+		if (dungeon != null) {
+			dungeon.entityMoved(this, previous);
+		}
+	}
+
+	/**
+	 * Let the dungeon know something about this entity that changes how its cell can be moved across has changed
+	 */
+	protected void cellChanged() {
+		if (dungeon != null) {
+			dungeon.cellChanged(getPosition());
+		}
+	}
+
+	Dungeon getDungeon() {
+		return dungeon;
+	}
+
+	void setDungeon(Dungeon dungeon) {
+		this.dungeon = dungeon;
+	}
+
+	int getPlacement() {
+		return placement;
+	}
+
+	void setPlacement(int placement) {
+		this.placement = placement;
 	}
 
 	/**
@@ -48,16 +106,21 @@ public abstract class Entity {
 	 * @return If the entity is interactable.
 	 */
     public boolean isInteractable() {
-		List <String> interactableTypes = new ArrayList<>();
-		interactableTypes.add("player");
-		interactableTypes.add("zombie_toast_spawner");
-		interactableTypes.add("mercenary");
-		interactableTypes.add("assassin");
-		interactableTypes.add("sceptre");
-
-        return (interactableTypes.contains(type));
+        return INTERACTABLE_TYPES.contains(type);
     }
 
+	/**
+	 * Returns the entity as it is sent to the client. The same response is returned until the id, type or position
+	 * of the entity changes, so entities that do not move (eg. walls) are not built a new response every tick.
+	 * @return The response of the entity.
+	 */
+	public EntityResponse getResponse() {
+		if (response == null) {
+			response = new EntityResponse(id, type, position, isInteractable());
+		}
+		return response;
+	}
+
 	/**
 	 * Custom equals method for entities. Compares the current entity with another entity.
 	 * @param obj the entity to compared the current entity with.
@@ -0,0 +1,54 @@
+package dungeonmania;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * EntityChanges are the entities a Dungeon has placed, removed, moved, renamed or retyped since a RewindBuffer last
+ * recorded it, so that the RewindBuffer only serialises the entities that changed rather than the whole map.
+ * Entities are told apart by identity, as ids are not unique.
+ */
+public class EntityChanges {
+	private final Set<Entity> placed = Collections.newSetFromMap(new IdentityHashMap<>());
+	private final Set<Entity> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+	private final Set<Entity> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+
+	void placed(Entity entity) {
+		placed.add(entity);
+	}
+
+	void removed(Entity entity) {
+		removed.add(entity);
+	}
+
+	void changed(Entity entity) {
+		changed.add(entity);
+	}
+
+	/**
+	 * @return	the entities placed, in the order they were placed in
+	 */
+	public List<Entity> getPlaced() {
+		List<Entity> inOrder = new ArrayList<>(placed);
+		inOrder.sort((a, b) -> Integer.compare(a.getPlacement(), b.getPlacement()));
+		return inOrder;
+	}
+
+	public boolean wasPlaced(Entity entity) {
+		return placed.contains(entity);
+	}
+
+	public Set<Entity> getRemoved() {
+		return removed;
+	}
+
+	/**
+	 * @return	the entities moved, renamed or retyped
+	 */
+	public Set<Entity> getChanged() {
+		return changed;
+	}
+}
@@ -0,0 +1,187 @@
+package dungeonmania;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A FileGameStore keeps games as files, saved games in savedGames/ and each history in the directory named by its
+ * rewind path (eg. rewind/1636079593059/), under a root directory. The default root is /persistence.
+ * A group of writes is first written beside the files it replaces, and every file synced to disk, before any is
+ * moved into place. The directories written into are then synced once each, so a saved game is never seen half
+ * written, and a group costs one round of syncs.
+ */
+public class FileGameStore implements GameStore {
+	public static final Path DEFAULT_ROOT = Paths.get("persistence");
+
+	private final Path root;
+	private final Path savedGames;
+
+	/**
+	 * @param root directory the games are kept in
+	 */
+	public FileGameStore(Path root) {
+		this.root = root;
+		this.savedGames = root.resolve("savedGames");
+	}
+
+	/**
+	 * @return the directory saved games are kept in
+	 */
+	public Path getSavedGamesDirectory() {
+		return savedGames;
+	}
+
+	@Override
+	public synchronized void writeAll(Map<String, byte[]> saves, Map<String, Map<String, byte[]>> histories) throws IOException {
+		List<Path[]> moves = new ArrayList<>();
+		List<Path> deletes = new ArrayList<>();
+		Set<Path> directories = new LinkedHashSet<>();
+
+		if (!saves.isEmpty()) {
+			Files.createDirectories(savedGames);
+			directories.add(savedGames);
+			for (Map.Entry<String, byte[]> save : saves.entrySet()) {
+				moves.add(writeBeside(savedGames, save.getKey(), save.getValue()));
+			}
+		}
+
+		for (Map.Entry<String, Map<String, byte[]>> history : histories.entrySet()) {
+			Path directory = historyDirectory(history.getKey());
+			Map<String, byte[]> files = history.getValue();
+			Files.createDirectories(directory);
+			directories.add(directory);
+			for (Map.Entry<String, byte[]> file : files.entrySet()) {
+				moves.add(writeBeside(directory, file.getKey(), file.getValue()));
+			}
+			for (String existing : fileNames(directory)) {
+				if (!files.containsKey(existing)) {
+					deletes.add(directory.resolve(existing));
+				}
+			}
+		}
+
+		for (Path[] move : moves) {
+			try {
+				Files.move(move[0], move[1], StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(move[0], move[1], StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		for (Path delete : deletes) {
+			Files.deleteIfExists(delete);
+		}
+		for (Path directory : directories) {
+			syncDirectory(directory);
+		}
+	}
+
+	@Override
+	public byte[] load(String fileName) throws IOException {
+		Path file = savedGames.resolve(fileName);
+		return Files.isRegularFile(file) ? Files.readAllBytes(file) : null;
+	}
+
+	@Override
+	public long lastSaved(String fileName) throws IOException {
+		Path file = savedGames.resolve(fileName);
+		return Files.isRegularFile(file) ? Files.getLastModifiedTime(file).toMillis() : 0;
+	}
+
+	@Override
+	public List<String> list() throws IOException {
+		return Files.isDirectory(savedGames) ? fileNames(savedGames) : new ArrayList<>();
+	}
+
+	@Override
+	public Map<String, byte[]> loadHistory(String rewindPath) throws IOException {
+		Map<String, byte[]> files = new LinkedHashMap<>();
+		Path directory = historyDirectory(rewindPath);
+		if (Files.isDirectory(directory)) {
+			for (String fileName : fileNames(directory)) {
+				files.put(fileName, Files.readAllBytes(directory.resolve(fileName)));
+			}
+		}
+		return files;
+	}
+
+	@Override
+	public synchronized void delete(String fileName) throws IOException {
+		if (Files.deleteIfExists(savedGames.resolve(fileName))) {
+			syncDirectory(savedGames);
+		}
+	}
+
+	@Override
+	public synchronized void deleteHistory(String rewindPath) throws IOException {
+		Path directory = historyDirectory(rewindPath);
+		if (!Files.isDirectory(directory)) {
+			return;
+		}
+		try (Stream<Path> files = Files.list(directory)) {
+			for (Path file : files.collect(Collectors.toList())) {
+				Files.deleteIfExists(file);
+			}
+		}
+		Files.deleteIfExists(directory);
+		syncDirectory(directory.getParent());
+	}
+
+	private Path historyDirectory(String rewindPath) {
+		return root.resolve(rewindPath.replaceFirst("^/+", ""));
+	}
+
+	/**
+	 * @return the names of the files in a directory, leaving out files still being written
+	 */
+	private static List<String> fileNames(Path directory) throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.filter(Files::isRegularFile)
+				.map(file -> file.getFileName().toString())
+				.filter(name -> !name.startsWith("."))
+				.sorted()
+				.collect(Collectors.toList());
+		}
+	}
+
+	/**
+	 * Writes a file beside the file it replaces, synced to disk
+	 * @return the file written and the file it replaces
+	 */
+	private static Path[] writeBeside(Path directory, String fileName, byte[] data) throws IOException {
+		Path tempFile = directory.resolve("." + fileName + ".tmp");
+		try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.wrap(data);
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			channel.force(false);
+		}
+		return new Path[] {tempFile, directory.resolve(fileName)};
+	}
+
+	/**
+	 * Syncs the names of the files in a directory to disk, where the platform allows it
+	 */
+	private static void syncDirectory(Path directory) {
+		try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+			channel.force(true);
+		} catch (IOException e) {
+			// Not every platform can open a directory to sync it, the files themselves are synced already
+		}
+	}
+}
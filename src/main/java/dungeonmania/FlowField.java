@@ -0,0 +1,81 @@
+package dungeonmania;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import dungeonmania.util.Position;
+
+/**
+ * A FlowField holds the step every cell of a dungeon takes towards the player, found with a single reverse run of
+ * Dijkstra's algorithm rooted at the player. It is shared by every Mercenary/Assassin chasing the player, instead of
+ * each of them running Dijkstra's algorithm on their own, and is only built again once the player moves, the cost
+ * of a cell changes or the dungeon covers other cells. It uses the same grid as GridDijkstra, so SwampTile weights, the entities
+ * a Mercenary/Assassin cannot coincide with and the way ties between shortest paths are broken are all the same.
+ * The step of every cell is found when the field is built, so moving a Mercenary/Assassin only looks it up.
+ */
+public class FlowField {
+	private final Position destination;
+	private final CostGrid costGrid;
+	private final int version;
+	private final int minX;
+	private final int minY;
+	private final int maxX;
+	private final int maxY;
+	private final GridDijkstra grid;
+	/**
+	 * The cell each cell steps onto towards the player, or -1 if it cannot reach the player
+	 */
+	private final int[] next;
+
+	/**
+	 * Build the FlowField towards the current position of the player
+	 * @param currentDungeon the current Dungeon
+	 */
+	public FlowField(Dungeon currentDungeon) {
+		this.destination = currentDungeon.getPlayerPosition();
+		this.costGrid = currentDungeon.getCostGrid();
+		this.version = costGrid.getVersion();
+		this.minX = currentDungeon.getMinX();
+		this.minY = currentDungeon.getMinY();
+		this.maxX = currentDungeon.getMaxX();
+		this.maxY = currentDungeon.getMaxY();
+		this.grid = new GridDijkstra(currentDungeon);
+		this.next = new int[grid.size()];
+
+		int t = (destination == null) ? -1 : grid.cellOf(destination);
+		if (t == -1) {
+			Arrays.fill(next, -1);
+			return;
+		}
+		int[] dist = grid.distancesTo(destination);
+		for (int cell = 0; cell < next.length; cell++) {
+			next[cell] = grid.firstStep(cell, t, dist);
+		}
+	}
+
+	/**
+	 * Checks if the FlowField still describes the given dungeon, ie. the player has not moved, no cell has changed
+	 * its cost and the dungeon covers the same cells as when it was built
+	 * @param currentDungeon the current Dungeon
+	 * @return true if the FlowField can be used for the dungeon
+	 */
+	public boolean isFor(Dungeon currentDungeon) {
+		return Objects.equals(destination, currentDungeon.getPlayerPosition())
+			&& costGrid == currentDungeon.getCostGrid() && version == costGrid.getVersion()
+			&& minX == currentDungeon.getMinX() && minY == currentDungeon.getMinY()
+			&& maxX == currentDungeon.getMaxX() && maxY == currentDungeon.getMaxY();
+	}
+
+	/**
+	 * Returns the most optimal position for a Mercenary/Assassin to move onto in pursuit of the player.
+	 * @param source the current position of the Mercenary/Assassin
+	 * @return the next position for the Mercenary/Assassin to move onto
+	 * 			<li> null, if the player cannot be reached
+	 */
+	public Position nextPos(Position source) {
+		int from = grid.cellOf(source);
+		if (from == -1 || next[from] == -1) {
+			return null;
+		} return grid.positionOf(next[from]);
+	}
+}
@@ -0,0 +1,223 @@
+package dungeonmania;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import dungeonmania.util.Position;
+
+/**
+ * A GameCatalogue keeps the names of the games in a GameStore that can be loaded in memory, so that listing them, or
+ * checking a name before a game is loaded, does not list the store. Each PersistenceWriter owns the catalogue of its
+ * store, and closes it when it is closed.
+ * The games are listed once, when the catalogue is created. Afterwards, when the GameStore keeps them as files,
+ * their directory is watched with a WatchService, so files added or removed by hand are picked up. Games saved
+ * through a controller are noted as they are handed to the PersistenceWriter, as a store that is not kept as files
+ * cannot be watched.
+ * A DungeonInfo of each saved game is worked out the first time it is asked for, and kept until the game is saved
+ * again.
+ */
+public class GameCatalogue implements Closeable {
+	private final Path savedGamesDirectory;
+	private final GameStore store;
+	/**
+	 * File names of each saved game (ie. ending in GameInOut.BINARY_EXTENSION or .json) by the name it is loaded by
+	 */
+	private final Map<String, Set<String>> savedGames = new ConcurrentHashMap<>();
+	private final Map<String, DungeonInfo> savedGameInfo = new ConcurrentHashMap<>();
+	private final WatchService watcher;
+
+	/**
+	 * Lists the saved games, and starts watching their directory if they are kept as files
+	 * @param store	Store of the saved games
+	 */
+	public GameCatalogue(GameStore store) {
+		this.savedGamesDirectory = (store instanceof FileGameStore) ? ((FileGameStore) store).getSavedGamesDirectory() : null;
+		this.store = store;
+
+		WatchService watchService = null;
+		if (savedGamesDirectory != null) {
+			try {
+				watchService = FileSystems.getDefault().newWatchService();
+				Files.createDirectories(savedGamesDirectory);
+				savedGamesDirectory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+			} catch (IOException e) {
+				// Without a watch service the catalogue only knows of games saved through a controller
+				System.err.println("Cannot Watch Saved Games, Games Added By Hand Are Not Listed: " + e.getMessage());
+				if (watchService != null) {
+					try {
+						watchService.close();
+					} catch (IOException closeFailed) {
+						// Nothing is watched through it, so there is nothing left to stop
+					}
+					watchService = null;
+				}
+			}
+		}
+		this.watcher = watchService;
+
+		listSavedGames();
+
+		if (watcher != null) {
+			Thread thread = new Thread(this::watch, "game-catalogue");
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	/**
+	 * @return	the names of the saved games that can be loaded, in alphabetical order
+	 */
+	public List<String> savedGameNames() {
+		List<String> names = new ArrayList<>(savedGames.keySet());
+		Collections.sort(names);
+		return names;
+	}
+
+	public boolean hasSavedGame(String name) {
+		return savedGames.containsKey(name);
+	}
+
+	/**
+	 * Note a game handed to the PersistenceWriter to be saved, so it is listed straight away
+	 * @param fileName	File name of the saved game, eg. "maze-1636079593059.dmb"
+	 */
+	public void noteSaved(String fileName) {
+		savedGameChanged(fileName, true);
+	}
+
+	/**
+	 * @param name	Name of a saved game, eg. "maze-1636079593059"
+	 * @return	how many entities the game holds, how much of the grid they cover and the mode it is played in, or
+	 * 			null if there is no such game
+	 * @throws IOException	If the saved game cannot be read
+	 */
+	public DungeonInfo savedGameInfo(String name) throws IOException {
+		Set<String> fileNames = savedGames.get(name);
+		if (fileNames == null) {
+			return null;
+		}
+		DungeonInfo info = savedGameInfo.get(name);
+		if (info == null) {
+			// Of a game both saved and exported, the file written last is the one loaded
+			String fileName = null;
+			for (String candidate : fileNames) {
+				if (fileName == null || store.lastSaved(candidate) > store.lastSaved(fileName)) {
+					fileName = candidate;
+				}
+			}
+			byte[] data = store.load(fileName);
+			if (data == null) {
+				return null;
+			}
+
+			Dungeon dungeon;
+			if (GameInOut.isBinary(data)) {
+				dungeon = GameInOut.fromBinary("load", data, name, 0, 0);
+			} else {
+				dungeon = DungeonReader.read("load", new InputStreamReader(new ByteArrayInputStream(data), StandardCharsets.UTF_8), name, 0, null, 0);
+			}
+			List<Position> positions = new ArrayList<>();
+			for (Entity ent : dungeon.getEntities()) {
+				positions.add(ent.getPosition());
+			}
+			info = new DungeonInfo(name, positions, dungeon.getGameMode());
+			savedGameInfo.put(name, info);
+		}
+		return info;
+	}
+
+	/**
+	 * Stop watching the directory of saved games
+	 */
+	@Override
+	public void close() throws IOException {
+		if (watcher != null) {
+			watcher.close();
+		}
+	}
+
+	private static String gameName(String fileName) {
+		return fileName.replace(".json", "").replace(GameInOut.BINARY_EXTENSION, "");
+	}
+
+	/**
+	 * List the saved games in the store, adding the games not yet known and removing those no longer there
+	 */
+	private void listSavedGames() {
+		try {
+			List<String> fileNames = store.list();
+			for (Map.Entry<String, Set<String>> game : savedGames.entrySet()) {
+				for (String fileName : new ArrayList<>(game.getValue())) {
+					if (!fileNames.contains(fileName)) {
+						savedGameChanged(fileName, false);
+					}
+				}
+			}
+			for (String fileName : fileNames) {
+				savedGameChanged(fileName, true);
+			}
+		} catch (IOException e) {
+			System.err.println("Cannot List Saved Games: " + e.getMessage());
+		}
+	}
+
+	private void savedGameChanged(String fileName, boolean exists) {
+		if (fileName.startsWith(".")) {
+			return;
+		}
+		String name = gameName(fileName);
+		savedGameInfo.remove(name);
+		if (exists) {
+			savedGames.computeIfAbsent(name, n -> ConcurrentHashMap.newKeySet()).add(fileName);
+		} else {
+			savedGames.computeIfPresent(name, (n, fileNames) -> {
+				fileNames.remove(fileName);
+				return fileNames.isEmpty() ? null : fileNames;
+			});
+		}
+	}
+
+	/**
+	 * Keep the catalogue up to date with the files added, changed and removed in the directory of saved games, until
+	 * the catalogue is closed
+	 */
+	private void watch() {
+		while (true) {
+			WatchKey key;
+			try {
+				key = watcher.take();
+			} catch (InterruptedException | ClosedWatchServiceException e) {
+				return;
+			}
+
+			for (WatchEvent<?> event : key.pollEvents()) {
+				if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+					// Events were lost, so the directory is listed again
+					listSavedGames();
+					continue;
+				}
+				// The file is checked rather than trusting the kind of event, as it may have changed again since
+				String fileName = event.context().toString();
+				savedGameChanged(fileName, Files.isRegularFile(savedGamesDirectory.resolve(fileName)));
+			}
+			key.reset();
+		}
+	}
+}
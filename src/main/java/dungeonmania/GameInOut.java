@@ -19,8 +19,19 @@ import java.lang.String;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Writer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 public class GameInOut {
+	/**
+	 * Extension of games saved in the binary save format, games exported as json keep ".json"
+	 */
+	public static final String BINARY_EXTENSION = ".dmb";
+	public static final int BINARY_MAGIC = 0x444D4E42;
+	public static final int BINARY_VERSION = 2;
 
 	/**
 	 * Converts a given Dungeon into a .json file.
@@ -41,6 +52,25 @@ public class GameInOut {
 		}
 	}
 	
+	/**
+	 * Converts a given Dungeon into the contents of a .json file, as toJSON writes it.
+	 * @param dungeon the Dungeon to be converted into json.
+	 * @return the dungeon as json
+	 */
+	public static byte[] toJSONBytes(Dungeon dungeon) {
+		Gson gson = new GsonBuilder().setPrettyPrinting().create();
+		return gson.toJson(dungeon).getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Converts a given Dungeon into json, without pretty printing
+	 * @param dungeon the Dungeon to be converted into json.
+	 * @return the dungeon as json
+	 */
+	public static String toJSONString(Dungeon dungeon) {
+		return new Gson().toJson(dungeon);
+	}
+
 	/**
 	 * Extracts a Dungeon from a .json file
 	 * @param expType the type of extraction desired, e.g. "new", "load", "rewind".
@@ -91,14 +121,7 @@ public class GameInOut {
 
 			List<Map<String, Object>> parseList = (List<Map<String, Object>>)jsonMap.get("entities"); 
 
-			EntityFactory factory = null;
-			if (playMode.equals("peaceful")) {
-				factory = new PeacefulFactory();
-			} else if (playMode.equals("standard")) {
-				factory = new StandardFactory();
-			} else if (playMode.equals("hard")) {
-				factory = new HardFactory();
-			}
+			EntityFactory factory = factoryFor(playMode);
 
 			for (int i = 0; i < parseList.size(); i++) {
                 Map<String, Object> currentEntity = parseList.get(i);
@@ -285,81 +308,21 @@ public class GameInOut {
 					
 					Position itemPos = new Position(xCoord, yCoord, zCoord);
 	
-					if (itemType.equals("treasure")) {
-						Treasure newTreasure = new Treasure(itemId, itemPos);
-						returnInv.add(newTreasure);
-					} else if (itemType.contains("key")){
+					int keyId = 0;
+					if (itemType.contains("key")) {
 						Double corrDoor = (Double)currentItem.get("key");
-						int keyId = corrDoor.intValue();
-						Key newKey = new Key(itemId, itemPos, keyId);
-						returnInv.add(newKey);
-					} else if (itemType.equals("health_potion")){
-						HealthPotion newHP = new HealthPotion(itemId, itemPos);
-						returnInv.add(newHP);
-					} else if (itemType.equals("invincibility_potion")){
-						InvincibilityPotion newINVCP = new InvincibilityPotion(itemId, itemPos);
-						returnInv.add(newINVCP);
-					} else if (itemType.equals("invisibility_potion")){
-						InvisibilityPotion newINVSP = new InvisibilityPotion(itemId, itemPos);
-						returnInv.add(newINVSP);
-					} else if (itemType.equals("wood")){
-						Wood newWood = new Wood(itemId, itemPos);
-						returnInv.add(newWood);
-					} else if (itemType.equals("arrow")){
-						Arrow newArrow = new Arrow(itemId, itemPos);
-						returnInv.add(newArrow);
-					} else if (itemType.equals("bomb")){
-						Bomb newBomb = new Bomb(itemId, itemPos);
-						returnInv.add(newBomb);
-					} else if (itemType.equals("sword")){
-						Double durabilityD = (Double)currentItem.get("durability");
-						int durability = durabilityD.intValue();
-						Sword newSword = new Sword(itemId, itemPos);
-						newSword.setDurability(durability);
-						returnInv.add(newSword);
-					} else if (itemType.equals("armour")){
-						Double durabilityD = (Double)currentItem.get("durability");
-						int durability = durabilityD.intValue();
-						Armour newArmour = new Armour(itemId, itemPos);
-						newArmour.setDurability(durability);
-						returnInv.add(newArmour);
-					} else if (itemType.equals("one_ring")){
-						OneRing newRing = new OneRing(itemId, itemPos);
-						returnInv.add(newRing);
-					} else if (itemType.equals("bow")){
-						Double durabilityD = (Double)currentItem.get("durability");
-						int durability = durabilityD.intValue();
-						Bow newBow = new Bow(itemId, itemPos);
-						newBow.setDurability(durability);
-						returnInv.add(newBow);
-					} else if (itemType.equals("shield")){
-						Double durabilityD = (Double)currentItem.get("durability");
-						int durability = durabilityD.intValue();
-						Shield newShield = new Shield(itemId, itemPos);
-						newShield.setDurability(durability);
-						returnInv.add(newShield);
-					} else if (itemType.equals("sun_stone")){
-						SunStone newStone = new SunStone(itemId, itemPos);
-						returnInv.add(newStone);
-					} else if (itemType.equals("anduril")){
-						Double durabilityD = (Double)currentItem.get("durability");
-						int durability = durabilityD.intValue();
-						Anduril newAnduril = new Anduril(itemId, itemPos);
-						newAnduril.setDurability(durability);
-						returnInv.add(newAnduril);
-					} else if (itemType.equals("sceptre")){
-						Sceptre newSceptre = new Sceptre(itemId, itemPos);
-						returnInv.add(newSceptre);
-					} else if (itemType.equals("midnight_armour")){
+						keyId = corrDoor.intValue();
+					}
+					int durability = 0;
+					if (currentItem.get("durability") != null) {
 						Double durabilityD = (Double)currentItem.get("durability");
-						int durability = durabilityD.intValue();
-						MidnightArmour newMidArm = new MidnightArmour(itemId, itemPos);
-						newMidArm.setDurability(durability);
-						returnInv.add(newMidArm);
-					} else if (itemType.equals("time_turner")){
-						TimeTurner newTurner = new TimeTurner(itemId, itemPos);
-						returnInv.add(newTurner);
-					} 
+						durability = durabilityD.intValue();
+					}
+
+					CollectableEntity item = createItem(itemType, itemId, itemPos, keyId, durability);
+					if (item != null) {
+						returnInv.add(item);
+					}
 				}
 			}
 			Dungeon returnDungeon = new Dungeon(lastUsedDungeonId, feed, entityList, playMode, goals, foundGoals, goalsConvert);
@@ -403,6 +366,11 @@ public class GameInOut {
 				returnDungeon.setRewindPath(rewindPath);
 			}
 
+			String pathfinding = (String)jsonMap.get("pathfinding");
+			if (pathfinding != null) {
+				returnDungeon.setPathfinding(pathfinding);
+			}
+
 			return returnDungeon;
 
 		} catch (Exception e) {
@@ -411,6 +379,344 @@ public class GameInOut {
 		return null;
 	}
 
+	/**
+	 * Creates an item of the inventory of a saved game
+	 * @param itemType the type of the item
+	 * @param itemId the id of the item
+	 * @param itemPos the position of the item
+	 * @param keyId the key the item opens, only used for keys
+	 * @param durability the uses the item has left, only used for items that wear out
+	 * @return the item, or null if the type is not an item
+	 */
+	public static CollectableEntity createItem(String itemType, String itemId, Position itemPos, int keyId, int durability) {
+		if (itemType.equals("treasure")) {
+			return new Treasure(itemId, itemPos);
+		} else if (itemType.contains("key")) {
+			return new Key(itemId, itemPos, keyId);
+		} else if (itemType.equals("health_potion")) {
+			return new HealthPotion(itemId, itemPos);
+		} else if (itemType.equals("invincibility_potion")) {
+			return new InvincibilityPotion(itemId, itemPos);
+		} else if (itemType.equals("invisibility_potion")) {
+			return new InvisibilityPotion(itemId, itemPos);
+		} else if (itemType.equals("wood")) {
+			return new Wood(itemId, itemPos);
+		} else if (itemType.equals("arrow")) {
+			return new Arrow(itemId, itemPos);
+		} else if (itemType.equals("bomb")) {
+			return new Bomb(itemId, itemPos);
+		} else if (itemType.equals("sword")) {
+			Sword newSword = new Sword(itemId, itemPos);
+			newSword.setDurability(durability);
+			return newSword;
+		} else if (itemType.equals("armour")) {
+			Armour newArmour = new Armour(itemId, itemPos);
+			newArmour.setDurability(durability);
+			return newArmour;
+		} else if (itemType.equals("one_ring")) {
+			return new OneRing(itemId, itemPos);
+		} else if (itemType.equals("bow")) {
+			Bow newBow = new Bow(itemId, itemPos);
+			newBow.setDurability(durability);
+			return newBow;
+		} else if (itemType.equals("shield")) {
+			Shield newShield = new Shield(itemId, itemPos);
+			newShield.setDurability(durability);
+			return newShield;
+		} else if (itemType.equals("sun_stone")) {
+			return new SunStone(itemId, itemPos);
+		} else if (itemType.equals("anduril")) {
+			Anduril newAnduril = new Anduril(itemId, itemPos);
+			newAnduril.setDurability(durability);
+			return newAnduril;
+		} else if (itemType.equals("sceptre")) {
+			return new Sceptre(itemId, itemPos);
+		} else if (itemType.equals("midnight_armour")) {
+			MidnightArmour newMidArm = new MidnightArmour(itemId, itemPos);
+			newMidArm.setDurability(durability);
+			return newMidArm;
+		} else if (itemType.equals("time_turner")) {
+			return new TimeTurner(itemId, itemPos);
+		} return null;
+	}
+
+	/**
+	 * @param playMode the mode the dungeon is played in
+	 * @return the factory creating the entities of the mode, or null if there is no such mode
+	 */
+	public static EntityFactory factoryFor(String playMode) {
+		if (playMode.equals("peaceful")) {
+			return new PeacefulFactory();
+		} else if (playMode.equals("standard")) {
+			return new StandardFactory();
+		} else if (playMode.equals("hard")) {
+			return new HardFactory();
+		} return null;
+	}
+
+	/**
+	 * Converts a given Dungeon into a binary file, which is smaller and quicker to read back than json.
+	 * @param path the path where the file should be stored.
+	 * @param dungeon the Dungeon to be converted.
+	 * @throws IOException if the dungeon cannot be stored.
+	 */
+	public static void toBinary(String path, Dungeon dungeon) throws IOException {
+		Files.write(Paths.get(path), toBytes(dungeon));
+	}
+
+	/**
+	 * Converts a given Dungeon into the binary save format, in one pass over the dungeon. The file holds:<ul>
+	 * <li> BINARY_MAGIC and BINARY_VERSION
+	 * <li> a table of every string in the file (types, ids, goals...), written once each
+	 * <li> the fields of the dungeon, then its entities and its inventory, each as its type, id and position
+	 * followed by the fields its type needs to be loaded, and for a moving entity what it is partway through (eg. a
+	 * spider's place on its loop), so that the game carries on exactly as it would have
+	 * </ul>
+	 * Strings are written as their index in the table, and numbers as varints, so small numbers such as
+	 * coordinates take a single byte.
+	 * @param dungeon the Dungeon to be converted.
+	 * @return the dungeon in the binary save format.
+	 */
+	public static byte[] toBytes(Dungeon dungeon) {
+		BinaryWriter body = new BinaryWriter();
+
+		body.writeString(dungeon.getGameMode());
+		body.writeString(dungeon.getGoals());
+		body.writeString(dungeon.getGoalConditions());
+		body.writeString(dungeon.getRewindPath());
+		body.writeString(dungeon.getPathfinding());
+		body.writeInt(dungeon.getTickNumber());
+		body.writeInt(dungeon.getHistoricalEntCount());
+		body.writeLong(dungeon.getRandomSeed());
+		body.writeBoolean(dungeon.getSpawnpoint() != null);
+		if (dungeon.getSpawnpoint() != null) {
+			body.writePosition(dungeon.getSpawnpoint());
+		}
+
+		body.writeCount(dungeon.getEntities().size());
+		for (Entity entity : dungeon.getEntities()) {
+			String entityType = entity.getType();
+			body.writeString(entityType);
+			body.writeString(entity.getId());
+			body.writePosition(entity.getPosition());
+
+			if (entityType.equals("portal")) {
+				body.writeString(((Portal) entity).getColour());
+			} else if (entityType.contains("door")) {
+				body.writeInt(((Door) entity).getKey());
+			} else if (entityType.contains("key")) {
+				body.writeInt(((Key) entity).getKey());
+			} else if (entityType.equals("player")) {
+				Player player = (Player) entity;
+				body.writeInt(player.getHealth());
+				body.writeInt(player.getAttack());
+				body.writeBoolean(player.isVisible());
+				body.writeBoolean(player.getHaveKey());
+				body.writeInt(player.getInvincibleTickDuration());
+				body.writeCount(player.getTraceList().size());
+				for (Direction traceDir : player.getTraceList()) {
+					body.writeCount(traceDir.ordinal());
+				}
+				writeDirection(body, player.getCurrentDir());
+				body.writeBoolean(player.getSunstoneStatus());
+			} else if (entityType.equals("swamp_tile")) {
+				body.writeInt(((SwampTile) entity).getMoveFactor());
+			} else if (entityType.equals("mercenary") || entityType.equals("assassin")) {
+				body.writeBoolean(((Mercenary) entity).getIsAlly());
+			} else if (entityType.equals("older_player")) {
+				body.writeInt(((OlderPlayer) entity).getTraceUntil());
+			}
+			if (entity instanceof MovingEntity) {
+				writeMovingState(body, (MovingEntity) entity);
+			}
+		}
+
+		body.writeCount(dungeon.getInventory().size());
+		for (CollectableEntity item : dungeon.getInventory()) {
+			body.writeString(item.getType());
+			body.writeString(item.getId());
+			body.writePosition(item.getPosition());
+			if (item.getType().contains("key")) {
+				body.writeInt(((Key) item).getKey());
+			}
+			body.writeInt((item instanceof DurableEntity) ? ((DurableEntity) item).getDurability() : 0);
+		}
+
+		return body.toBytes();
+	}
+
+	/**
+	 * Extracts a Dungeon from the binary save format, in one pass over the file
+	 * @param expType the type of extraction desired, "load" or "rewind".
+	 * @param bytes the file
+	 * @param feed the name of the dungeon
+	 * @param lastUsedDungeonId the last used Id for the games in the controller
+	 * @param ticks the number of ticks the user is rewinding by, used for loading when rewinding.
+	 * @return the appropriate dungeon.
+	 * @throws IOException if the file is not in the binary save format, or is of a version that cannot be read.
+	 */
+	public static Dungeon fromBinary(String expType, byte[] bytes, String feed, int lastUsedDungeonId, int ticks) throws IOException {
+		try {
+			return readBinary(expType, new BinaryReader(bytes), feed, lastUsedDungeonId, ticks);
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new IOException("Saved Game Is Truncated", e);
+		}
+	}
+
+	private static Dungeon readBinary(String expType, BinaryReader in, String feed, int lastUsedDungeonId, int ticks) {
+		String playMode = in.readString();
+		String goals = in.readString();
+		String goalConditions = in.readString();
+		String rewindPath = in.readString();
+		String pathfinding = in.readString();
+		int tickNumber = in.readInt();
+		int historicalEntCount = in.readInt();
+		// Games saved before the random stream and what moving entities are partway through were kept (version 1)
+		// carry on from a new seed, and with their moving entities as they are created
+		Long randomSeed = (in.getVersion() >= 2) ? in.readLong() : null;
+		Position spawnpoint = in.readBoolean() ? in.readPosition() : new Position(0, 0, 0);
+
+		GoalNode foundGoals = new GoalAnd("");
+		String goalsConvert = "";
+		if (!goalConditions.equals("")) {
+			JSONObject goalCon = new JSONObject(goalConditions);
+			foundGoals = createGoals(goalCon);
+			goalsConvert = goalCon.toString();
+		}
+
+		EntityFactory factory = factoryFor(playMode);
+		List<Entity> entityList = new ArrayList<>();
+		int entityCount = in.readCount();
+		for (int i = 0; i < entityCount; i++) {
+			SavedEntity saved = readSavedEntity(in);
+			if (saved.type.equals("portal")) {
+				saved.colour = in.readString();
+			} else if (saved.type.contains("door") || saved.type.contains("key")) {
+				saved.key = in.readInt();
+			} else if (saved.type.equals("player")) {
+				saved.health = in.readInt();
+				saved.attack = in.readInt();
+				saved.visible = in.readBoolean();
+				saved.haveKey = in.readBoolean();
+				saved.invincibleTickDuration = in.readInt();
+				int traceCount = in.readCount();
+				for (int j = 0; j < traceCount; j++) {
+					saved.traceList.add(Direction.values()[in.readCount()]);
+				}
+				if (in.getVersion() >= 2) {
+					Direction currentDir = readDirection(in);
+					saved.currentDir = (currentDir == null) ? Direction.UP : currentDir;
+					saved.hasSunStone = in.readBoolean();
+				}
+			} else if (saved.type.equals("swamp_tile")) {
+				saved.moveFactor = in.readInt();
+			} else if (saved.type.equals("mercenary") || saved.type.equals("assassin")) {
+				saved.isAlly = in.readBoolean();
+			} else if (saved.type.equals("older_player")) {
+				saved.traceUntil = in.readInt();
+			}
+
+			Entity entity = saved.create(factory, expType, playMode, tickNumber, ticks);
+			// A player rewound is created as an older player, but was written as a player
+			if (in.getVersion() >= 2 && entity instanceof MovingEntity && !saved.type.equals("player")) {
+				readMovingState(in, (MovingEntity) entity);
+			}
+			if (entity != null) {
+				entityList.add(entity);
+			}
+		}
+
+		List<CollectableEntity> returnInv = new ArrayList<>();
+		int itemCount = in.readCount();
+		for (int i = 0; i < itemCount; i++) {
+			SavedEntity saved = readSavedEntity(in);
+			if (saved.type.contains("key")) {
+				saved.key = in.readInt();
+			}
+			saved.durability = in.readInt();
+			CollectableEntity item = saved.createItem();
+			if (item != null) {
+				returnInv.add(item);
+			}
+		}
+
+		Dungeon returnDungeon = new Dungeon(lastUsedDungeonId, feed, entityList, playMode, goals, foundGoals, goalsConvert);
+		returnDungeon.setInventory(returnInv);
+		returnDungeon.setHistoricalEntCount(historicalEntCount);
+		returnDungeon.setTickNumber(tickNumber);
+		returnDungeon.setSpawnpoint(spawnpoint);
+		returnDungeon.setRewindPath(rewindPath);
+		if (randomSeed != null) {
+			returnDungeon.setRandomSeed(randomSeed);
+		}
+		if (pathfinding != null) {
+			returnDungeon.setPathfinding(pathfinding);
+		}
+		return returnDungeon;
+	}
+
+	/**
+	 * Writes what a moving entity is partway through, which is not set up again when it is created, so that a game
+	 * read back carries on as it would have
+	 */
+	private static void writeMovingState(BinaryWriter body, MovingEntity entity) {
+		body.writeInt(entity.getHealth());
+		body.writeInt(entity.getTicksFrozen());
+		if (entity instanceof Spider) {
+			Spider spider = (Spider) entity;
+			body.writePosition(spider.getRange().get(0));
+			body.writeCount(spider.getCurrTile());
+			body.writeBoolean(spider.getClockwise());
+		} else if (entity instanceof Mercenary) {
+			Mercenary mercenary = (Mercenary) entity;
+			writeDirection(body, mercenary.getCurrentDir());
+			body.writeInt(mercenary.getSceptreTick());
+		}
+	}
+
+	private static void readMovingState(BinaryReader in, MovingEntity entity) {
+		entity.setHealth(in.readInt());
+		entity.setTicksFrozen(in.readInt());
+		if (entity instanceof Spider) {
+			Spider spider = (Spider) entity;
+			spider.setCentre(in.readPosition());
+			spider.setCurrTile(in.readCount());
+			spider.setClockwise(in.readBoolean());
+		} else if (entity instanceof Mercenary) {
+			Mercenary mercenary = (Mercenary) entity;
+			mercenary.setCurrentDir(readDirection(in));
+			mercenary.setSceptreTickDuration(in.readInt());
+		}
+	}
+
+	/**
+	 * @param direction	Direction to write, or null
+	 */
+	private static void writeDirection(BinaryWriter body, Direction direction) {
+		body.writeCount((direction == null) ? 0 : direction.ordinal() + 1);
+	}
+
+	private static Direction readDirection(BinaryReader in) {
+		int direction = in.readCount();
+		return (direction == 0) ? null : Direction.values()[direction - 1];
+	}
+
+	private static SavedEntity readSavedEntity(BinaryReader in) {
+		SavedEntity saved = new SavedEntity();
+		saved.type = in.readString();
+		saved.id = in.readString();
+		saved.position = in.readPosition();
+		return saved;
+	}
+
+	/**
+	 * @param bytes the start of a file
+	 * @return true if the file is in the binary save format
+	 */
+	public static boolean isBinary(byte[] bytes) {
+		return bytes.length >= 4 && ByteBuffer.wrap(bytes).getInt() == BINARY_MAGIC;
+	}
+
 	/**
 	 * Extract the goals from a .json dungeon
 	 * @param goal the goal as a JSONObject
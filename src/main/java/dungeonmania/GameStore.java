@@ -0,0 +1,85 @@
+package dungeonmania;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A GameStore keeps saved games and the rewind history of each game, wherever they are stored. Saved games are
+ * kept by file name (eg. "maze-1636079593059.dmb"), and histories by the rewind path of their game
+ * (eg. "/rewind/1636079593059/"), each as a set of files by name.
+ * Writes are made in groups by writeAll, which an implementation may make durable all at once. Games only kept for
+ * a while, eg. those spilled out of memory, are removed with delete and deleteHistory once they are read back.
+ */
+public interface GameStore {
+
+	/**
+	 * Writes saved games and histories, replacing any already stored under the same names. A history replaces every
+	 * file of the history before it.
+	 * @param saves contents of each saved game by file name
+	 * @param histories files of each history by rewind path
+	 * @throws IOException if they cannot be stored
+	 */
+	void writeAll(Map<String, byte[]> saves, Map<String, Map<String, byte[]>> histories) throws IOException;
+
+	/**
+	 * @param fileName file name of a saved game
+	 * @return the contents of the saved game, or null if there is none
+	 * @throws IOException if it cannot be read
+	 */
+	byte[] load(String fileName) throws IOException;
+
+	/**
+	 * @param fileName file name of a saved game
+	 * @return a number that is larger for games saved later, or 0 if there is no such game
+	 * @throws IOException if it cannot be read
+	 */
+	long lastSaved(String fileName) throws IOException;
+
+	/**
+	 * @return the file names of every saved game
+	 * @throws IOException if they cannot be listed
+	 */
+	List<String> list() throws IOException;
+
+	/**
+	 * @param rewindPath rewind path of a game
+	 * @return the files of the history of the game by name, empty if there is none
+	 * @throws IOException if it cannot be read
+	 */
+	Map<String, byte[]> loadHistory(String rewindPath) throws IOException;
+
+	/**
+	 * Removes a saved game, if there is one
+	 * @param fileName file name of the saved game
+	 * @throws IOException if it cannot be removed
+	 */
+	void delete(String fileName) throws IOException;
+
+	/**
+	 * Removes every file of the history of a game, if there is one
+	 * @param rewindPath rewind path of the game
+	 * @throws IOException if it cannot be removed
+	 */
+	void deleteHistory(String rewindPath) throws IOException;
+
+	/**
+	 * Writes a saved game
+	 * @param fileName file name of the saved game
+	 * @param data contents of the saved game
+	 * @throws IOException if it cannot be stored
+	 */
+	default void save(String fileName, byte[] data) throws IOException {
+		writeAll(Map.of(fileName, data), Map.of());
+	}
+
+	/**
+	 * Writes the history of a game
+	 * @param rewindPath rewind path of the game
+	 * @param files files of the history by name
+	 * @throws IOException if it cannot be stored
+	 */
+	default void saveHistory(String rewindPath, Map<String, byte[]> files) throws IOException {
+		writeAll(Map.of(), Map.of(rewindPath, files));
+	}
+}
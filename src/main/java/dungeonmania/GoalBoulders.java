@@ -13,13 +13,10 @@ public class GoalBoulders implements GoalNode{
 	@Override
 	public Boolean evaluate(Dungeon currentDungeon) {
 		hasCompleted = true;		
-		for (Entity ent: currentDungeon.getEntities()) {
-			if (ent instanceof Switch) {
-				Switch swtch = (Switch) ent;
-				if (!swtch.getStatus()) {
-					hasCompleted = false;
-					continue;
-				}
+		for (Switch swtch : currentDungeon.getEntitiesOfClass(Switch.class)) {
+			if (!swtch.getStatus()) {
+				hasCompleted = false;
+				break;
 			}
 		}
 		return hasCompleted;
@@ -12,13 +12,7 @@ public class GoalEnemies implements GoalNode{
 
 	@Override
 	public Boolean evaluate(Dungeon currentDungeon) {
-		hasCompleted = true;
-		for (Entity ent: currentDungeon.getEntities()) {
-			if (ent instanceof MovingEntity || ent instanceof ZombieToastSpawner) {
-				hasCompleted = false;
-				continue;
-			}
-		}
+		hasCompleted = !currentDungeon.entityExists(MovingEntity.class) && !currentDungeon.entityExists(ZombieToastSpawner.class);
 		return hasCompleted;
 	}
 
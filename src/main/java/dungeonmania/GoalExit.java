@@ -14,16 +14,14 @@ public class GoalExit implements GoalNode{
 	@Override
 	public Boolean evaluate(Dungeon currentDungeon) {
 		hasCompleted = false;
-		for (Entity ent: currentDungeon.getEntities()) {
-			if (ent instanceof Exit) {
-				Position playerPos = currentDungeon.getPlayerPosition();
-				Position exitPos = ent.getPosition();
-				if (playerPos == null ) {
-					continue;
-				} else if (playerPos.equals(exitPos)) {
-					hasCompleted = true;
-					continue;
-				} 
+		Position playerPos = currentDungeon.getPlayerPosition();
+		if (playerPos == null) {
+			return hasCompleted;
+		}
+		for (Exit exit : currentDungeon.getEntitiesOfClass(Exit.class)) {
+			if (playerPos.equals(exit.getPosition())) {
+				hasCompleted = true;
+				break;
 			}
 		}
 		return hasCompleted;
@@ -12,13 +12,7 @@ public class GoalTreasure implements GoalNode{
 	
 	@Override
 	public Boolean evaluate(Dungeon currentDungeon) {
-		hasCompleted = true;
-		for (Entity ent: currentDungeon.getEntities()) {
-			if (ent instanceof Treasure) {
-				hasCompleted = false; 
-				continue;
-			}
-		}
+		hasCompleted = !currentDungeon.entityExists(Treasure.class);
 		return hasCompleted;
 	}
 
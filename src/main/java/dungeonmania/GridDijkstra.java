@@ -0,0 +1,199 @@
+package dungeonmania;
+
+import java.util.Arrays;
+
+import dungeonmania.util.Position;
+
+/**
+ * GridDijkstra runs Dijkstra's algorithm for Mercenary and Assassin movement over flat arrays instead of the nested
+ * maps of Dijkstra.createGraph. Cells of the bounding box of the dungeon (widened by one cell on every side) are
+ * indexed by (x - minX) * height + (y - minY), and the distances and predecessors of the cells are kept in int arrays
+ * with an IndexedMinHeap as the queue. The cost of moving onto each cell is read from the CostGrid of the dungeon,
+ * which follows the same rules as the Dijkstra interface, so it finds paths as short as Dijkstra.move does.
+ * When several shortest paths leave a cell, the step taken is one along the axis the destination is further away
+ * on (across, if it is as far across as it is up or down), and then the first of those in the order right, down,
+ * left, up.
+ */
+public class GridDijkstra {
+	public static final int BLOCKED = CostGrid.BLOCKED;
+	public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	private final int minX;
+	private final int minY;
+	private final int width;
+	private final int height;
+	private final int[] weight;
+
+	/**
+	 * Builds the grid of the current dungeon from its CostGrid
+	 * @param currentDungeon the current Dungeon
+	 */
+	public GridDijkstra(Dungeon currentDungeon) {
+		this.minX = currentDungeon.getMinX() - 1;
+		this.minY = currentDungeon.getMinY() - 1;
+		this.width = currentDungeon.getMaxX() + 1 - minX + 1;
+		this.height = currentDungeon.getMaxY() + 1 - minY + 1;
+		this.weight = new int[width * height];
+
+		CostGrid costGrid = currentDungeon.getCostGrid();
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				weight[x * height + y] = costGrid.getCost(minX + x, minY + y);
+			}
+		}
+	}
+
+	/**
+	 * @return the number of cells in the grid
+	 */
+	public int size() {
+		return weight.length;
+	}
+
+	/**
+	 * @param pos a position in the dungeon, the layer is ignored
+	 * @return the index of the cell, or -1 if it is outside of the grid
+	 */
+	public int cellOf(Position pos) {
+		int x = pos.getX() - minX;
+		int y = pos.getY() - minY;
+		if (x < 0 || x >= width || y < 0 || y >= height) {
+			return -1;
+		} return x * height + y;
+	}
+
+	/**
+	 * @param cell index of a cell
+	 * @return the position of the cell
+	 */
+	public Position positionOf(int cell) {
+		return new Position(minX + cell / height, minY + cell % height);
+	}
+
+	/**
+	 * @param cell index of a cell
+	 * @return the cost of moving onto the cell, or BLOCKED
+	 */
+	public int getWeight(int cell) {
+		return weight[cell];
+	}
+
+	/**
+	 * Returns a cell cardinally adjacent to the given cell, in the same order as Position.getCardinallyAdjPositions
+	 * @param cell index of a cell
+	 * @param direction 0 for up, 1 for right, 2 for down and 3 for left
+	 * @return the index of the adjacent cell, or -1 if it is outside of the grid
+	 */
+	public int adjacent(int cell, int direction) {
+		switch (direction) {
+			case 0:
+				return (cell % height > 0) ? cell - 1 : -1;
+			case 1:
+				return (cell + height < weight.length) ? cell + height : -1;
+			case 2:
+				return (cell % height < height - 1) ? cell + 1 : -1;
+			default:
+				return (cell >= height) ? cell - height : -1;
+		}
+	}
+
+	/**
+	 * Returns the next position for the Mercenary/Assassin to move onto in pursuit of the player. The search is run
+	 * backwards from the player, and stops once it reaches the Mercenary/Assassin.
+	 * @param source the current position of the Mercenary/Assassin
+	 * @param destination the current position of the player
+	 * @return the next position for the Mercenary/Assassin to move onto
+	 * 			<li> null, if the player cannot be reached
+	 */
+	public Position move(Position source, Position destination) {
+		int s = cellOf(source);
+		int t = cellOf(destination);
+		if (s == -1 || t == -1 || s == t) {
+			return null;
+		}
+
+		int next = firstStep(s, t, search(t, s));
+		return (next == -1) ? null : positionOf(next);
+	}
+
+	/**
+	 * Runs Dijkstra's algorithm backwards from the destination, following edges against their direction.
+	 * @param destination the current position of the player
+	 * @return the shortest distance from every cell to the destination, UNREACHABLE if it cannot be reached
+	 */
+	public int[] distancesTo(Position destination) {
+		int t = cellOf(destination);
+		if (t == -1) {
+			int[] dist = new int[weight.length];
+			Arrays.fill(dist, UNREACHABLE);
+			return dist;
+		} return search(t, -1);
+	}
+
+	/**
+	 * Picks the step a Mercenary/Assassin on a cell takes towards the destination, breaking ties between shortest
+	 * paths as described above
+	 * @param cell index of the cell
+	 * @param destination index of the destination cell
+	 * @param dist the distances to the destination, as found by distancesTo
+	 * @return the adjacent cell to move onto, or -1 if the destination cannot be reached
+	 */
+	public int firstStep(int cell, int destination, int[] dist) {
+		if (dist[cell] == UNREACHABLE) {
+			return -1;
+		}
+		boolean acrossFirst = Math.abs(destination / height - cell / height) >= Math.abs(destination % height - cell % height);
+		int step = -1;
+		for (int i = 0; i < 4; i++) {
+			/* Right, down, left, up, of which right and left go across */
+			int direction = (i + 1) % 4;
+			int adj = adjacent(cell, direction);
+			if (adj == -1 || weight[adj] == BLOCKED || dist[adj] == UNREACHABLE || dist[cell] != dist[adj] + weight[adj]) {
+				continue;
+			} else if ((direction % 2 == 1) == acrossFirst) {
+				return adj;
+			} else if (step == -1) {
+				step = adj;
+			}
+		} return step;
+	}
+
+	/**
+	 * Runs Dijkstra's algorithm backwards from a cell
+	 * @param t index of the destination cell
+	 * @param stop index of a cell to stop at once its distance is known, or -1 to find the distance of every cell.
+	 * 			The adjacent cells on its shortest paths are nearer the destination, so theirs are known by then too.
+	 * @return the shortest distance from each cell to the destination, UNREACHABLE if it cannot be reached or was
+	 * 			not reached before stopping
+	 */
+	private int[] search(int t, int stop) {
+		int[] dist = new int[weight.length];
+		Arrays.fill(dist, UNREACHABLE);
+		dist[t] = 0;
+		IndexedMinHeap dijkstraQueue = new IndexedMinHeap(weight.length);
+		dijkstraQueue.push(t, 0);
+
+		while (!dijkstraQueue.isEmpty()) {
+			int v = dijkstraQueue.poll();
+			if (v == stop) {
+				break;
+			} else if (weight[v] == BLOCKED) {
+				continue;
+			}
+
+			/* Every cell u adjacent to v can reach the destination through v */
+			for (int direction = 0; direction < 4; direction++) {
+				int u = adjacent(v, direction);
+				if (u == -1) {
+					continue;
+				}
+
+				int alt = dist[v] + weight[v];
+				if (alt < dist[u]) {
+					dist[u] = alt;
+					dijkstraQueue.push(u, alt);
+				}
+			}
+		} return dist;
+	}
+}
@@ -0,0 +1,61 @@
+package dungeonmania;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An InMemoryGameStore keeps games in memory only, for tests and benchmarks that should not touch the disk. Games
+ * are lost once the store is.
+ */
+public class InMemoryGameStore implements GameStore {
+	private final Map<String, byte[]> saves = new LinkedHashMap<>();
+	private final Map<String, Long> saveTimes = new HashMap<>();
+	private final Map<String, Map<String, byte[]>> histories = new HashMap<>();
+	private long writes = 0;
+
+	@Override
+	public synchronized void writeAll(Map<String, byte[]> saves, Map<String, Map<String, byte[]>> histories) {
+		writes++;
+		for (Map.Entry<String, byte[]> save : saves.entrySet()) {
+			this.saves.put(save.getKey(), save.getValue());
+			saveTimes.put(save.getKey(), writes);
+		}
+		for (Map.Entry<String, Map<String, byte[]>> history : histories.entrySet()) {
+			this.histories.put(history.getKey(), new LinkedHashMap<>(history.getValue()));
+		}
+	}
+
+	@Override
+	public synchronized byte[] load(String fileName) {
+		return saves.get(fileName);
+	}
+
+	@Override
+	public synchronized long lastSaved(String fileName) {
+		return saveTimes.getOrDefault(fileName, 0L);
+	}
+
+	@Override
+	public synchronized List<String> list() {
+		return new ArrayList<>(saves.keySet());
+	}
+
+	@Override
+	public synchronized Map<String, byte[]> loadHistory(String rewindPath) {
+		return new LinkedHashMap<>(histories.getOrDefault(rewindPath, Map.of()));
+	}
+
+	@Override
+	public synchronized void delete(String fileName) {
+		saves.remove(fileName);
+		saveTimes.remove(fileName);
+	}
+
+	@Override
+	public synchronized void deleteHistory(String rewindPath) {
+		histories.remove(rewindPath);
+	}
+}
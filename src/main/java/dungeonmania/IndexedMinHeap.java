@@ -0,0 +1,119 @@
+package dungeonmania;
+
+import java.util.Arrays;
+
+/**
+ * A binary min heap of cell indices, keyed on a distance. Each cell is in the heap at most once and its
+ * slot in the heap is remembered, so a cell's key can be decreased in O(log n) rather than pushing a duplicate.
+ * Cells with the same key come out in ascending order of their index.
+ */
+public class IndexedMinHeap {
+	private final int[] heap;
+	private final int[] slot;
+	private final long[] key;
+	private int size = 0;
+
+	/**
+	 * @param capacity the number of cells, ie. cells are indexed from 0 to capacity - 1
+	 */
+	public IndexedMinHeap(int capacity) {
+		this.heap = new int[capacity];
+		this.slot = new int[capacity];
+		this.key = new long[capacity];
+		Arrays.fill(slot, -1);
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @return the number of cells the heap can hold
+	 */
+	public int capacity() {
+		return heap.length;
+	}
+
+	/**
+	 * Removes every cell, so the heap can be reused for another search
+	 */
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			slot[heap[i]] = -1;
+		}
+		size = 0;
+	}
+
+	/**
+	 * Adds the cell with the given key, or lowers its key if it is already in the heap
+	 * @param cell index of the cell
+	 * @param newKey the new key of the cell
+	 */
+	public void push(int cell, long newKey) {
+		if (slot[cell] == -1) {
+			slot[cell] = size;
+			heap[size++] = cell;
+		} else if (newKey >= key[cell]) {
+			return;
+		}
+		key[cell] = newKey;
+		siftUp(slot[cell]);
+	}
+
+	/**
+	 * Removes the cell with the lowest key
+	 * @return index of the cell
+	 */
+	public int poll() {
+		int top = heap[0];
+		slot[top] = -1;
+		size--;
+		if (size > 0) {
+			heap[0] = heap[size];
+			slot[heap[0]] = 0;
+			siftDown(0);
+		}
+		return top;
+	}
+
+	private void siftUp(int i) {
+		int cell = heap[i];
+		while (i > 0) {
+			int parent = (i - 1) / 2;
+			if (!before(cell, heap[parent])) {
+				break;
+			}
+			place(i, heap[parent]);
+			i = parent;
+		}
+		place(i, cell);
+	}
+
+	private void siftDown(int i) {
+		int cell = heap[i];
+		while (2 * i + 1 < size) {
+			int child = 2 * i + 1;
+			if (child + 1 < size && before(heap[child + 1], heap[child])) {
+				child++;
+			}
+			if (!before(heap[child], cell)) {
+				break;
+			}
+			place(i, heap[child]);
+			i = child;
+		}
+		place(i, cell);
+	}
+
+	private void place(int i, int cell) {
+		heap[i] = cell;
+		slot[cell] = i;
+	}
+
+	private boolean before(int a, int b) {
+		if (key[a] != key[b]) {
+			return key[a] < key[b];
+		}
+		return a < b;
+	}
+}
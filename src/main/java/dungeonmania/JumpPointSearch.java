@@ -0,0 +1,189 @@
+package dungeonmania;
+
+import dungeonmania.util.Position;
+
+/**
+ * JumpPointSearch is A* that, rather than adding every adjacent cell to the search, jumps in a straight line over
+ * cells until reaching one where the path might have to turn. It only applies when every cell costs the same to move
+ * onto, so on dungeons with swamps it searches cell by cell like AStar.
+ * Moving in four directions, paths are taken to go sideways first. A path moving sideways may turn up or down at any
+ * cell, so at every cell a sideways jump looks up and down, and stops if either leads somewhere. A path moving up or
+ * down only turns sideways where it has just passed the end of a wall beside it.
+ * Where a jump up or down from a cell ends does not depend on where the player is, so it is kept for every cell the
+ * jump passes until the CostGrid changes, and shared by every search on the dungeon until then. Each cell is passed
+ * by at most one jump up and one jump down, so the searches between two changes to the grid look at no more than
+ * about twice the cells of the dungeon between them, and a sideways jump looks up and down from a cell at once.
+ */
+public class JumpPointSearch extends AStar {
+	private boolean uniform;
+	private int touched;
+
+	/* Where each jump up and down kept ends, and the generation of the jumps each was kept in */
+	private int[] jumpsUp = new int[0];
+	private int[] jumpsDown = new int[0];
+	private int[] keptUp = new int[0];
+	private int[] keptDown = new int[0];
+	private int generation = 0;
+	/* What the jumps kept were found on */
+	private CostGrid keptGrid;
+	private int keptVersion;
+	private int keptMinX;
+	private int keptMinY;
+	private int keptWidth;
+	private int keptHeight;
+
+	@Override
+	public Position move(Dungeon currentDungeon, Position source) {
+		uniform = !currentDungeon.getCostGrid().hasWeightedCells();
+		touched = 0;
+		return super.move(currentDungeon, source);
+	}
+
+	/**
+	 * @return the number of cells jumped over by the last search, which looks at far more cells than it expands
+	 */
+	public int getTouched() {
+		return touched;
+	}
+
+	@Override
+	protected void expand(int u) {
+		if (!uniform) {
+			super.expand(u);
+			return;
+		}
+
+		int x = xOf(u);
+		int y = yOf(u);
+		int dx = (prev[u] == -1) ? 0 : Integer.signum(x - xOf(prev[u]));
+		int dy = (prev[u] == -1) ? 0 : Integer.signum(y - yOf(prev[u]));
+
+		if (dx == 0 && dy == 0) {
+			jumpFrom(u, 0, -1);
+			jumpFrom(u, 1, 0);
+			jumpFrom(u, 0, 1);
+			jumpFrom(u, -1, 0);
+		} else if (dx != 0) {
+			jumpFrom(u, 0, -1);
+			jumpFrom(u, dx, 0);
+			jumpFrom(u, 0, 1);
+		} else {
+			jumpFrom(u, 0, dy);
+			if (isOpen(x + 1, y) && !isOpen(x + 1, y - dy)) {
+				jumpFrom(u, 1, 0);
+			}
+			if (isOpen(x - 1, y) && !isOpen(x - 1, y - dy)) {
+				jumpFrom(u, -1, 0);
+			}
+		}
+	}
+
+	private void jumpFrom(int u, int dx, int dy) {
+		int jumpPoint = jump(xOf(u), yOf(u), dx, dy);
+		if (jumpPoint != -1) {
+			int steps = Math.abs(xOf(jumpPoint) - xOf(u)) + Math.abs(yOf(jumpPoint) - yOf(u));
+			visit(u, jumpPoint, g[u] + steps * CostGrid.OPEN);
+		}
+	}
+
+	/**
+	 * Moves from a cell in a straight line until reaching a cell where the path might turn
+	 * @return index of the cell reached, or -1 if the line ends at a wall without reaching one
+	 */
+	private int jump(int x, int y, int dx, int dy) {
+		if (dx == 0) {
+			return jumpVertically(x, y, dy);
+		}
+		while (true) {
+			x += dx;
+			touched++;
+			if (!isOpen(x, y)) {
+				return -1;
+			}
+
+			int cell = cellOf(x, y);
+			if (isTarget(cell) || jumpVertically(x, y, -1) != -1 || jumpVertically(x, y, 1) != -1) {
+				return cell;
+			}
+		}
+	}
+
+	/**
+	 * Moves up or down from a cell until reaching the player, or a cell where the path might turn
+	 * @return index of the cell reached, or -1 if the line ends at a wall without reaching one
+	 */
+	private int jumpVertically(int x, int y, int dy) {
+		int end = jumpEnd(x, y, dy);
+		int endY = (end >> 1) + minY - 1;
+		boolean turns = (end & 1) == 1;
+
+		// The player is reached if it is passed before the end, or is at the end of a jump that turns there
+		if (x == targetX && (targetY - y) * dy > 0 && ((endY - targetY) * dy > 0 || (turns && endY == targetY))) {
+			return cellOf(x, targetY);
+		}
+		return turns ? cellOf(x, endY) : -1;
+	}
+
+	/**
+	 * Finds where a jump up or down from a cell ends, whoever it is searching for, and keeps it for every cell passed
+	 * on the way. A jump reaching a cell already jumped from in the same direction ends where that jump does.
+	 * @return the row the jump ends on, less minY - 1, shifted up by one bit that is set if the path might turn there
+	 * 			rather than the row being a wall
+	 */
+	private int jumpEnd(int x, int y, int dy) {
+		keepJumpsFor(costGrid);
+		int[] jumps = (dy < 0) ? jumpsUp : jumpsDown;
+		int[] kept = (dy < 0) ? keptUp : keptDown;
+
+		int start = y;
+		int end;
+		while (true) {
+			int cell = cellOf(x, y);
+			if (kept[cell] == generation) {
+				end = jumps[cell];
+				break;
+			}
+			y += dy;
+			touched++;
+			if (!isOpen(x, y)) {
+				end = (y - minY + 1) << 1;
+				break;
+			} else if ((isOpen(x + 1, y) && !isOpen(x + 1, y - dy)) || (isOpen(x - 1, y) && !isOpen(x - 1, y - dy))) {
+				end = ((y - minY + 1) << 1) | 1;
+				break;
+			}
+		}
+
+		for (int passed = start; passed != y; passed += dy) {
+			int cell = cellOf(x, passed);
+			jumps[cell] = end;
+			kept[cell] = generation;
+		}
+		return end;
+	}
+
+	/**
+	 * Forgets the jumps kept if they were found on another grid, or the grid or the area searched has changed since
+	 */
+	private void keepJumpsFor(CostGrid grid) {
+		if (grid == keptGrid && grid.getVersion() == keptVersion && minX == keptMinX && minY == keptMinY
+			&& width == keptWidth && height == keptHeight) {
+			return;
+		}
+		int size = width * height;
+		if (jumpsUp.length < size || generation == Integer.MAX_VALUE) {
+			jumpsUp = new int[size];
+			jumpsDown = new int[size];
+			keptUp = new int[size];
+			keptDown = new int[size];
+			generation = 0;
+		}
+		generation++;
+		keptGrid = grid;
+		keptVersion = grid.getVersion();
+		keptMinX = minX;
+		keptMinY = minY;
+		keptWidth = width;
+		keptHeight = height;
+	}
+}
@@ -0,0 +1,354 @@
+package dungeonmania;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * A MappedSegmentGameStore keeps every game in one append-only segment file, mapped into memory. Each saved game or
+ * history written is appended to the end of the segment as a record, and the last record for a name is the one
+ * read back. Only where each record lies is kept on the heap, and reading a game copies it straight out of the
+ * mapped file. A group of writes is appended and then synced to disk at once.
+ * Every record holds its length and a checksum, so a record left half written by a crash is found when the segment
+ * is opened again, and it and anything after it are ignored. A game is deleted by appending a record saying so.
+ * Once more than half of the segment is taken by records replaced or deleted, the records still read are copied into
+ * a new segment, which is synced and then moved over the old one, so the segment only grows with the games kept.
+ * The segment holds:<ul>
+ * <li> MAGIC and VERSION
+ * <li> records, each its length, its checksum, SAVE, HISTORY, DELETE_SAVE or DELETE_HISTORY and the name it is kept
+ * by, then the contents of the saved game, or the number of files in the history followed by the name and contents
+ * of each
+ * <li> a length of 0 after the last record
+ * </ul>
+ */
+public class MappedSegmentGameStore implements GameStore, Closeable {
+	public static final int MAGIC = 0x444D5347;
+	public static final int VERSION = 2;
+	private static final int HEADER = 8;
+	private static final int INITIAL_SIZE = 1 << 20;
+	private static final byte SAVE = 0;
+	private static final byte HISTORY = 1;
+	private static final byte DELETE_SAVE = 2;
+	private static final byte DELETE_HISTORY = 3;
+
+	private final Path file;
+	private FileChannel channel;
+	private MappedByteBuffer segment;
+	private int end;
+	/**
+	 * Bytes of the segment taken by records replaced or deleted since it was last compacted
+	 */
+	private int replaced;
+	/**
+	 * Where the contents of each saved game lie in the segment, and the record holding it
+	 */
+	private final Map<String, int[]> saves = new LinkedHashMap<>();
+	private final Map<String, Map<String, int[]>> histories = new HashMap<>();
+	/**
+	 * Where the record holding each history lies in the segment
+	 */
+	private final Map<String, Integer> historyRecords = new HashMap<>();
+
+	/**
+	 * Opens a segment, creating it if it does not exist
+	 * @param file the segment file
+	 * @throws IOException if the segment cannot be opened, or is not a segment
+	 */
+	public MappedSegmentGameStore(Path file) throws IOException {
+		this.file = file;
+		open();
+	}
+
+	/**
+	 * Maps the segment file and indexes its records
+	 */
+	private void open() throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		boolean created = channel.size() == 0;
+		segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), INITIAL_SIZE));
+
+		if (created) {
+			segment.putInt(0, MAGIC);
+			segment.putInt(4, VERSION);
+			segment.force();
+		} else if (segment.getInt(0) != MAGIC || segment.getInt(4) > VERSION) {
+			channel.close();
+			throw new IOException("Not A Game Segment, Or Of A Newer Version");
+		}
+		end = HEADER;
+		replaced = 0;
+		saves.clear();
+		histories.clear();
+		historyRecords.clear();
+		readRecords();
+	}
+
+	@Override
+	public synchronized void writeAll(Map<String, byte[]> saves, Map<String, Map<String, byte[]>> histories) throws IOException {
+		for (Map.Entry<String, byte[]> save : saves.entrySet()) {
+			ByteArrayOutputStream record = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(record);
+			out.writeByte(SAVE);
+			writeBytes(out, save.getKey().getBytes(StandardCharsets.UTF_8));
+			writeBytes(out, save.getValue());
+			append(record.toByteArray());
+		}
+		for (Map.Entry<String, Map<String, byte[]>> history : histories.entrySet()) {
+			ByteArrayOutputStream record = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(record);
+			out.writeByte(HISTORY);
+			writeBytes(out, history.getKey().getBytes(StandardCharsets.UTF_8));
+			out.writeInt(history.getValue().size());
+			for (Map.Entry<String, byte[]> file : history.getValue().entrySet()) {
+				writeBytes(out, file.getKey().getBytes(StandardCharsets.UTF_8));
+				writeBytes(out, file.getValue());
+			}
+			append(record.toByteArray());
+		}
+		segment.force();
+		compactIfSparse();
+	}
+
+	@Override
+	public synchronized byte[] load(String fileName) {
+		int[] location = saves.get(fileName);
+		return (location == null) ? null : read(location[0], location[1]);
+	}
+
+	@Override
+	public synchronized long lastSaved(String fileName) {
+		int[] location = saves.get(fileName);
+		return (location == null) ? 0 : location[2];
+	}
+
+	@Override
+	public synchronized List<String> list() {
+		return new ArrayList<>(saves.keySet());
+	}
+
+	@Override
+	public synchronized Map<String, byte[]> loadHistory(String rewindPath) {
+		Map<String, byte[]> files = new LinkedHashMap<>();
+		for (Map.Entry<String, int[]> file : histories.getOrDefault(rewindPath, Map.of()).entrySet()) {
+			files.put(file.getKey(), read(file.getValue()[0], file.getValue()[1]));
+		}
+		return files;
+	}
+
+	@Override
+	public synchronized void delete(String fileName) throws IOException {
+		if (saves.containsKey(fileName)) {
+			appendDelete(DELETE_SAVE, fileName);
+		}
+	}
+
+	@Override
+	public synchronized void deleteHistory(String rewindPath) throws IOException {
+		if (histories.containsKey(rewindPath)) {
+			appendDelete(DELETE_HISTORY, rewindPath);
+		}
+	}
+
+	/**
+	 * @return the number of bytes of the segment holding records, including those replaced by later records and not
+	 * 			yet compacted away
+	 */
+	public synchronized int size() {
+		return end;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		segment.force();
+		channel.close();
+	}
+
+	/**
+	 * Indexes the records already in the segment, stopping at the end or at a record not completely written
+	 */
+	private void readRecords() {
+		while (end + 8 <= segment.capacity()) {
+			int length = segment.getInt(end);
+			if (length <= 0 || end + 8 + length > segment.capacity()) {
+				return;
+			}
+			byte[] record = read(end + 8, length);
+			CRC32 crc = new CRC32();
+			crc.update(record);
+			if ((int) crc.getValue() != segment.getInt(end + 4)) {
+				return;
+			}
+			index(end, ByteBuffer.wrap(record));
+			end += 8 + length;
+		}
+	}
+
+	/**
+	 * Keeps where the contents of a record lie
+	 * @param start position of the record in the segment
+	 * @param record the record, after its length and checksum
+	 */
+	private void index(int start, ByteBuffer record) {
+		int base = start + 8;
+		int size = 8 + record.remaining();
+		byte kind = record.get();
+		String key = readString(record);
+		if (kind == SAVE) {
+			int length = record.getInt();
+			int[] old = saves.remove(key);
+			noteReplaced((old == null) ? null : old[2]);
+			saves.put(key, new int[] {base + record.position(), length, start});
+		} else if (kind == HISTORY) {
+			Map<String, int[]> files = new LinkedHashMap<>();
+			int count = record.getInt();
+			for (int i = 0; i < count; i++) {
+				String fileName = readString(record);
+				int length = record.getInt();
+				files.put(fileName, new int[] {base + record.position(), length});
+				record.position(record.position() + length);
+			}
+			histories.put(key, files);
+			noteReplaced(historyRecords.put(key, start));
+		} else if (kind == DELETE_SAVE) {
+			int[] old = saves.remove(key);
+			noteReplaced((old == null) ? null : old[2]);
+			replaced += size;
+		} else if (kind == DELETE_HISTORY) {
+			histories.remove(key);
+			noteReplaced(historyRecords.remove(key));
+			replaced += size;
+		}
+	}
+
+	/**
+	 * Counts a record that is no longer read as taking up the segment
+	 * @param start position of the record in the segment, or null if there was none
+	 */
+	private void noteReplaced(Integer start) {
+		if (start != null) {
+			replaced += 8 + segment.getInt(start);
+		}
+	}
+
+	private void appendDelete(byte kind, String key) throws IOException {
+		ByteArrayOutputStream record = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(record);
+		out.writeByte(kind);
+		writeBytes(out, key.getBytes(StandardCharsets.UTF_8));
+		append(record.toByteArray());
+		segment.force();
+		compactIfSparse();
+	}
+
+	/**
+	 * Copies the records still read into a new segment once more than half of the segment is taken by records
+	 * replaced or deleted, and moves it over the old one. The records are copied as they are, in the order they were
+	 * written, so a crash before the move leaves the old segment as it was.
+	 */
+	private void compactIfSparse() throws IOException {
+		if (replaced <= (end - HEADER) / 2) {
+			return;
+		}
+		List<Integer> live = new ArrayList<>(historyRecords.values());
+		for (int[] save : saves.values()) {
+			live.add(save[2]);
+		}
+		Collections.sort(live);
+
+		Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+		try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER);
+			header.putInt(MAGIC);
+			header.putInt(VERSION);
+			header.flip();
+			writeFully(out, header);
+			for (int start : live) {
+				ByteBuffer record = segment.duplicate();
+				record.limit(start + 8 + segment.getInt(start));
+				record.position(start);
+				writeFully(out, record);
+			}
+			writeFully(out, ByteBuffer.allocate(4));
+			out.force(true);
+		}
+
+		segment.force();
+		channel.close();
+		try {
+			Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING);
+		}
+		open();
+	}
+
+	private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			out.write(buffer);
+		}
+	}
+
+	/**
+	 * Appends a record to the segment, growing it if needed, and indexes it
+	 */
+	private void append(byte[] record) throws IOException {
+		int needed = end + 8 + record.length + 4;
+		if (needed > segment.capacity()) {
+			long newSize = Math.max(2L * segment.capacity(), needed);
+			if (newSize > Integer.MAX_VALUE) {
+				throw new IOException("Game Segment Is Full");
+			}
+			segment.force();
+			segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, newSize);
+		}
+
+		CRC32 crc = new CRC32();
+		crc.update(record);
+		ByteBuffer at = segment.duplicate();
+		at.position(end + 8);
+		at.put(record);
+		at.putInt(0);
+		segment.putInt(end + 4, (int) crc.getValue());
+		// The length is written last, so the record is only found once the rest of it is there
+		segment.putInt(end, record.length);
+
+		index(end, ByteBuffer.wrap(record));
+		end += 8 + record.length;
+	}
+
+	private byte[] read(int position, int length) {
+		byte[] bytes = new byte[length];
+		ByteBuffer at = segment.duplicate();
+		at.position(position);
+		at.get(bytes);
+		return bytes;
+	}
+
+	private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(ByteBuffer record) {
+		byte[] bytes = new byte[record.getInt()];
+		record.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,292 @@
+package dungeonmania;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A PersistenceWriter writes games into a GameStore on a background thread, so that saving does not hold up the
+ * game while the disk is slow. Callers hand over what is to be written as bytes they no longer change (eg. a Dungeon
+ * already encoded), and get back a future completed once it is stored.
+ * Writes are queued by the saved game or history they replace. A write to a game already waiting in the queue
+ * replaces what was waiting, so a game saved several times before the disk catches up is only written once, and its
+ * callers share a future. The queue holds at most capacity games and histories, further writers wait for room.
+ * The background thread takes everything waiting at once and hands it to the store as one group, which the store
+ * can make durable all at once. The thread stops once the queue is empty, and is started again by the next write.
+ * Deleting a game is queued the same way, so it replaces a write of the game still waiting, and is never overtaken
+ * by one queued before it.
+ * The writer owns the GameCatalogue of its store, created when first asked for and closed along with the writer.
+ */
+public class PersistenceWriter {
+	public static final int DEFAULT_CAPACITY = 64;
+
+	private static PersistenceWriter defaultWriter;
+
+	private final GameStore store;
+	private final int capacity;
+	private final Map<String, Write> queue = new LinkedHashMap<>();
+	private final Map<String, Write> writing = new LinkedHashMap<>();
+	private Thread worker;
+	private boolean closed = false;
+	private GameCatalogue catalogue;
+
+	/**
+	 * A saved game, or the files of a history, or neither if the saved game or history is deleted
+	 */
+	private static class Write {
+		private final String name;
+		private final boolean isHistory;
+		private final byte[] save;
+		private final Map<String, byte[]> history;
+		private final CompletableFuture<Void> future;
+
+		private Write(String name, boolean isHistory, byte[] save, Map<String, byte[]> history, CompletableFuture<Void> future) {
+			this.name = name;
+			this.isHistory = isHistory;
+			this.save = save;
+			this.history = history;
+			this.future = future;
+		}
+
+		private boolean isDelete() {
+			return save == null && history == null;
+		}
+	}
+
+	/**
+	 * @param store	Store to write into
+	 * @param capacity	Number of games and histories that can be waiting to be written
+	 * @throws IllegalArgumentException	If capacity is not positive
+	 */
+	public PersistenceWriter(GameStore store, int capacity) throws IllegalArgumentException {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Invalid Capacity Passed; At Least One Write Must Be Queued.");
+		}
+		this.store = store;
+		this.capacity = capacity;
+	}
+
+	/**
+	 * @return	the writer into /persistence shared by every controller, which finishes its writes when the program
+	 * 			exits
+	 */
+	public static synchronized PersistenceWriter getDefault() {
+		if (defaultWriter == null) {
+			PersistenceWriter writer = new PersistenceWriter(new FileGameStore(FileGameStore.DEFAULT_ROOT), DEFAULT_CAPACITY);
+			Runtime.getRuntime().addShutdownHook(new Thread(writer::close));
+			defaultWriter = writer;
+		}
+		return defaultWriter;
+	}
+
+	public GameStore getStore() {
+		return store;
+	}
+
+	/**
+	 * @return	the catalogue of the games in the store, shared by every controller saving through this writer
+	 */
+	public synchronized GameCatalogue getCatalogue() {
+		if (catalogue == null) {
+			catalogue = new GameCatalogue(store);
+		}
+		return catalogue;
+	}
+
+	/**
+	 * Write a saved game, replacing it
+	 * @param fileName	File name of the saved game
+	 * @param data	Contents of the saved game, which must not be changed afterwards
+	 * @return	a future completed once the game is stored
+	 */
+	public CompletableFuture<Void> save(String fileName, byte[] data) {
+		return enqueue(saveKey(fileName), new Write(fileName, false, data, null, new CompletableFuture<>()));
+	}
+
+	/**
+	 * Write the history of a game, replacing it
+	 * @param rewindPath	Rewind path of the game
+	 * @param files	Files of the history by name, which must not be changed afterwards
+	 * @return	a future completed once the history is stored
+	 */
+	public CompletableFuture<Void> saveHistory(String rewindPath, Map<String, byte[]> files) {
+		return enqueue(historyKey(rewindPath), new Write(rewindPath, true, null, new LinkedHashMap<>(files), new CompletableFuture<>()));
+	}
+
+	/**
+	 * Delete a saved game, once the writes of it queued before are stored
+	 * @param fileName	File name of the saved game
+	 * @return	a future completed once the game is deleted
+	 */
+	public CompletableFuture<Void> delete(String fileName) {
+		return enqueue(saveKey(fileName), new Write(fileName, false, null, null, new CompletableFuture<>()));
+	}
+
+	/**
+	 * Delete the history of a game, once the writes of it queued before are stored
+	 * @param rewindPath	Rewind path of the game
+	 * @return	a future completed once the history is deleted
+	 */
+	public CompletableFuture<Void> deleteHistory(String rewindPath) {
+		return enqueue(historyKey(rewindPath), new Write(rewindPath, true, null, null, new CompletableFuture<>()));
+	}
+
+	/**
+	 * @param fileName	File name of a saved game
+	 * @return	a future completed once the writes of the game queued so far are stored
+	 */
+	public CompletableFuture<Void> pendingSave(String fileName) {
+		return pending(saveKey(fileName));
+	}
+
+	/**
+	 * @param rewindPath	Rewind path of a game
+	 * @return	a future completed once the writes of its history queued so far are stored
+	 */
+	public CompletableFuture<Void> pendingHistory(String rewindPath) {
+		return pending(historyKey(rewindPath));
+	}
+
+	/**
+	 * @return	a future completed once every write queued so far is stored, whether or not it succeeded
+	 */
+	public synchronized CompletableFuture<Void> flush() {
+		List<CompletableFuture<Void>> futures = new ArrayList<>();
+		for (Write write : writing.values()) {
+			futures.add(write.future);
+		}
+		for (Write write : queue.values()) {
+			futures.add(write.future);
+		}
+		return CompletableFuture.allOf(futures.toArray(CompletableFuture<?>[]::new))
+			.handle((result, e) -> null);
+	}
+
+	/**
+	 * Finish every write queued, stop accepting more, and close the catalogue of the store
+	 */
+	public void close() {
+		Thread toJoin;
+		GameCatalogue toClose;
+		synchronized (this) {
+			closed = true;
+			notifyAll();
+			toJoin = worker;
+			toClose = catalogue;
+		}
+		if (toJoin != null) {
+			try {
+				toJoin.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		if (toClose != null) {
+			try {
+				toClose.close();
+			} catch (IOException e) {
+				System.err.println("Cannot Stop Watching Saved Games: " + e.getMessage());
+			}
+		}
+	}
+
+	private static String saveKey(String fileName) {
+		return "save:" + fileName;
+	}
+
+	private static String historyKey(String rewindPath) {
+		return "history:" + rewindPath;
+	}
+
+	private synchronized CompletableFuture<Void> pending(String key) {
+		if (queue.containsKey(key)) {
+			return queue.get(key).future;
+		} else if (writing.containsKey(key)) {
+			return writing.get(key).future;
+		} return CompletableFuture.completedFuture(null);
+	}
+
+	private synchronized CompletableFuture<Void> enqueue(String key, Write write) {
+		if (closed) {
+			throw new IllegalStateException("Persistence Writer Is Closed");
+		}
+
+		Write waiting = queue.get(key);
+		if (waiting != null) {
+			// Take the place of the write still waiting, keeping its future for its callers
+			queue.put(key, new Write(write.name, write.isHistory, write.save, write.history, waiting.future));
+			return waiting.future;
+		}
+
+		while (queue.size() >= capacity) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted Waiting To Save", e);
+			}
+		}
+		queue.put(key, write);
+		if (worker == null) {
+			worker = new Thread(this::run, "persistence-writer");
+			worker.setDaemon(true);
+			worker.start();
+		}
+		return write.future;
+	}
+
+	private void run() {
+		while (true) {
+			List<Write> group;
+			synchronized (this) {
+				writing.clear();
+				if (queue.isEmpty()) {
+					worker = null;
+					notifyAll();
+					return;
+				}
+				writing.putAll(queue);
+				group = new ArrayList<>(queue.values());
+				queue.clear();
+				notifyAll();
+			}
+
+			Map<String, byte[]> saves = new LinkedHashMap<>();
+			Map<String, Map<String, byte[]>> histories = new LinkedHashMap<>();
+			List<Write> deletes = new ArrayList<>();
+			for (Write write : group) {
+				if (write.isDelete()) {
+					deletes.add(write);
+				} else if (write.isHistory) {
+					histories.put(write.name, write.history);
+				} else {
+					saves.put(write.name, write.save);
+				}
+			}
+
+			try {
+				if (!saves.isEmpty() || !histories.isEmpty()) {
+					store.writeAll(saves, histories);
+				}
+				// A game is only queued once in a group, so deleting it after the writes keeps the order it was queued in
+				for (Write delete : deletes) {
+					if (delete.isHistory) {
+						store.deleteHistory(delete.name);
+					} else {
+						store.delete(delete.name);
+					}
+				}
+				for (Write write : group) {
+					write.future.complete(null);
+				}
+			} catch (IOException | RuntimeException e) {
+				for (Write write : group) {
+					write.future.completeExceptionally(e);
+				}
+			}
+		}
+	}
+}
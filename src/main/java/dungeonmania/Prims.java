@@ -5,7 +5,7 @@ import dungeonmania.allEntities.*;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 public class Prims {
 
@@ -18,6 +18,21 @@ public class Prims {
 	 * @return the appropriate Dungeon.
 	 */
 	public static Dungeon generateDungeon(Position startPos, Position endPos, String gameMode, int lastUsedDungeonId) {
+		return generateDungeon(startPos, endPos, gameMode, lastUsedDungeonId, new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * Generates a random Dungeon based off a randomised version of Prim's algortihm, the same Dungeon for the same
+	 * seed.
+	 * @param startPos the start position of the game (the spawn position of the player).
+	 * @param endPos the end position of the game (the position of the final exit).
+	 * @param gameMode the desired gameMode the dungeon is to be played at.
+	 * @param lastUsedDungeonId the last used dungeon Id of the controller.
+	 * @param seed the seed the maze is generated from, and the random stream of the game is then seeded from.
+	 * @return the appropriate Dungeon.
+	 */
+	public static Dungeon generateDungeon(Position startPos, Position endPos, String gameMode, int lastUsedDungeonId, long seed) {
+		SplittableRandom random = new SplittableRandom(seed);
 
 		int xStart = startPos.getX();
 		int yStart = startPos.getY();
@@ -42,8 +57,7 @@ public class Prims {
 		}
 
 		while (!options.isEmpty()) {
-			Random rand = new Random();
-			int randomIndex = rand.nextInt(options.size());
+			int randomIndex = random.nextInt(options.size());
 			Position next = options.get(randomIndex);
 			options.remove(randomIndex);
 
@@ -59,8 +73,6 @@ public class Prims {
 				} 
 			} potentialNeighbours.clear();
 
-			Random random = new Random();
-
 			if (!neighbours.isEmpty()) {
 				int randomInd = random.nextInt(neighbours.size());
 
@@ -94,7 +106,9 @@ public class Prims {
 			} break;
 		}
 
-		return createDungeon(startPos, endPos, maze, gameMode, lastUsedDungeonId);
+		Dungeon dungeon = createDungeon(startPos, endPos, maze, gameMode, lastUsedDungeonId);
+		dungeon.setRandomSeed(random.nextLong());
+		return dungeon;
 	}
 
 	/**
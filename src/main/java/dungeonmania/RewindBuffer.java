@@ -0,0 +1,470 @@
+package dungeonmania;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.FieldAttributes;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * A RewindBuffer keeps the history of a dungeon over its last ticks in memory, so the game can be rewound without
+ * touching the disk. Rather than a full snapshot per tick, it keeps a keyframe (the whole dungeon as json) every
+ * KEYFRAME_INTERVAL ticks, and for every other tick a delta from the tick before: the entities added, removed or
+ * changed (eg. moved, or the player's stats), the new order of the entities if it changed, and the other fields of
+ * the dungeon that changed, such as the inventory. The snapshot of a tick is rebuilt by replaying the deltas from
+ * the keyframe before it, so what is kept per tick grows with the size of the change rather than the size of the map.
+ * Recording a tick only serialises the entities the dungeon reports as placed, moved, renamed or retyped (see
+ * EntityChanges), and those of classes that keep other state that can change, such as the player or an enemy's
+ * health. Keyframes are put together from the json already kept, so entities that never change (eg. walls) are only
+ * serialised when the dungeon is first recorded.
+ * At least the last capacity ticks are kept, older ones are dropped a keyframe at a time. The history is only written
+ * to disk when the game is saved, so that rewinding still works once the game is loaded again.
+ */
+public class RewindBuffer {
+	/**
+	 * Time turners and time travelling portals rewind by 30 ticks
+	 */
+	public static final int MIN_CAPACITY = 30;
+	public static final int KEYFRAME_INTERVAL = 10;
+	private static final Pattern TICK_FILE = Pattern.compile("tick-(\\d+)(\\.delta)?\\.json");
+
+	private final int capacity;
+	private final List<Frame> frames = new ArrayList<>();
+	private final Gson gson = new Gson();
+	/**
+	 * Serialises the fields of a dungeon other than its entities
+	 */
+	private static final Gson FIELDS_GSON = new GsonBuilder().setExclusionStrategies(new ExclusionStrategy() {
+		@Override
+		public boolean shouldSkipField(FieldAttributes field) {
+			return field.getDeclaringClass() == Dungeon.class && field.getName().equals("entities");
+		}
+
+		@Override
+		public boolean shouldSkipClass(Class<?> type) {
+			return false;
+		}
+	}).create();
+	/**
+	 * Whether everything serialised of an entity of a class, other than its id, type and position, is final. Entities
+	 * of these classes only change in ways the dungeon reports, others are serialised every tick.
+	 */
+	private static final ClassValue<Boolean> UNCHANGING = new ClassValue<>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			for (Class<?> c = type; c != null && c != Entity.class; c = c.getSuperclass()) {
+				for (Field field : c.getDeclaredFields()) {
+					int modifiers = field.getModifiers();
+					if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) {
+						continue;
+					}
+					if (!Modifier.isFinal(modifiers) || !(field.getType().isPrimitive() || field.getType() == String.class)) {
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+	};
+
+	/*
+	 * State of the last tick recorded, which the next delta is taken from. Entities are told apart by identity, as
+	 * ids are not unique, and are given a key that stays the same from one tick to the next.
+	 */
+	private Dungeon lastDungeon;
+	private int lastTick;
+	private final Map<Entity, Integer> keys = new IdentityHashMap<>();
+	private int nextKey;
+	/** The json of each entity by key, in the order of the dungeon's entities */
+	private final Map<Integer, JsonElement> lastEntities = new LinkedHashMap<>();
+	/** The entities that are serialised every tick, by key */
+	private final Map<Integer, Entity> changing = new HashMap<>();
+	private JsonObject lastFields = new JsonObject();
+
+	/**
+	 * A keyframe or a delta, as json
+	 */
+	private static class Frame {
+		private final int tick;
+		private final boolean keyframe;
+		private final String data;
+
+		private Frame(int tick, boolean keyframe, String data) {
+			this.tick = tick;
+			this.keyframe = keyframe;
+			this.data = data;
+		}
+	}
+
+	/**
+	 * @param capacity	Number of ticks to keep
+	 * @throws IllegalArgumentException	If fewer than MIN_CAPACITY ticks would be kept
+	 */
+	public RewindBuffer(int capacity) throws IllegalArgumentException {
+		checkCapacity(capacity);
+		this.capacity = capacity;
+	}
+
+	/**
+	 * @param capacity	Number of ticks to keep
+	 * @throws IllegalArgumentException	If fewer than MIN_CAPACITY ticks would be kept
+	 */
+	public static void checkCapacity(int capacity) throws IllegalArgumentException {
+		if (capacity < MIN_CAPACITY) {
+			throw new IllegalArgumentException("Invalid Rewind Capacity Passed; At Least " + MIN_CAPACITY + " Ticks Must Be Kept.");
+		}
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Keep the state of the dungeon at a tick. Recording a tick that is not after the last one recorded (ie. after
+	 * rewinding) forgets the ticks from then on.
+	 * @param tick	Tick number the dungeon is at
+	 * @param dungeon	Dungeon to record
+	 */
+	public void record(int tick, Dungeon dungeon) {
+		forgetFrom(tick);
+		EntityChanges changes = dungeon.takeEntityChanges(this);
+		if (frames.isEmpty() || dungeon != lastDungeon || tick != lastTick + 1 || changes == null) {
+			recordWhole(tick, dungeon);
+			return;
+		}
+
+		JsonObject fields = FIELDS_GSON.toJsonTree(dungeon).getAsJsonObject();
+		JsonArray removed = new JsonArray();
+		JsonObject changed = new JsonObject();
+		if (!update(dungeon, changes, removed, changed)) {
+			recordWhole(tick, dungeon);
+			return;
+		}
+
+		if (tick - lastKeyframe().tick >= KEYFRAME_INTERVAL) {
+			JsonArray entityJson = new JsonArray();
+			lastEntities.values().forEach(entityJson::add);
+			JsonObject keyframe = fields.deepCopy();
+			keyframe.add("entities", entityJson);
+			frames.add(new Frame(tick, true, gson.toJson(keyframe)));
+			renumber();
+		} else {
+			frames.add(new Frame(tick, false, gson.toJson(delta(fields, removed, changed))));
+		}
+
+		lastTick = tick;
+		lastFields = fields;
+		dropOldFrames();
+	}
+
+	/**
+	 * Record the whole dungeon as a keyframe, keying every entity afresh
+	 */
+	private void recordWhole(int tick, Dungeon dungeon) {
+		JsonObject fields = gson.toJsonTree(dungeon).getAsJsonObject();
+		frames.add(new Frame(tick, true, gson.toJson(fields)));
+		JsonArray entityJson = fields.remove("entities").getAsJsonArray();
+		List<Entity> entities = dungeon.getEntities();
+
+		keys.clear();
+		lastEntities.clear();
+		changing.clear();
+		nextKey = 0;
+		boolean duplicates = false;
+		for (int i = 0; i < entities.size(); i++) {
+			Entity entity = entities.get(i);
+			int key = nextKey++;
+			duplicates |= keys.put(entity, key) != null;
+			lastEntities.put(key, entityJson.get(i));
+			if (!UNCHANGING.get(entity.getClass())) {
+				changing.put(key, entity);
+			}
+		}
+
+		// An entity in the list twice cannot be followed by its changes, so the next tick is recorded whole too
+		lastDungeon = duplicates ? null : dungeon;
+		lastTick = tick;
+		lastFields = fields;
+		dropOldFrames();
+	}
+
+	/**
+	 * Bring the json kept of the entities up to date with the changes since the last tick recorded
+	 * @param removed	Keys of the entities removed are added to it
+	 * @param changed	Json of the entities placed or changed, by key, is added to it, those placed in the order
+	 * 					they were placed in
+	 * @return	false if the changes do not describe the entities of the dungeon, so it must be recorded whole
+	 */
+	private boolean update(Dungeon dungeon, EntityChanges changes, JsonArray removed, JsonObject changed) {
+		for (Entity entity : changes.getRemoved()) {
+			if (entity.getDungeon() == dungeon && !changes.wasPlaced(entity)) {
+				return false;
+			}
+			Integer key = keys.remove(entity);
+			if (key != null) {
+				lastEntities.remove(key);
+				changing.remove(key);
+				removed.add(key);
+			}
+		}
+
+		for (Entity entity : changes.getPlaced()) {
+			if (entity.getDungeon() != dungeon) {
+				continue;
+			}
+			if (keys.containsKey(entity)) {
+				return false;
+			}
+			int key = nextKey++;
+			keys.put(entity, key);
+			JsonElement json = gson.toJsonTree(entity);
+			lastEntities.put(key, json);
+			changed.add(String.valueOf(key), json);
+			if (!UNCHANGING.get(entity.getClass())) {
+				changing.put(key, entity);
+			}
+		}
+
+		for (Entity entity : changes.getChanged()) {
+			Integer key = keys.get(entity);
+			if (key != null && entity.getDungeon() == dungeon && !changing.containsKey(key)) {
+				compare(key, entity, changed);
+			}
+		}
+		for (Map.Entry<Integer, Entity> entity : changing.entrySet()) {
+			compare(entity.getKey(), entity.getValue(), changed);
+		}
+		return true;
+	}
+
+	/**
+	 * Serialise an entity, and add it to the delta if it is not the same as at the last tick recorded
+	 */
+	private void compare(int key, Entity entity, JsonObject changed) {
+		if (changed.has(String.valueOf(key))) {
+			return;
+		}
+		JsonElement json = gson.toJsonTree(entity);
+		if (!json.equals(lastEntities.get(key))) {
+			lastEntities.put(key, json);
+			changed.add(String.valueOf(key), json);
+		}
+	}
+
+	/**
+	 * Key the entities by their place in the keyframe just recorded, as get does when replaying from it
+	 */
+	private void renumber() {
+		Map<Integer, Integer> renumbered = new HashMap<>();
+		for (Integer key : lastEntities.keySet()) {
+			renumbered.put(key, renumbered.size());
+		}
+		keys.replaceAll((entity, key) -> renumbered.get(key));
+
+		Map<Integer, JsonElement> entities = new LinkedHashMap<>();
+		for (Map.Entry<Integer, JsonElement> entity : lastEntities.entrySet()) {
+			entities.put(renumbered.get(entity.getKey()), entity.getValue());
+		}
+		lastEntities.clear();
+		lastEntities.putAll(entities);
+
+		Map<Integer, Entity> stillChanging = new HashMap<>();
+		changing.forEach((key, entity) -> stillChanging.put(renumbered.get(key), entity));
+		changing.clear();
+		changing.putAll(stillChanging);
+		nextKey = renumbered.size();
+	}
+
+	/**
+	 * @param tick	Tick number
+	 * @return	the dungeon as json at the tick, or null if it is no longer kept
+	 */
+	public String get(int tick) {
+		int start = -1;
+		for (int i = 0; i < frames.size() && frames.get(i).tick <= tick; i++) {
+			if (frames.get(i).keyframe) {
+				start = i;
+			}
+		}
+		if (start == -1) {
+			return null;
+		}
+
+		/* Rebuild the tick from the keyframe, as the fields of the dungeon and its entities by key */
+		JsonObject fields = JsonParser.parseString(frames.get(start).data).getAsJsonObject();
+		JsonArray entityJson = fields.remove("entities").getAsJsonArray();
+		List<Integer> order = new ArrayList<>();
+		Map<Integer, JsonElement> entities = new HashMap<>();
+		for (int i = 0; i < entityJson.size(); i++) {
+			order.add(i);
+			entities.put(i, entityJson.get(i));
+		}
+
+		int reached = frames.get(start).tick;
+		for (int i = start + 1; i < frames.size() && frames.get(i).tick <= tick; i++) {
+			apply(JsonParser.parseString(frames.get(i).data).getAsJsonObject(), fields, order, entities);
+			reached = frames.get(i).tick;
+		}
+		if (reached != tick) {
+			return null;
+		}
+
+		JsonArray rebuilt = new JsonArray();
+		for (int key : order) {
+			rebuilt.add(entities.get(key));
+		}
+		fields.add("entities", rebuilt);
+		return gson.toJson(fields);
+	}
+
+	/**
+	 * @return	the history as the files to store for restore to read, keyframes as tick-N.json and
+	 * 			deltas as tick-N.delta.json. The files are not changed by later ticks.
+	 */
+	public Map<String, byte[]> files() {
+		Map<String, byte[]> files = new LinkedHashMap<>();
+		for (Frame frame : frames) {
+			files.put(fileName(frame.tick, frame.keyframe), frame.data.getBytes(StandardCharsets.UTF_8));
+		}
+		return files;
+	}
+
+	/**
+	 * Read back the history stored from files. Files that are not part of a history are ignored.
+	 * @param files	Files of the history by name, nothing is read if there are none
+	 */
+	public void restore(Map<String, byte[]> files) {
+		if (files.isEmpty()) {
+			return;
+		}
+
+		List<Frame> found = new ArrayList<>();
+		for (Map.Entry<String, byte[]> file : files.entrySet()) {
+			Matcher matcher = TICK_FILE.matcher(file.getKey());
+			if (matcher.matches()) {
+				found.add(new Frame(Integer.parseInt(matcher.group(1)), matcher.group(2) == null, new String(file.getValue(), StandardCharsets.UTF_8)));
+			}
+		}
+
+		found.sort((a, b) -> Integer.compare(a.tick, b.tick));
+		frames.clear();
+		frames.addAll(found);
+		lastDungeon = null;
+		dropOldFrames();
+	}
+
+	private static String fileName(int tick, boolean keyframe) {
+		return "tick-" + tick + (keyframe ? "" : ".delta") + ".json";
+	}
+
+	private Frame lastKeyframe() {
+		for (int i = frames.size() - 1; i >= 0; i--) {
+			if (frames.get(i).keyframe) {
+				return frames.get(i);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Forget the given tick and the ticks after it
+	 */
+	private void forgetFrom(int tick) {
+		frames.removeIf(frame -> frame.tick >= tick);
+	}
+
+	/**
+	 * Drop the oldest keyframe and its deltas for as long as the next keyframe still reaches back far enough
+	 */
+	private void dropOldFrames() {
+		if (frames.isEmpty()) {
+			return;
+		}
+		int oldestNeeded = frames.get(frames.size() - 1).tick - capacity + 1;
+		while (true) {
+			int next = -1;
+			for (int i = 1; i < frames.size(); i++) {
+				if (frames.get(i).keyframe) {
+					next = i;
+					break;
+				}
+			}
+			if (next == -1 || frames.get(next).tick > oldestNeeded) {
+				return;
+			}
+			frames.subList(0, next).clear();
+		}
+	}
+
+	/**
+	 * @return	the changes from the last tick recorded to the given one
+	 */
+	private JsonObject delta(JsonObject fields, JsonArray removed, JsonObject changed) {
+		JsonObject delta = new JsonObject();
+
+		JsonObject changedFields = new JsonObject();
+		JsonArray unsetFields = new JsonArray();
+		for (Map.Entry<String, JsonElement> field : fields.entrySet()) {
+			if (!field.getValue().equals(lastFields.get(field.getKey()))) {
+				changedFields.add(field.getKey(), field.getValue());
+			}
+		}
+		for (String name : lastFields.keySet()) {
+			if (!fields.has(name)) {
+				unsetFields.add(name);
+			}
+		}
+
+		delta.add("fields", changedFields);
+		delta.add("unset", unsetFields);
+		delta.add("removed", removed);
+		delta.add("changed", changed);
+		return delta;
+	}
+
+	/**
+	 * Replay a delta onto the state of the tick before it
+	 */
+	private static void apply(JsonObject delta, JsonObject fields, List<Integer> order, Map<Integer, JsonElement> entities) {
+		for (Map.Entry<String, JsonElement> field : delta.getAsJsonObject("fields").entrySet()) {
+			fields.add(field.getKey(), field.getValue());
+		}
+		for (JsonElement name : delta.getAsJsonArray("unset")) {
+			fields.remove(name.getAsString());
+		}
+
+		for (JsonElement key : delta.getAsJsonArray("removed")) {
+			order.remove(Integer.valueOf(key.getAsInt()));
+			entities.remove(key.getAsInt());
+		}
+		for (Map.Entry<String, JsonElement> entity : delta.getAsJsonObject("changed").entrySet()) {
+			int key = Integer.parseInt(entity.getKey());
+			if (!entities.containsKey(key)) {
+				order.add(key);
+			}
+			entities.put(key, entity.getValue());
+		}
+
+		if (delta.has("order")) {
+			order.clear();
+			for (JsonElement key : delta.getAsJsonArray("order")) {
+				order.add(key.getAsInt());
+			}
+		}
+	}
+}
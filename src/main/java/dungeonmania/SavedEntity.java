@@ -0,0 +1,96 @@
+package dungeonmania;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import dungeonmania.allEntities.*;
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+
+/**
+ * A SavedEntity holds the fields of an entity or item read from a dungeon or a saved game, until it is created with
+ * the factory of the game mode. Only the fields needed to create each type are kept, the rest are left at their
+ * defaults.
+ */
+public class SavedEntity {
+	String type;
+	String id;
+	Position position;
+	String colour;
+	int key;
+	int moveFactor;
+	int durability;
+	boolean isAlly;
+	int traceUntil;
+	int health;
+	int attack;
+	boolean visible = true;
+	boolean haveKey;
+	int invincibleTickDuration;
+	Direction currentDir = Direction.UP;
+	boolean hasSunStone;
+	List<Direction> traceList = new ArrayList<>();
+
+	/**
+	 * Creates the entity
+	 * @param factory the factory of the game mode
+	 * @param expType the type of extraction, e.g. "new", "load", "rewind".
+	 * @param playMode the mode the dungeon is played in
+	 * @param tickNumber the tick the dungeon was saved at
+	 * @param ticks the number of ticks the user is rewinding by
+	 * @return the entity, or null if it is not kept (ie. time turners when rewinding)
+	 */
+	public Entity create(EntityFactory factory, String expType, String playMode, int tickNumber, int ticks) {
+		if (type.equals("portal")) {
+			return factory.createPortal(id, position, colour);
+		} else if (type.equals("door_unlocked")) {
+			Door door = factory.createDoor("door_unlocked", position, key);
+			door.setOpen(true);
+			return door;
+		} else if (type.contains("door")) {
+			return factory.createDoor(id, position, key);
+		} else if (type.contains("key")) {
+			return factory.createKey(id, position, key);
+		} else if (type.equals("player")) {
+			if (expType.equals("load")) {
+				Player player = factory.createPlayer(id, position);
+				player.setHealth(health);
+				player.setAttack(attack);
+				player.setCurrentDir(currentDir);
+				player.setSunstoneStatus(hasSunStone);
+				player.setVisibility(visible);
+				player.setHaveKey(haveKey);
+				player.setInvincibleTickDuration(invincibleTickDuration);
+				player.setTraceList(traceList);
+				return player;
+			} else if (expType.equals("rewind")) {
+				OlderPlayer oP = (OlderPlayer) factory.createEntity(id, "older_player", position);
+				oP.setTraceUntil(tickNumber + ticks);
+				return oP;
+			} return factory.createPlayer(id, position);
+		} else if (type.equals("swamp_tile")) {
+			return factory.createSwampTile(id, position, moveFactor);
+		} else if (type.equals("mercenary") || type.equals("assassin")) {
+			Mercenary newMerc = (Mercenary) factory.createEntity(id, type, position);
+			newMerc.setEnemyAttack(!playMode.equals("peaceful"));
+			if (!expType.equals("new")) {
+				newMerc.setAlly(isAlly);
+			}
+			return newMerc;
+		} else if (type.equals("time_turner") && expType.equals("rewind")) {
+			return null;
+		} else if (type.equals("older_player")) {
+			OlderPlayer oP = (OlderPlayer) factory.createEntity(id, type, position);
+			oP.setTraceUntil(traceUntil);
+			return oP;
+		} return factory.createEntity(id, type, position);
+	}
+
+	/**
+	 * Creates the item, for items in the inventory
+	 * @return the item, or null if the type is not an item
+	 */
+	public CollectableEntity createItem() {
+		return GameInOut.createItem(type, id, position, key, durability);
+	}
+}
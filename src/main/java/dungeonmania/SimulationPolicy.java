@@ -0,0 +1,39 @@
+package dungeonmania;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import dungeonmania.util.Direction;
+
+/**
+ * A SimulationPolicy chooses what the player does each tick of a game run by the SimulationRunner.
+ * The same policy is used by every game at once, from any thread, so it should keep no state of its own. Each game
+ * is given its own random stream instead.
+ */
+public interface SimulationPolicy {
+
+	/**
+	 * @param dungeon	Game being simulated, as of the end of the last tick
+	 * @param random	Random stream of the game
+	 * @return	the action of the next tick, or null to end the game
+	 */
+	public Action next(Dungeon dungeon, SplittableRandom random);
+
+	/**
+	 * @return	a policy moving the player in a random direction (or not at all) each tick, and never using an item
+	 */
+	public static SimulationPolicy random() {
+		Direction[] directions = Direction.values();
+		return (dungeon, random) -> new Action(null, directions[random.nextInt(directions.length)]);
+	}
+
+	/**
+	 * @param actions	Actions to take, one per tick
+	 * @return	a policy taking the same actions in every game, which ends each game once they have all been taken
+	 */
+	public static SimulationPolicy scripted(List<Action> actions) {
+		List<Action> script = new ArrayList<>(actions);
+		return (dungeon, random) -> (dungeon.getTickNumber() < script.size()) ? script.get(dungeon.getTickNumber()) : null;
+	}
+}
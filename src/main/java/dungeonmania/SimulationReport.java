@@ -0,0 +1,100 @@
+package dungeonmania;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A SimulationReport sums up the games of one run of the SimulationRunner: how many ticks were simulated and how
+ * quickly, and how the games ended, in total and for each dungeon and game mode.
+ */
+public class SimulationReport {
+
+	/**
+	 * How a simulated game ended
+	 */
+	public enum Outcome {
+		/** Every goal of the dungeon was completed */
+		WON,
+		/** The player was killed */
+		DIED,
+		/** The policy ended the game, or it ran for the most ticks allowed */
+		UNFINISHED,
+		/** The game could not be started, or an action was not valid */
+		FAILED
+	}
+
+	private final int games;
+	private final long ticks;
+	private final long elapsedNanos;
+	private final Map<Outcome, Integer> outcomes = new EnumMap<>(Outcome.class);
+	private final Map<String, Map<Outcome, Integer>> scenarioOutcomes = new TreeMap<>();
+
+	/**
+	 * @param results	Outcome and number of ticks of each game
+	 * @param elapsedNanos	Time taken to simulate every game
+	 */
+	SimulationReport(Iterable<SimulationRunner.GameResult> results, long elapsedNanos) {
+		int gameCount = 0;
+		long tickCount = 0;
+		for (Outcome outcome : Outcome.values()) {
+			outcomes.put(outcome, 0);
+		}
+		for (SimulationRunner.GameResult result : results) {
+			gameCount++;
+			tickCount += result.getTicks();
+			outcomes.merge(result.getOutcome(), 1, Integer::sum);
+			scenarioOutcomes.computeIfAbsent(result.getScenario(), s -> new EnumMap<>(Outcome.class))
+				.merge(result.getOutcome(), 1, Integer::sum);
+		}
+		this.games = gameCount;
+		this.ticks = tickCount;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	public int getGames() {
+		return games;
+	}
+
+	/**
+	 * @return	the number of ticks simulated across every game
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	public double getTicksPerSecond() {
+		return (elapsedNanos == 0) ? 0 : ticks * 1e9 / elapsedNanos;
+	}
+
+	/**
+	 * @return	the number of games that ended in each way
+	 */
+	public Map<Outcome, Integer> getOutcomes() {
+		return Collections.unmodifiableMap(outcomes);
+	}
+
+	/**
+	 * @return	the number of games that ended in each way, for each scenario (eg. "maze/standard"). Ways no game of
+	 * 			the scenario ended in are left out.
+	 */
+	public Map<String, Map<Outcome, Integer>> getScenarioOutcomes() {
+		return Collections.unmodifiableMap(scenarioOutcomes);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder report = new StringBuilder();
+		report.append(String.format("%d games, %d ticks in %.3fs (%.0f ticks/s) %s%n", games, ticks, elapsedNanos / 1e9,
+			getTicksPerSecond(), outcomes));
+		for (Map.Entry<String, Map<Outcome, Integer>> scenario : scenarioOutcomes.entrySet()) {
+			report.append(String.format("  %s %s%n", scenario.getKey(), scenario.getValue()));
+		}
+		return report.toString();
+	}
+}
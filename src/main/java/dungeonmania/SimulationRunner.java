@@ -0,0 +1,165 @@
+package dungeonmania;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import dungeonmania.SimulationReport.Outcome;
+
+/**
+ * A SimulationRunner plays many independent games at once across a ForkJoinPool, with a SimulationPolicy choosing
+ * the player's actions, for balance experiments and soak tests.
+ * Each game is driven by its own headless controller: no response is built, nothing is written to disk and no ticks
+ * are kept for rewinding. Each game is given a random stream split off the seed of the run, in the order the games
+ * are listed, which also seeds the random stream of the game itself, so a run plays out the same for the same seed
+ * whichever thread plays each game.
+ */
+public class SimulationRunner {
+	public static final int DEFAULT_MAX_TICKS = 1000;
+
+	private final ForkJoinPool pool;
+
+	/**
+	 * A runner playing games on the common ForkJoinPool
+	 */
+	public SimulationRunner() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @param pool	Pool to play the games on
+	 */
+	public SimulationRunner(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * How a single game ended, and after how many ticks
+	 */
+	static class GameResult {
+		private final String scenario;
+		private final Outcome outcome;
+		private final int ticks;
+
+		GameResult(String scenario, Outcome outcome, int ticks) {
+			this.scenario = scenario;
+			this.outcome = outcome;
+			this.ticks = ticks;
+		}
+
+		public String getScenario() {
+			return scenario;
+		}
+
+		public Outcome getOutcome() {
+			return outcome;
+		}
+
+		public int getTicks() {
+			return ticks;
+		}
+	}
+
+	/**
+	 * @return	the names of every dungeon in /dungeons on the classpath
+	 */
+	public static List<String> allDungeons() {
+		return DungeonCatalogue.getDefault().dungeonNames();
+	}
+
+	/**
+	 * Play a number of games of each dungeon in each game mode
+	 * @param dungeonNames	Dungeons to play
+	 * @param gameModes	Game modes to play each dungeon in
+	 * @param gamesPerScenario	Number of games of each dungeon in each game mode
+	 * @param policy	Policy choosing the player's actions
+	 * @param maxTicks	Number of ticks after which a game is left unfinished
+	 * @param seed	Seed of the random streams of the games
+	 * @return	the report of the run
+	 */
+	public SimulationReport run(List<String> dungeonNames, List<String> gameModes, int gamesPerScenario,
+			SimulationPolicy policy, int maxTicks, long seed) {
+		List<String> scenarios = new ArrayList<>();
+		for (String dungeonName : dungeonNames) {
+			for (String gameMode : gameModes) {
+				for (int i = 0; i < gamesPerScenario; i++) {
+					scenarios.add(dungeonName + "/" + gameMode.toLowerCase());
+				}
+			}
+		}
+		SplittableRandom root = new SplittableRandom(seed);
+		List<SplittableRandom> randoms = new ArrayList<>(scenarios.size());
+		for (int i = 0; i < scenarios.size(); i++) {
+			randoms.add(root.split());
+		}
+
+		long start = System.nanoTime();
+		List<GameResult> results = pool.submit(() -> IntStream.range(0, scenarios.size())
+			.parallel()
+			.mapToObj(i -> play(scenarios.get(i), policy, maxTicks, randoms.get(i)))
+			.collect(Collectors.toList())
+		).join();
+		return new SimulationReport(results, System.nanoTime() - start);
+	}
+
+	/**
+	 * Play a single game until it is won, the player dies, the policy ends it or it reaches maxTicks
+	 * @param scenario	Dungeon and game mode of the game, eg. "maze/standard"
+	 */
+	private static GameResult play(String scenario, SimulationPolicy policy, int maxTicks, SplittableRandom random) {
+		String[] dungeonAndMode = scenario.split("/");
+		DungeonManiaController controller = DungeonManiaController.headless();
+		Dungeon dungeon;
+		try {
+			dungeon = controller.startGame(dungeonAndMode[0], dungeonAndMode[1], random.nextLong());
+		} catch (RuntimeException e) {
+			return new GameResult(scenario, Outcome.FAILED, 0);
+		}
+		// A dungeon with no goals is never won
+		boolean hasGoals = !dungeon.getGoals().equals("");
+
+		int ticks = 0;
+		try {
+			while (ticks < maxTicks) {
+				Action action = policy.next(dungeon, random);
+				if (action == null) {
+					break;
+				}
+				controller.advance(action.getItemUsed(), action.getMovementDirection());
+				ticks++;
+				dungeon = controller.getCurrentDungeon();
+				if (dungeon.getPlayer() == null) {
+					return new GameResult(scenario, Outcome.DIED, ticks);
+				}
+				if (hasGoals && dungeon.getGoals().equals("")) {
+					return new GameResult(scenario, Outcome.WON, ticks);
+				}
+			}
+		} catch (RuntimeException e) {
+			// A game the engine fails part way through is reported rather than ending the run. Errors, such as running
+			// out of stack or memory, still end it, as the JVM may not be fit to play the games after
+			return new GameResult(scenario, Outcome.FAILED, ticks);
+		}
+		return new GameResult(scenario, Outcome.UNFINISHED, ticks);
+	}
+
+	/**
+	 * Play every dungeon in every game mode with the random policy, and print the report
+	 * @param args	Games of each dungeon in each game mode, ticks after which a game is left unfinished, and seed
+	 */
+	public static void main(String[] args) {
+		int gamesPerScenario = (args.length > 0) ? Integer.parseInt(args[0]) : 100;
+		int maxTicks = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_MAX_TICKS;
+		long seed = (args.length > 2) ? Long.parseLong(args[2]) : System.nanoTime();
+
+		List<String> gameModes = Arrays.asList("standard", "peaceful", "hard");
+		SimulationReport report = new SimulationRunner().run(allDungeons(), gameModes, gamesPerScenario,
+			SimulationPolicy.random(), maxTicks, seed);
+		System.out.println("seed " + seed);
+		System.out.print(report);
+	}
+}
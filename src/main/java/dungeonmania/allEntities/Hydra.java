@@ -1,7 +1,5 @@
 package dungeonmania.allEntities;
 
-import java.util.Random;
-
 import dungeonmania.CollectableEntity;
 import dungeonmania.Dungeon;
 import dungeonmania.DurableEntity;
@@ -9,7 +7,6 @@ import dungeonmania.util.Position;
 
 public class Hydra extends ZombieToast {
 
-	private Random rng;
 	private boolean spawns;
 
 	public Hydra (String id, Position position, boolean enemyAttack, boolean spawns) {
@@ -18,7 +15,6 @@ public class Hydra extends ZombieToast {
 		super.setHealth(30);
 		super.setBaseAttack(5);
 		this.spawns = spawns;
-		rng  = new Random();
 	}
 
 	public boolean spawns() {
@@ -30,7 +26,7 @@ public class Hydra extends ZombieToast {
 		// Check if anduril
 		if (!haveAnduril(dungeon)) {
 			// Chance of gaining health
-			if (rng.nextInt(2) == 0) {
+			if (dungeon.getRandom().nextInt(2) == 0) {
 				// Gain health
 				gainHealth(dungeon);
 				return;
@@ -10,7 +10,6 @@ import dungeonmania.Entity;
 import dungeonmania.MovingEntity;
 import dungeonmania.util.Direction;
 import dungeonmania.util.Position;
-import dungeonmania.Dijkstra;
 
 
 
@@ -155,13 +154,10 @@ public class Mercenary extends MovingEntity {
 		Position posPortal2 = new Position(0, 0);
 		if (portal1 != null) {
 			// Find other portal
-			for (Entity currEnt : dungeon.getEntities()) {
-				if (currEnt instanceof Portal) {
-					Portal portal2 = (Portal) currEnt;
-					if (portal2.getColour().equals(portal1.getColour()) && !portal2.equals(portal1)) {
-						posPortal2 = portal2.getPosition();
-						break;
-					}
+			for (Portal portal2 : dungeon.getEntitiesOfClass(Portal.class)) {
+				if (portal2.getColour().equals(portal1.getColour()) && !portal2.equals(portal1)) {
+					posPortal2 = portal2.getPosition();
+					break;
 				}
 			}
 
@@ -186,7 +182,7 @@ public class Mercenary extends MovingEntity {
 		Position currPos = getPosition();
 		
 		Position nextPos = null;
-		nextPos = Dijkstra.move(currPos, dungeon);
+		nextPos = dungeon.nextPosTowardsPlayer(currPos);
 
 		if (currPos.translateBy(Direction.UP).equals(nextPos)) {
 			setCurrentDir(Direction.UP);
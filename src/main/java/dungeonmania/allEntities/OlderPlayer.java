@@ -55,13 +55,9 @@ public class OlderPlayer extends MovingEntity {
 		} else if (entity instanceof Portal) {
 			Portal portal1 = (Portal) entity;
 
-			for (Entity currEnt : dungeon.getEntities()) {
-				if (!(currEnt instanceof Portal)) {
-					continue;
-				}
+			for (Portal portal2 : dungeon.getEntitiesOfClass(Portal.class)) {
 				// Check if same entity
-				if (!currEnt.getId().equals(portal1.getId())) {
-					Portal portal2 = (Portal) currEnt;
+				if (!portal2.getId().equals(portal1.getId())) {
 					if (portal1.getColour().equals(portal2.getColour())) {
 						// Find position of p2
 						// Move in direciton of currDir
@@ -93,11 +89,9 @@ public class OlderPlayer extends MovingEntity {
         boolean timePortalExists = false;
         Position portalPos = null;
 
-        for (Entity ent : dungeon.getEntities()) {
-            if (ent instanceof TimeTravellingPortal) {
-                timePortalExists = true;
-				portalPos = ent.getPosition();
-            }
+        for (TimeTravellingPortal portal : dungeon.getEntitiesOfClass(TimeTravellingPortal.class)) {
+            timePortalExists = true;
+            portalPos = portal.getPosition();
         }
 
         if (dungeon.getTickNumber() - 1 < traceUntil) {
@@ -94,10 +94,18 @@ public class Player extends Entity {
 		this.haveKey = haveKey;
 	}
 
+	public boolean getHaveKey() {
+		return haveKey;
+	}
+
 	public boolean getSunstoneStatus() {
 		return hasSunStone;
 	}
 
+	public void setSunstoneStatus(boolean hasSunStone) {
+		this.hasSunStone = hasSunStone;
+	}
+
 	public int getInitialAttack() {
 		return initialAttack;
 	}
@@ -126,11 +134,8 @@ public class Player extends Entity {
 
 		// If there are mercs being controlled
 		if (!controlled.isEmpty()) {
-			for (Entity ent : dungeon.getEntities()) {
-				if (ent instanceof Mercenary) {
-					Mercenary merc = (Mercenary) ent;
-					merc.sceptreTick(dungeon);
-				}
+			for (Mercenary merc : dungeon.getEntitiesOfClass(Mercenary.class)) {
+				merc.sceptreTick(dungeon);
 			}
 		}
 
@@ -216,13 +221,9 @@ public class Player extends Entity {
 		} else if (entity instanceof Portal) {
 			Portal portal1 = (Portal) entity;
 
-			for (Entity currEnt : dungeon.getEntities()) {
-				if (!(currEnt instanceof Portal)) {
-					continue;
-				}
+			for (Portal portal2 : dungeon.getEntitiesOfClass(Portal.class)) {
 				// Check if same entity
-				if (!currEnt.getId().equals(portal1.getId())) {
-					Portal portal2 = (Portal) currEnt;
+				if (!portal2.getId().equals(portal1.getId())) {
 					if (portal1.getColour().equals(portal2.getColour())) {
 						Entity nextTo = dungeon.getEntity(portal2.getPosition().translateBy(currentDir));
 						return collide(nextTo, dungeon);
@@ -293,13 +294,10 @@ public class Player extends Entity {
 		Position posPortal2 = new Position(0, 0);
 		if (portal1 != null) {
 			// Find other portal
-			for (Entity currEnt : dungeon.getEntities()) {
-				if (currEnt instanceof Portal) {
-					Portal portal2 = (Portal) currEnt;
-					if (portal2.getColour().equals(portal1.getColour()) && !portal2.equals(portal1)) {
-						posPortal2 = portal2.getPosition();
-						break;
-					}
+			for (Portal portal2 : dungeon.getEntitiesOfClass(Portal.class)) {
+				if (portal2.getColour().equals(portal1.getColour()) && !portal2.equals(portal1)) {
+					posPortal2 = portal2.getPosition();
+					break;
 				}
 			} setPosition(posPortal2.translateBy(getCurrentDir()));
 		}
@@ -27,24 +27,32 @@ public class Spider extends MovingEntity {
 
     public Spider(String id, Position position, boolean enemyAttack) {
         super(id, position, "spider", enemyAttack);
-		range = new ArrayList<>();
 		super.setHealth(10);
 		super.setBaseAttack(5);
 		currTile = 0;
-		range.add(position);
-		range.add(position.translateBy(Direction.UP));
-		range.add(position.translateBy(Direction.UP).translateBy(Direction.RIGHT));
-		range.add(position.translateBy(Direction.RIGHT));
-		range.add(position.translateBy(Direction.RIGHT).translateBy(Direction.DOWN));
-		range.add(position.translateBy(Direction.DOWN));
-		range.add(position.translateBy(Direction.DOWN).translateBy(Direction.LEFT));
-		range.add(position.translateBy(Direction.LEFT));
-		range.add(position.translateBy(Direction.LEFT).translateBy(Direction.UP));
+		setCentre(position);
 
 		clockwise = true;
 
     }
 
+	/**
+	 * Sets the tile the spider circles around, eg. the tile it spawned on
+	 * @param centre	Position of the tile
+	 */
+	public void setCentre(Position centre) {
+		range = new ArrayList<>();
+		range.add(centre);
+		range.add(centre.translateBy(Direction.UP));
+		range.add(centre.translateBy(Direction.UP).translateBy(Direction.RIGHT));
+		range.add(centre.translateBy(Direction.RIGHT));
+		range.add(centre.translateBy(Direction.RIGHT).translateBy(Direction.DOWN));
+		range.add(centre.translateBy(Direction.DOWN));
+		range.add(centre.translateBy(Direction.DOWN).translateBy(Direction.LEFT));
+		range.add(centre.translateBy(Direction.LEFT));
+		range.add(centre.translateBy(Direction.LEFT).translateBy(Direction.UP));
+	}
+
 	public int getCurrTile() {
 		return currTile;
 	}
@@ -22,6 +22,7 @@ public class SwampTile extends Entity {
 
 	public void setMoveFactor(int moveFactor) {
 		this.moveFactor = moveFactor;
+		cellChanged();
 	}
 
 }
@@ -1,7 +1,5 @@
 package dungeonmania.allEntities;
 
-import java.util.Random;
-
 import dungeonmania.Dungeon;
 import dungeonmania.Entity;
 import dungeonmania.MovingEntity;
@@ -11,27 +9,12 @@ import dungeonmania.util.Position;
 
 public class ZombieToast extends MovingEntity {
 
-	private int randSeed;
-	private Random random;
-
     public ZombieToast(String id, Position position, boolean enemyAttack) {
         super(id, position, "zombie_toast", enemyAttack);
         super.setHealth(20);
         super.setBaseAttack(10);
-		Random rand = new Random();
-		setSeed(rand.nextInt());
-		this.randSeed = rand.nextInt(100);
-		this.random = new Random(randSeed);
     }
 
-	public void setSeed(int randSeed) {
-		this.randSeed = randSeed;
-	}
-
-	public int getSeed() {
-		return randSeed;
-	}
-
 	@Override
 	public void move(Dungeon dungeon) {
 		// if stuck in swamp
@@ -41,7 +24,7 @@ public class ZombieToast extends MovingEntity {
 		}
 		
 		// Generate random number
-		int num = random.nextInt(4);
+		int num = dungeon.getRandom().nextInt(4);
 
 		Direction dir = Direction.NONE;
 		switch (num) {
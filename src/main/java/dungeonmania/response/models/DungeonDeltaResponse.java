@@ -0,0 +1,96 @@
+package dungeonmania.response.models;
+
+import java.util.List;
+
+/**
+ * A DungeonResponse that only holds the entities created, changed or removed since a response the client already
+ * has. Unless it is full, the entities not given are as they were in that response.
+ */
+public final class DungeonDeltaResponse {
+    private final String dungeonId;
+    private final String dungeonName;
+    private final int sequence;
+    private final int acknowledged;
+    private final boolean full;
+    private final List<EntityResponse> entities;
+    private final List<String> removed;
+    private final List<ItemResponse> inventory;
+    private final List<String> buildables;
+    private final String goals;
+    private final List<AnimationQueue> animations;
+
+    public DungeonDeltaResponse(String dungeonId, String dungeonName, int sequence, int acknowledged, boolean full,
+            List<EntityResponse> entities, List<String> removed, List<ItemResponse> inventory,
+            List<String> buildables, String goals, List<AnimationQueue> animations) {
+        this.dungeonId = dungeonId;
+        this.dungeonName = dungeonName;
+        this.sequence = sequence;
+        this.acknowledged = acknowledged;
+        this.full = full;
+        this.entities = entities;
+        this.removed = removed;
+        this.inventory = inventory;
+        this.buildables = buildables;
+        this.goals = goals;
+        this.animations = animations;
+    }
+
+    public final String getDungeonId() {
+        return dungeonId;
+    }
+
+    public final String getDungeonName() {
+        return dungeonName;
+    }
+
+    /**
+     * @return the number of this response, to acknowledge with the next request
+     */
+    public final int getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return the number of the response this one is relative to, or -1 if it is full
+     */
+    public final int getAcknowledged() {
+        return acknowledged;
+    }
+
+    /**
+     * @return true if every entity is given, as in a DungeonResponse
+     */
+    public final boolean isFull() {
+        return full;
+    }
+
+    /**
+     * @return the entities created or changed, or every entity if the response is full
+     */
+    public final List<EntityResponse> getEntities() {
+        return entities;
+    }
+
+    /**
+     * @return the ids of the entities removed
+     */
+    public final List<String> getRemoved() {
+        return removed;
+    }
+
+    public final List<ItemResponse> getInventory() {
+        return inventory;
+    }
+
+    public final List<String> getBuildables() {
+        return buildables;
+    }
+
+    public final String getGoals() {
+        return goals;
+    }
+
+    public List<AnimationQueue> getAnimations() {
+        return animations;
+    }
+}
@@ -1,8 +1,13 @@
 package dungeonmania.util;
 
+import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -28,6 +33,23 @@ public final class FileLoader {
         }
     }
 
+    /**
+     * Opens a resource file for reading given a certain path that is relative to resources/
+     * for example `/dungeons/maze.json`.  Will add a `/` prefix to path if it's not specified.
+     * 
+     * @param path Relative to resources/ will add an implicit `/` prefix if not given.
+     * @return A reader of the textual content of the given file, to be closed by the caller.
+     * @throws IOException If the file doesn't exist / some other IO exception.
+     */
+    public static Reader openResourceFile(String path) throws IOException {
+        if (!path.startsWith("/"))
+            path = "/" + path;
+        InputStream in = FileLoader.class.getResourceAsStream(path);
+        if (in == null)
+            throw new FileNotFoundException(path);
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
     /**
      * Lists file names (without extension) within a specified resource directory.
      * 
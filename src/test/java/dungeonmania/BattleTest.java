@@ -3,11 +3,15 @@ package dungeonmania;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 
+import java.time.Duration;
 import java.util.Arrays;
 
 import org.junit.jupiter.api.Test;
 
+import dungeonmania.allEntities.Spider;
 import dungeonmania.response.models.DungeonResponse;
 import dungeonmania.response.models.ItemResponse;
 import dungeonmania.util.Direction;
@@ -96,6 +100,39 @@ public class BattleTest {
 		assertFalse(dungeonInfo.getInventory().contains(new ItemResponse("5", "armour")));
 	}
 
+	@Test
+	public void testBattleWithoutDamageEnds() {
+		DungeonManiaController controller = new DungeonManiaController();
+		assertDoesNotThrow(() -> controller.newGame("testBattleOnce", "Standard"));
+
+		// Neither can hurt the other: the player does (2 * 2) / 5 damage, and the spider (1 * 5) / 10
+		Dungeon dungeon = controller.getDungeon(0);
+		Spider spider = dungeon.getEntitiesOfClass(Spider.class).get(0);
+		dungeon.getPlayer().setHealth(2);
+		spider.setHealth(1);
+		assertTimeoutPreemptively(Duration.ofSeconds(1), () -> Battle.battle(spider, dungeon));
+		assertEquals(2, dungeon.getPlayer().getHealth());
+		assertEquals(1, spider.getHealth());
+	}
+
+	@Test
+	public void testPlayerKilledByFirstOfTwoEnemies() {
+		DungeonManiaController controller = new DungeonManiaController();
+		assertDoesNotThrow(() -> controller.newGame("testBattleOnce", "Standard"));
+
+		Dungeon dungeon = controller.getDungeon(0);
+		Spider first = dungeon.getEntitiesOfClass(Spider.class).get(0);
+		Spider second = new Spider("second", dungeon.getPlayerPosition(), true);
+		dungeon.addEntity(second);
+		dungeon.getPlayer().setHealth(1);
+
+		// The second enemy on the tile has no player left to fight
+		assertDoesNotThrow(() -> Battle.battle(first, dungeon));
+		assertNull(dungeon.getPlayer());
+		assertDoesNotThrow(() -> Battle.battle(second, dungeon));
+		assertEquals(10, second.getHealth());
+	}
+
 	// @Test
 	// public void testBattleDie() {
 	// 	DungeonManiaController controller = new DungeonManiaController();
@@ -5,13 +5,19 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import dungeonmania.allEntities.Mercenary;
 import dungeonmania.exceptions.InvalidActionException;
+import dungeonmania.response.models.DungeonDeltaResponse;
 import dungeonmania.response.models.DungeonResponse;
 import dungeonmania.response.models.EntityResponse;
+import dungeonmania.response.models.GenericResponseWrapper;
 import dungeonmania.response.models.ItemResponse;
 
 import org.junit.jupiter.api.Test;
@@ -378,6 +384,173 @@ public class ControllerTest {
 
     }
 
+    /**
+     * Saving a game in the binary save format loads the same game back as exporting it as json.
+     */
+    @Test
+    public void testBinarySaveMatchesJsonExport() {
+        DungeonManiaController controller = new DungeonManiaController();
+        assertDoesNotThrow(() -> controller.newGame("advanced", "Standard"));
+        Direction[] moves = {Direction.RIGHT, Direction.RIGHT, Direction.DOWN, Direction.DOWN, Direction.LEFT};
+        for (Direction move : moves) {
+            controller.tick(null, move);
+        }
+
+        assertDoesNotThrow(() -> controller.saveGame("testBinarySave-1636079593059"));
+        assertDoesNotThrow(() -> controller.exportGame("testBinaryExport-1636079593059"));
+        assertTrue(controller.allGames().contains("testBinarySave-1636079593059"));
+
+        DungeonManiaController binary = new DungeonManiaController();
+        DungeonManiaController json = new DungeonManiaController();
+        DungeonResponse binaryLoaded = binary.loadGame("testBinarySave-1636079593059");
+        DungeonResponse jsonLoaded = json.loadGame("testBinaryExport-1636079593059");
+        assertEquals(jsonLoaded.getEntities(), binaryLoaded.getEntities());
+        assertEquals(jsonLoaded.getInventory(), binaryLoaded.getInventory());
+        assertEquals(jsonLoaded.getGoals(), binaryLoaded.getGoals());
+        assertEquals(json.getCurrentDungeon().getTickNumber(), binary.getCurrentDungeon().getTickNumber());
+
+        // The binary format is a fraction of the size of the json
+        byte[] bytes = GameInOut.toBytes(controller.getCurrentDungeon());
+        assertTrue(bytes.length * 4 < GameInOut.toJSONString(controller.getCurrentDungeon()).length());
+        assertThrows(IOException.class, () -> GameInOut.fromBinary("load", Arrays.copyOf(bytes, bytes.length / 2), "advanced", 0, 0));
+    }
+
+    @Test
+    public void testStaticEntityResponsesAreReused() {
+        DungeonManiaController controller = new DungeonManiaController();
+        DungeonResponse before = assertDoesNotThrow(() -> controller.newGame("advanced", "Standard"));
+        DungeonResponse after = assertDoesNotThrow(() -> controller.tick(null, Direction.RIGHT));
+
+        // Walls keep their response, the player has moved so is sent a new one
+        EntityResponse wall = before.getEntities().stream().filter(e -> e.getType().equals("wall")).findFirst().get();
+        assertTrue(after.getEntities().stream().anyMatch(e -> e == wall));
+        EntityResponse player = before.getEntities().stream().filter(e -> e.getType().equals("player")).findFirst().get();
+        EntityResponse moved = after.getEntities().stream().filter(e -> e.getType().equals("player")).findFirst().get();
+        assertTrue(player != moved);
+        assertEquals(player.getPosition().translateBy(Direction.RIGHT), moved.getPosition());
+        assertTrue(moved.isInteractable());
+        assertTrue(!wall.isInteractable());
+    }
+
+    @Test
+    public void testTickBatchMatchesTicks() {
+        DungeonManiaController ticked = new DungeonManiaController();
+        DungeonManiaController batched = new DungeonManiaController();
+        assertDoesNotThrow(() -> ticked.newGame("maze", "Peaceful"));
+        assertDoesNotThrow(() -> batched.newGame("maze", "Peaceful"));
+
+        Direction[] moves = {Direction.DOWN, Direction.DOWN, Direction.RIGHT, Direction.RIGHT, Direction.UP, Direction.LEFT};
+        List<Action> actions = new ArrayList<>();
+        for (Direction move : moves) {
+            assertDoesNotThrow(() -> ticked.tick(null, move));
+            actions.add(new Action(null, move));
+        }
+        DungeonResponse batch = assertDoesNotThrow(() -> batched.tickBatch(actions));
+        assertEquals(ticked.getDungeonInfo(ticked.getCurrentDungeon().getId()).getEntities(), batch.getEntities());
+        assertEquals(moves.length, batched.getCurrentDungeon().getTickNumber());
+
+        // A tick that cannot be applied stops the batch, the ticks before it stay applied and the error says how many
+        List<Action> invalid = List.of(new Action(null, Direction.DOWN), new Action("noSuchItem", Direction.DOWN), new Action(null, Direction.DOWN));
+        InvalidActionException stopped = assertThrows(InvalidActionException.class, () -> batched.tickBatch(invalid));
+        assertEquals(moves.length + 1, batched.getCurrentDungeon().getTickNumber());
+        GenericResponseWrapper<DungeonResponse> error = GenericResponseWrapper.Err(stopped);
+        assertTrue(error.isError());
+        assertEquals("InvalidActionException", error.getErrorTitle());
+        assertEquals("Cannot Use Requested Item; Item Does Not Exist In Inventory (Batch Stopped After 1 Of 3 Ticks)", error.getErrorMessage());
+    }
+
+    @Test
+    public void testTickBatchChecksItemsAsTheyAreUsed() {
+        DungeonManiaController controller = new DungeonManiaController();
+        assertDoesNotThrow(() -> controller.newGame("testLoadInventory", "Peaceful"));
+        Dungeon dungeon = controller.getCurrentDungeon();
+        String potion = dungeon.getEntitiesOfType("health_potion").get(0).getId();
+        String treasure = dungeon.getEntitiesOfType("treasure").get(0).getId();
+
+        // The potion is picked up by the third tick, so the fourth can use it
+        List<Action> pickUpAndUse = List.of(new Action(null, Direction.RIGHT), new Action(null, Direction.RIGHT),
+            new Action(null, Direction.RIGHT), new Action(potion, Direction.NONE));
+        assertDoesNotThrow(() -> controller.tickBatch(pickUpAndUse));
+        assertEquals(4, dungeon.getTickNumber());
+        assertTrue(dungeon.getInventory().stream().noneMatch(e -> e.getId().equals(potion)));
+
+        // A potion used up by one tick cannot be used by the next, and the ticks before stay applied
+        assertThrows(InvalidActionException.class, () -> controller.tickBatch(List.of(new Action(null, Direction.NONE), new Action(potion, Direction.NONE))));
+        assertEquals(5, dungeon.getTickNumber());
+        IllegalArgumentException unusable = assertThrows(IllegalArgumentException.class, () -> controller.tickBatch(List.of(new Action(treasure, Direction.NONE))));
+        assertTrue(unusable.getMessage().endsWith("(Batch Stopped After 0 Of 1 Ticks)"));
+        assertEquals(5, dungeon.getTickNumber());
+    }
+
+    @Test
+    public void testSimulationRunner() {
+        SimulationRunner runner = new SimulationRunner();
+        List<String> gameModes = List.of("standard", "peaceful", "hard");
+        SimulationReport report = runner.run(List.of("maze", "advanced"), gameModes, 4, SimulationPolicy.random(), 200, 42);
+        assertEquals(24, report.getGames());
+        assertEquals(24, report.getOutcomes().values().stream().mapToInt(Integer::intValue).sum());
+        assertEquals(0, (int) report.getOutcomes().get(SimulationReport.Outcome.FAILED));
+        assertEquals(6, report.getScenarioOutcomes().size());
+        assertTrue(report.getTicks() > 0);
+
+        // A scripted game ends once its script does
+        List<Action> script = List.of(new Action(null, Direction.DOWN), new Action(null, Direction.RIGHT), new Action(null, Direction.UP));
+        report = runner.run(List.of("maze"), List.of("peaceful"), 3, SimulationPolicy.scripted(script), 200, 42);
+        assertEquals(3, (int) report.getOutcomes().get(SimulationReport.Outcome.UNFINISHED));
+        assertEquals(9, report.getTicks());
+
+        // A dungeon that does not exist cannot be started
+        report = runner.run(List.of("noSuchDungeon"), List.of("peaceful"), 1, SimulationPolicy.random(), 200, 42);
+        assertEquals(1, (int) report.getOutcomes().get(SimulationReport.Outcome.FAILED));
+    }
+
+    @Test
+    public void testTickDeltaMatchesFullResponse() {
+        DungeonManiaController controller = new DungeonManiaController();
+        assertDoesNotThrow(() -> controller.newGame("advanced", "Standard"));
+        int dungeonId = controller.getCurrentDungeon().getId();
+
+        DungeonDeltaResponse first = controller.getDungeonDelta(dungeonId, -1);
+        assertTrue(first.isFull());
+        Map<String, EntityResponse> client = new HashMap<>();
+        for (EntityResponse entity : first.getEntities()) {
+            client.put(entity.getId(), entity);
+        }
+
+        // Applying each delta to what the client has gives every entity, as a full response does
+        int acknowledged = first.getSequence();
+        Direction[] moves = {Direction.RIGHT, Direction.RIGHT, Direction.DOWN, Direction.DOWN, Direction.LEFT, Direction.UP};
+        for (Direction move : moves) {
+            // A response the client cannot have is answered in full
+            DungeonDeltaResponse delta = assertDoesNotThrow(() -> controller.tickDelta(null, move, Integer.MAX_VALUE));
+            assertTrue(delta.isFull());
+            delta = controller.getDungeonDelta(dungeonId, acknowledged);
+            assertTrue(!delta.isFull());
+            assertTrue(delta.getEntities().size() < first.getEntities().size() / 4);
+            for (String removed : delta.getRemoved()) {
+                client.remove(removed);
+            }
+            for (EntityResponse entity : delta.getEntities()) {
+                client.put(entity.getId(), entity);
+            }
+            acknowledged = delta.getSequence();
+
+            List<EntityResponse> full = controller.getDungeonInfo(dungeonId).getEntities();
+            assertEquals(full.size(), client.size());
+            for (EntityResponse entity : full) {
+                assertEquals(entity, client.get(entity.getId()));
+            }
+        }
+
+        // Nothing changes between responses without a tick
+        assertEquals(0, controller.getDungeonDelta(dungeonId, acknowledged).getEntities().size());
+        // A response too old to be relative to is answered in full
+        for (int i = 0; i < DeltaTracker.WINDOW; i++) {
+            controller.getDungeonDelta(dungeonId, -1);
+        }
+        assertTrue(controller.getDungeonDelta(dungeonId, acknowledged).isFull());
+    }
+
     @Test
     public void testLoad() {
         DungeonManiaController controller = new DungeonManiaController();
@@ -0,0 +1,204 @@
+package dungeonmania;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import dungeonmania.allEntities.*;
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+
+public class DijkstraTest {
+
+    /**
+     * Checks a step lies on a shortest path to the player, and is the one GridDijkstra breaks ties with: along the
+     * axis the player is further away on, then in the order right, down, left, up. Dijkstra.move must find a path
+     * just as short.
+     */
+    private void assertFirstShortestStep(Dungeon dungeon, GridDijkstra grid, int[] dist, Position source, Position step) {
+        int cell = grid.cellOf(source);
+        Position expected = Dijkstra.move(source, dungeon);
+        if (cell == -1 || dist[cell] == GridDijkstra.UNREACHABLE) {
+            assertNull(expected);
+            assertNull(step);
+            return;
+        }
+        int expectedCell = grid.cellOf(expected);
+        assertEquals(dist[cell], dist[expectedCell] + grid.getWeight(expectedCell));
+
+        Position playerPos = dungeon.getPlayerPosition();
+        boolean acrossFirst = Math.abs(playerPos.getX() - source.getX()) >= Math.abs(playerPos.getY() - source.getY());
+        List<Position> adjacent = new ArrayList<>();
+        List<Position> otherAxis = new ArrayList<>();
+        for (Direction direction : List.of(Direction.RIGHT, Direction.DOWN, Direction.LEFT, Direction.UP)) {
+            Position adj = source.translateBy(direction);
+            ((adj.getY() == source.getY()) == acrossFirst ? adjacent : otherAxis).add(adj);
+        }
+        adjacent.addAll(otherAxis);
+
+        int next = adjacent.indexOf(step);
+        assertTrue(next != -1);
+        for (int i = 0; i <= next; i++) {
+            int adj = grid.cellOf(adjacent.get(i));
+            boolean shortest = adj != -1 && grid.getWeight(adj) != GridDijkstra.BLOCKED && dist[adj] != GridDijkstra.UNREACHABLE
+                && dist[cell] == dist[adj] + grid.getWeight(adj);
+            assertEquals(i == next, shortest);
+        }
+    }
+
+    @Test
+    public void testGridFindsShortestPathsOnMaze() {
+        Dungeon dungeon = Prims.generateDungeon(new Position(1, 1), new Position(18, 18), "standard", 0);
+        Position playerPos = dungeon.getPlayerPosition();
+        GridDijkstra grid = new GridDijkstra(dungeon);
+        int[] dist = grid.distancesTo(playerPos);
+        FlowField field = dungeon.getFlowField();
+
+        for (int x = 0; x < 20; x++) {
+            for (int y = 0; y < 20; y++) {
+                Position source = new Position(x, y);
+                if (source.equals(playerPos) || dungeon.entityExists("wall", source)) {
+                    continue;
+                }
+                Position step = grid.move(source, playerPos);
+                assertFirstShortestStep(dungeon, grid, dist, source, step);
+                assertEquals(step, field.nextPos(source));
+            }
+        }
+    }
+
+    @Test
+    public void testGridFindsShortestPathsWithSwamps() {
+        List<Entity> entities = new ArrayList<>();
+        entities.add(new Player("0", new Position(4, 4), 100, true, 10));
+        entities.add(new Wall("1", new Position(2, 1)));
+        entities.add(new Wall("2", new Position(2, 2)));
+        entities.add(new SwampTile("3", new Position(2, 3), 4));
+        entities.add(new SwampTile("4", new Position(3, 0), 3));
+        entities.add(new Boulder("5", new Position(1, 4)));
+        Dungeon dungeon = new Dungeon(0, "test", entities, "standard", "", new GoalAnd(""), "");
+        GridDijkstra grid = new GridDijkstra(dungeon);
+        int[] dist = grid.distancesTo(new Position(4, 4));
+
+        for (int x = -1; x <= 5; x++) {
+            for (int y = -1; y <= 5; y++) {
+                Position source = new Position(x, y);
+                if (!source.equals(new Position(4, 4))) {
+                    assertFirstShortestStep(dungeon, grid, dist, source, grid.move(source, new Position(4, 4)));
+                }
+            }
+        }
+
+        // Going up or left from (5, 5) is as short, and the player is as far across as up, so the step goes across
+        assertEquals(new Position(4, 5), grid.move(new Position(5, 5), new Position(4, 4)));
+        // The player is further down from (5, 2), so the step goes down rather than left
+        assertEquals(new Position(5, 3), grid.move(new Position(5, 2), new Position(4, 4)));
+
+        // Cells outside of the grid cannot reach the player
+        assertNull(grid.move(new Position(9, 9), new Position(4, 4)));
+    }
+
+    /**
+     * Checks every engine moves onto a cell on a shortest path to the player, from every cell of the dungeon
+     */
+    private void assertShortestPaths(Dungeon dungeon) {
+        Position playerPos = dungeon.getPlayerPosition();
+        GridDijkstra grid = new GridDijkstra(dungeon);
+        int[] dist = grid.distancesTo(playerPos);
+
+        for (AStar engine : new AStar[] {new AStar(), new JumpPointSearch()}) {
+            for (int cell = 0; cell < grid.size(); cell++) {
+                Position source = grid.positionOf(cell);
+                if (source.equals(playerPos)) {
+                    continue;
+                }
+                Position nextPos = engine.move(dungeon, source);
+                if (dist[cell] == GridDijkstra.UNREACHABLE) {
+                    assertNull(nextPos);
+                } else {
+                    assertTrue(source.getCardinallyAdjPositions().contains(nextPos));
+                    int next = grid.cellOf(nextPos);
+                    assertEquals(dist[cell], dist[next] + grid.getWeight(next));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testAStarAndJumpPointSearchFindShortestPaths() {
+        assertShortestPaths(Prims.generateDungeon(new Position(1, 1), new Position(18, 18), "standard", 0));
+
+        List<Entity> entities = new ArrayList<>();
+        entities.add(new Player("0", new Position(5, 5), 100, true, 10));
+        for (int y = 0; y < 5; y++) {
+            entities.add(new Wall("w" + y, new Position(3, y)));
+        }
+        entities.add(new Wall("8", new Position(4, 6)));
+        entities.add(new Wall("9", new Position(8, 8)));
+        assertShortestPaths(new Dungeon(0, "test", entities, "standard", "", new GoalAnd(""), ""));
+
+        // Swamps cheaper than an open cell still give shortest paths
+        entities.add(new SwampTile("10", new Position(1, 6), 1));
+        entities.add(new SwampTile("11", new Position(2, 6), 1));
+        entities.add(new SwampTile("12", new Position(6, 5), 4));
+        assertShortestPaths(new Dungeon(0, "test", entities, "standard", "", new GoalAnd(""), ""));
+    }
+
+    @Test
+    public void testAStarExpandsAlongStraightLine() {
+        List<Entity> entities = new ArrayList<>();
+        entities.add(new Player("0", new Position(150, 120), 100, true, 10));
+        entities.add(new Wall("1", new Position(0, 0)));
+        entities.add(new Wall("2", new Position(199, 199)));
+        Dungeon dungeon = new Dungeon(0, "test", entities, "standard", "", new GoalAnd(""), "");
+
+        AStar aStar = new AStar();
+        aStar.move(dungeon, new Position(10, 30));
+        assertTrue(aStar.getExpanded() <= 140 + 90);
+
+        // Jump point search expands next to nothing, but the first search looks up and down every column it jumps
+        // across, at most once each way over each cell of the 202x202 area searched
+        JumpPointSearch jumpPointSearch = new JumpPointSearch();
+        jumpPointSearch.move(dungeon, new Position(10, 30));
+        assertTrue(jumpPointSearch.getExpanded() <= 2);
+        assertTrue(jumpPointSearch.getTouched() <= 2 * 202 * 202);
+
+        // Later searches on the same grid reuse where those jumps end, only looking along the lines they jump
+        Position step = jumpPointSearch.move(dungeon, new Position(11, 30));
+        assertTrue(jumpPointSearch.getTouched() <= 140 + 90);
+        assertEquals(step, new JumpPointSearch().move(dungeon, new Position(11, 30)));
+
+        // Once the grid changes, the jumps kept are found again
+        dungeon.addEntity(new Wall("3", new Position(12, 30)));
+        step = jumpPointSearch.move(dungeon, new Position(11, 30));
+        assertTrue(jumpPointSearch.getTouched() > 140 + 90);
+        assertEquals(step, new JumpPointSearch().move(dungeon, new Position(11, 30)));
+    }
+
+    @Test
+    public void testPathfindingChosenPerDungeon() {
+        List<Entity> entities = new ArrayList<>();
+        entities.add(new Player("0", new Position(4, 0), 100, true, 10));
+        entities.add(new Wall("1", new Position(2, 0)));
+        Mercenary mercenary = new Mercenary("2", new Position(0, 0), true);
+        entities.add(mercenary);
+        Dungeon dungeon = new Dungeon(0, "test", entities, "standard", "", new GoalAnd(""), "");
+
+        assertEquals(Dungeon.DIJKSTRA, dungeon.getPathfinding());
+        dungeon.setPathfinding(Dungeon.JUMP_POINT);
+        assertTrue(mercenary.dijkstraMove(dungeon));
+        assertEquals(new Position(1, 0), mercenary.getPosition());
+
+        dungeon.setPathfinding(Dungeon.ASTAR);
+        assertTrue(mercenary.dijkstraMove(dungeon));
+        assertTrue(mercenary.getPosition().equals(new Position(1, 1)) || mercenary.getPosition().equals(new Position(1, -1)));
+
+        assertThrows(IllegalArgumentException.class, () -> dungeon.setPathfinding("bfs"));
+    }
+}
@@ -0,0 +1,194 @@
+package dungeonmania;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import dungeonmania.allEntities.*;
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+
+public class DungeonTest {
+
+    private Dungeon createDungeon(Entity... entities) {
+        List<Entity> entityList = new ArrayList<>(Arrays.asList(entities));
+        return new Dungeon(0, "test", entityList, "standard", "", new GoalAnd(""), "");
+    }
+
+    @Test
+    public void testCellLookupFollowsMovement() {
+        Wall wall = new Wall("0", new Position(1, 0));
+        Treasure treasure = new Treasure("1", new Position(2, 0));
+        ZombieToast zombie = new ZombieToast("2", new Position(3, 0), true);
+        Dungeon dungeon = createDungeon(wall, treasure, zombie);
+
+        assertEquals(Arrays.asList(treasure), dungeon.getEntitiesOnCell(new Position(2, 0)));
+
+        // Moving onto a cell keeps the cell in the same order as the dungeon's entities
+        zombie.setPosition(new Position(2, 0));
+        assertEquals(Arrays.asList(treasure, zombie), dungeon.getEntitiesOnCell(new Position(2, 0)));
+        assertFalse(dungeon.entityExists(new Position(3, 0)));
+
+        // Layer is ignored when looking up a cell
+        Switch sw = new Switch("3", new Position(2, 0));
+        dungeon.addEntity(sw);
+        assertEquals(3, dungeon.getEntitiesOnCell(new Position(2, 0, 5)).size());
+        assertEquals(sw, dungeon.getEntity(new Position(2, 0, -1)));
+        assertTrue(dungeon.entityExists("switch", new Position(2, 0)));
+
+        dungeon.removeEntity(treasure);
+        assertEquals(Arrays.asList(zombie, sw), dungeon.getEntitiesOnCell(new Position(2, 0)));
+
+        // Removed entities no longer update the dungeon
+        treasure.setPosition(new Position(1, 0));
+        assertEquals(Arrays.asList(wall), dungeon.getEntitiesOnCell(new Position(1, 0)));
+        assertNull(dungeon.getEntity("treasure", new Position(1, 0)));
+    }
+
+    @Test
+    public void testPlacedBombIsOnCell() {
+        Player player = new Player("0", new Position(0, 0), 100, true, 10);
+        Dungeon dungeon = createDungeon(player);
+        Bomb bomb = new Bomb("1", new Position(4, 4));
+        dungeon.addItemToInventory(bomb);
+
+        player.move(dungeon, Direction.RIGHT);
+        dungeon.useItem("1");
+
+        assertEquals(bomb, dungeon.getEntity("bomb", new Position(1, 0)));
+        assertFalse(dungeon.entityExists(new Position(4, 4)));
+    }
+
+    @Test
+    public void testIdLookup() {
+        Door first = new Door("door_unlocked", new Position(0, 0), 1);
+        Door second = new Door("door_unlocked", new Position(1, 0), 2);
+        Wall wall = new Wall("2", new Position(2, 0));
+        Dungeon dungeon = createDungeon(first, second, wall);
+
+        // Shared ids resolve to the first entity, falling back to the next once it is removed
+        assertEquals(first, dungeon.getEntity("door_unlocked"));
+        dungeon.removeEntity(first);
+        assertEquals(second, dungeon.getEntity("door_unlocked"));
+        dungeon.removeEntity(second);
+        assertNull(dungeon.getEntity("door_unlocked"));
+
+        wall.setId("7");
+        assertNull(dungeon.getEntity("2"));
+        assertEquals(wall, dungeon.getEntity("7"));
+    }
+
+    @Test
+    public void testTypeAndClassLookup() {
+        Player player = new Player("0", new Position(0, 0), 100, true, 10);
+        Door door = new Door("1", new Position(1, 0), 1);
+        Mercenary merc = new Mercenary("2", new Position(2, 0), true);
+        Assassin assassin = new Assassin("3", new Position(3, 0), true);
+        Dungeon dungeon = createDungeon(player, door, merc, assassin);
+
+        assertEquals(player, dungeon.getPlayer());
+        player.setPosition(new Position(0, 1));
+        assertEquals(new Position(0, 1), dungeon.getPlayerPosition());
+
+        // Type changes move the entity to its new type
+        assertEquals(1, dungeon.numOfEntities("door_1"));
+        door.unlock();
+        assertFalse(dungeon.entityExists("door_1"));
+        assertEquals(Arrays.asList(door), dungeon.getEntitiesOfType("door_unlocked"));
+
+        // Subclasses are included, in the same order as the dungeon's entities
+        assertEquals(Arrays.asList(merc, assassin), dungeon.getEntitiesOfClass(Mercenary.class));
+        assertEquals(Arrays.asList(assassin), dungeon.getEntitiesOfClass(Assassin.class));
+        dungeon.removeEntity(merc);
+        assertEquals(Arrays.asList(assassin), dungeon.getEntitiesOfClass(MovingEntity.class));
+
+        dungeon.removeEntity(player);
+        assertNull(dungeon.getPlayer());
+        assertNull(dungeon.getPlayerPosition());
+    }
+
+    @Test
+    public void testFlowFieldSharedWithinTick() {
+        Player player = new Player("0", new Position(3, 0), 100, true, 10);
+        Wall wall = new Wall("1", new Position(1, 0));
+        SwampTile swamp = new SwampTile("2", new Position(0, -1), 5);
+        Dungeon dungeon = createDungeon(player, wall, swamp);
+
+        // Every Mercenary moving in the same tick shares the field
+        FlowField field = dungeon.getFlowField();
+        assertSame(field, dungeon.getFlowField());
+        assertEquals(new Position(0, 1), field.nextPos(new Position(0, 0)));
+        assertEquals(new Position(3, 0), field.nextPos(new Position(3, 1)));
+        assertNull(field.nextPos(new Position(10, 10)));
+
+        player.setPosition(new Position(4, 0));
+        assertNotSame(field, dungeon.getFlowField());
+
+        // A cell changing its cost builds the field again, even within the same tick
+        field = dungeon.getFlowField();
+        assertEquals(new Position(0, 1), field.nextPos(new Position(0, 0)));
+        dungeon.addEntity(new Wall("3", new Position(0, 1)));
+        assertNotSame(field, dungeon.getFlowField());
+        assertTrue(!new Position(0, 1).equals(dungeon.getFlowField().nextPos(new Position(0, 0))));
+    }
+
+    @Test
+    public void testCostGridFollowsEntities() {
+        Door door = new Door("0", new Position(0, 0), 1);
+        Boulder boulder = new Boulder("1", new Position(1, 0));
+        SwampTile swamp = new SwampTile("2", new Position(2, 0), 3);
+        Dungeon dungeon = createDungeon(door, boulder, swamp);
+        CostGrid costGrid = dungeon.getCostGrid();
+
+        assertEquals(CostGrid.BLOCKED, costGrid.getCost(0, 0));
+        assertEquals(CostGrid.BLOCKED, costGrid.getCost(1, 0));
+        assertEquals(3, costGrid.getCost(2, 0));
+        assertEquals(CostGrid.OPEN, costGrid.getCost(50, 50));
+
+        door.unlock();
+        assertEquals(CostGrid.OPEN, costGrid.getCost(0, 0));
+
+        // Boulders pushed onto a swamp block it, and leave their old cell open
+        boulder.setPosition(new Position(2, 0));
+        assertEquals(CostGrid.OPEN, costGrid.getCost(1, 0));
+        assertEquals(CostGrid.BLOCKED, costGrid.getCost(2, 0));
+        dungeon.removeEntity(boulder);
+        swamp.setMoveFactor(4);
+        assertEquals(4, costGrid.getCost(2, 0));
+
+        dungeon.addEntity(new Wall("3", new Position(-30, 40)));
+        assertEquals(CostGrid.BLOCKED, costGrid.getCost(-30, 40));
+        assertEquals(4, costGrid.getCost(2, 0));
+    }
+
+    @Test
+    public void testBoundsFollowEntities() {
+        Wall wall = new Wall("0", new Position(-2, 1));
+        ZombieToast zombie = new ZombieToast("1", new Position(3, 4), true);
+        Dungeon dungeon = createDungeon(wall, zombie);
+
+        assertEquals(Arrays.asList(-2, 3, 1, 4), Arrays.asList(dungeon.getMinX(), dungeon.getMaxX(), dungeon.getMinY(), dungeon.getMaxY()));
+
+        zombie.setPosition(new Position(5, 4));
+        assertEquals(5, dungeon.getMaxX());
+
+        // Leaving the boundary shrinks the bounds
+        zombie.setPosition(new Position(0, 2));
+        assertEquals(Arrays.asList(-2, 0, 1, 2), Arrays.asList(dungeon.getMinX(), dungeon.getMaxX(), dungeon.getMinY(), dungeon.getMaxY()));
+
+        dungeon.removeEntity(wall);
+        assertEquals(Arrays.asList(0, 0, 2, 2), Arrays.asList(dungeon.getMinX(), dungeon.getMaxX(), dungeon.getMinY(), dungeon.getMaxY()));
+
+        dungeon.addEntity(new Wall("2", new Position(7, -3)));
+        assertEquals(Arrays.asList(0, 7, -3, 2), Arrays.asList(dungeon.getMinX(), dungeon.getMaxX(), dungeon.getMinY(), dungeon.getMaxY()));
+    }
+}
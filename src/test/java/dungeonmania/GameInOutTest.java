@@ -0,0 +1,174 @@
+package dungeonmania;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import dungeonmania.allEntities.SwampTile;
+import dungeonmania.util.Direction;
+import dungeonmania.util.FileLoader;
+import dungeonmania.util.Position;
+
+public class GameInOutTest {
+
+    /**
+     * Checks both dungeons hold the same entities and items, in the same order
+     */
+    private void assertSameDungeon(Dungeon expected, Dungeon actual) {
+        assertEquals(expected.getEntities().size(), actual.getEntities().size());
+        for (int i = 0; i < expected.getEntities().size(); i++) {
+            Entity expectedEnt = expected.getEntities().get(i);
+            Entity actualEnt = actual.getEntities().get(i);
+            assertEquals(expectedEnt.getClass(), actualEnt.getClass());
+            assertEquals(expectedEnt.getId(), actualEnt.getId());
+            assertEquals(expectedEnt.getType(), actualEnt.getType());
+            assertEquals(expectedEnt.getPosition(), actualEnt.getPosition());
+            assertEquals(expectedEnt.getPosition().getLayer(), actualEnt.getPosition().getLayer());
+        }
+        assertEquals(expected.getInventory().size(), actual.getInventory().size());
+        for (int i = 0; i < expected.getInventory().size(); i++) {
+            assertEquals(expected.getInventory().get(i).getType(), actual.getInventory().get(i).getType());
+        }
+        assertEquals(expected.getGoals(), actual.getGoals());
+        assertEquals(expected.getTickNumber(), actual.getTickNumber());
+    }
+
+    @Test
+    public void testDungeonReaderMatchesFromJSON() throws IOException {
+        for (String dungeonName : new String[] {"advanced", "portals", "testMercenaryAvoidsSwamp", "testComplicatedGoal"}) {
+            String fileString = FileLoader.loadResourceFile("/dungeons/" + dungeonName + ".json");
+            assertSameDungeon(
+                GameInOut.fromJSON("new", fileString, dungeonName, 0, "hard", 0),
+                DungeonReader.read("new", new StringReader(fileString), dungeonName, 0, "hard", 0)
+            );
+        }
+
+        String saved = Files.readString(Paths.get("persistence/savedGames/testLoadInventory-1636120871272.json"));
+        assertSameDungeon(
+            GameInOut.fromJSON("load", saved, "testLoadInventory", 0, null, 0),
+            DungeonReader.read("load", new StringReader(saved), "testLoadInventory", 0, null, 0)
+        );
+        assertSameDungeon(
+            GameInOut.fromJSON("rewind", saved, "testLoadInventory", 0, null, 5),
+            DungeonReader.read("rewind", new StringReader(saved), "testLoadInventory", 0, null, 5)
+        );
+    }
+
+    @Test
+    public void testPersistenceWriterCoalescesWrites() throws Exception {
+        InMemoryGameStore store = new InMemoryGameStore();
+        PersistenceWriter writer = new PersistenceWriter(store, 2);
+
+        // Writes to a game waiting to be written share its future, and only the last is written
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(writer.save("game.dmb", ("save " + i).getBytes()));
+        }
+        futures.get(futures.size() - 1).get(10, TimeUnit.SECONDS);
+        assertTrue(futures.stream().allMatch(CompletableFuture::isDone));
+        assertEquals("save 19", new String(store.load("game.dmb")));
+
+        // A history replaces the files of the history before it
+        writer.saveHistory("/rewind/1/", Map.of("tick-1.json", "1".getBytes(), "tick-2.json", "2".getBytes()));
+        writer.saveHistory("/rewind/1/", Map.of("tick-2.json", "2".getBytes()));
+        writer.flush().get(10, TimeUnit.SECONDS);
+        assertEquals(Set.of("tick-2.json"), store.loadHistory("/rewind/1/").keySet());
+
+        writer.close();
+        assertThrows(IllegalStateException.class, () -> writer.save("game.dmb", new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> new PersistenceWriter(store, 0));
+    }
+
+    @Test
+    public void testDungeonTemplateCache() throws Exception {
+        DungeonTemplateCache cache = new DungeonTemplateCache();
+        for (String dungeonName : new String[] {"advanced", "portals", "testComplicatedGoal"}) {
+            for (String gameMode : new String[] {"peaceful", "hard"}) {
+                Dungeon read = DungeonReader.read("new", FileLoader.openResourceFile("/dungeons/" + dungeonName + ".json"), dungeonName, 3, gameMode, 0);
+                assertSameDungeon(read, cache.get(dungeonName).instantiate(3, gameMode));
+            }
+        }
+        assertEquals(3, cache.reads());
+
+        // Games of the same template share no entities
+        Dungeon first = cache.get("advanced").instantiate(0, "standard");
+        Dungeon second = cache.get("advanced").instantiate(1, "standard");
+        assertTrue(first.getEntities().get(0) != second.getEntities().get(0));
+        assertEquals(3, cache.reads());
+
+        // A dungeon file changed is read again
+        Path file = Paths.get(FileLoader.class.getResource("/dungeons/maze.json").toURI()).resolveSibling("testTemplateCache.json");
+        try {
+            Files.writeString(file, "{\"entities\": [{\"x\": 0, \"y\": 0, \"type\": \"player\"}]}");
+            assertEquals(1, cache.get("testTemplateCache").instantiate(0, "standard").getEntities().size());
+            assertEquals(1, cache.get("testTemplateCache").instantiate(0, "standard").getEntities().size());
+            assertEquals(4, cache.reads());
+            Files.writeString(file, "{\"entities\": [{\"x\": 0, \"y\": 0, \"type\": \"player\"}, {\"x\": 1, \"y\": 0, \"type\": \"wall\"}]}");
+            assertEquals(2, cache.get("testTemplateCache").instantiate(0, "standard").getEntities().size());
+            assertEquals(5, cache.reads());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testDungeonReaderLoadsSavedSwampTiles() {
+        DungeonManiaController controller = new DungeonManiaController();
+        assertDoesNotThrow(() -> controller.newGame("testMercenaryAvoidsSwamp", "Standard"));
+        String json = GameInOut.toJSONString(controller.getCurrentDungeon());
+
+        Dungeon loaded = assertDoesNotThrow(() -> DungeonReader.read("load", new StringReader(json), "swamp", 0, null, 0));
+        SwampTile swamp = (SwampTile) loaded.getEntity("swamp_tile", new Position(1, 0));
+        assertEquals(10, swamp.getMoveFactor());
+
+        assertThrows(IOException.class, () -> DungeonReader.read("load", new StringReader("{\"entities\": [{]}"), "bad", 0, null, 0));
+    }
+
+    @Test
+    public void testSeededGamesPlayOutTheSame() {
+        PersistenceWriter writer = new PersistenceWriter(new InMemoryGameStore(), PersistenceWriter.DEFAULT_CAPACITY);
+        DungeonManiaController first = new DungeonManiaController(RewindBuffer.MIN_CAPACITY, writer);
+        DungeonManiaController second = new DungeonManiaController(RewindBuffer.MIN_CAPACITY, writer);
+        assertDoesNotThrow(() -> first.newGame("advanced", "Peaceful", 42));
+        assertDoesNotThrow(() -> second.newGame("advanced", "Peaceful", 42));
+
+        // Zombies, spiders and mercenaries spawn and move the same way in both games
+        Direction[] moves = {Direction.RIGHT, Direction.DOWN, Direction.LEFT, Direction.UP, Direction.NONE};
+        for (int i = 0; i < 25; i++) {
+            first.tick(null, moves[i % moves.length]);
+            second.tick(null, moves[i % moves.length]);
+        }
+        assertEquals(first.getDungeonInfo(first.getCurrentDungeon().getId()).getEntities(),
+            second.getDungeonInfo(second.getCurrentDungeon().getId()).getEntities());
+        assertTrue(first.getCurrentDungeon().numOfEntities("spider") > 0);
+
+        // A saved game carries on with the same random stream each time it is loaded
+        assertDoesNotThrow(() -> first.saveGameAsync("seeded-1636079593059").join());
+        DungeonManiaController loader = new DungeonManiaController(RewindBuffer.MIN_CAPACITY, writer);
+        DungeonManiaController reloader = new DungeonManiaController(RewindBuffer.MIN_CAPACITY, writer);
+        assertDoesNotThrow(() -> loader.loadGame("seeded-1636079593059"));
+        assertDoesNotThrow(() -> reloader.loadGame("seeded-1636079593059"));
+        assertEquals(first.getCurrentDungeon().getRandomSeed(), loader.getCurrentDungeon().getRandomSeed());
+        for (int i = 0; i < 20; i++) {
+            loader.tick(null, moves[i % moves.length]);
+            reloader.tick(null, moves[i % moves.length]);
+        }
+        assertEquals(loader.getDungeonInfo(loader.getCurrentDungeon().getId()).getEntities(),
+            reloader.getDungeonInfo(reloader.getCurrentDungeon().getId()).getEntities());
+    }
+}
@@ -0,0 +1,258 @@
+package dungeonmania;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.util.Direction;
+
+public class GameStoreTest {
+
+    /**
+     * Checks a store keeps saved games and histories as every GameStore should
+     */
+    private void assertStoresGames(GameStore store) throws IOException {
+        assertNull(store.load("maze-1.dmb"));
+        assertEquals(0, store.lastSaved("maze-1.dmb"));
+        assertTrue(store.loadHistory("/rewind/1/").isEmpty());
+
+        store.save("maze-1.dmb", "first".getBytes());
+        store.writeAll(
+            Map.of("maze-1.json", "json".getBytes()),
+            Map.of("/rewind/1/", Map.of("tick-1.json", "1".getBytes(), "tick-2.delta.json", "2".getBytes()))
+        );
+        store.save("maze-1.dmb", "second".getBytes());
+
+        assertEquals("second", new String(store.load("maze-1.dmb")));
+        assertEquals("json", new String(store.load("maze-1.json")));
+        assertTrue(store.lastSaved("maze-1.dmb") > store.lastSaved("maze-1.json"));
+        assertEquals(Set.of("maze-1.dmb", "maze-1.json"), Set.copyOf(store.list()));
+
+        // A history replaces every file of the history before it
+        store.saveHistory("/rewind/1/", Map.of("tick-2.json", "2".getBytes()));
+        Map<String, byte[]> history = store.loadHistory("/rewind/1/");
+        assertEquals(Set.of("tick-2.json"), history.keySet());
+        assertEquals("2", new String(history.get("tick-2.json")));
+
+        store.save("spilled-1.dmb", "spilled".getBytes());
+        store.saveHistory("/rewind/spilled-1/", Map.of("tick-1.json", "1".getBytes()));
+        store.delete("spilled-1.dmb");
+        store.deleteHistory("/rewind/spilled-1/");
+        store.delete("missing.dmb");
+        assertNull(store.load("spilled-1.dmb"));
+        assertEquals(0, store.lastSaved("spilled-1.dmb"));
+        assertTrue(store.loadHistory("/rewind/spilled-1/").isEmpty());
+        assertEquals(Set.of("maze-1.dmb", "maze-1.json"), Set.copyOf(store.list()));
+    }
+
+    @Test
+    public void testInMemoryGameStore() throws IOException {
+        assertStoresGames(new InMemoryGameStore());
+    }
+
+    @Test
+    public void testFileGameStore() throws IOException {
+        Path root = Files.createTempDirectory("persistence");
+        assertStoresGames(new FileGameStore(root));
+
+        // The games are still there for a new store over the same directory
+        FileGameStore reopened = new FileGameStore(root);
+        assertEquals("second", new String(reopened.load("maze-1.dmb")));
+        assertEquals(Set.of("tick-2.json"), reopened.loadHistory("/rewind/1/").keySet());
+        assertTrue(Files.isRegularFile(root.resolve("savedGames/maze-1.dmb")));
+        assertTrue(Files.isRegularFile(root.resolve("rewind/1/tick-2.json")));
+    }
+
+    @Test
+    public void testMappedSegmentGameStore() throws IOException {
+        Path segment = Files.createTempDirectory("persistence").resolve("games.seg");
+        try (MappedSegmentGameStore store = new MappedSegmentGameStore(segment)) {
+            assertStoresGames(store);
+        }
+
+        // The games are read back from the segment once it is opened again, and it grows past its first mapping
+        int size;
+        try (MappedSegmentGameStore store = new MappedSegmentGameStore(segment)) {
+            assertEquals("second", new String(store.load("maze-1.dmb")));
+            assertEquals(Set.of("tick-2.json"), store.loadHistory("/rewind/1/").keySet());
+            assertEquals(List.of("maze-1.json", "maze-1.dmb"), store.list());
+            store.save("large.dmb", new byte[3 << 20]);
+            size = store.size();
+        }
+        try (MappedSegmentGameStore store = new MappedSegmentGameStore(segment)) {
+            assertEquals(3 << 20, store.load("large.dmb").length);
+            assertEquals(size, store.size());
+
+            // Once most of the segment is taken by games deleted, it is compacted down to the games still kept
+            store.delete("large.dmb");
+            assertTrue(store.size() < 1024);
+            assertNull(store.load("large.dmb"));
+            assertEquals("second", new String(store.load("maze-1.dmb")));
+            assertEquals(Set.of("tick-2.json"), store.loadHistory("/rewind/1/").keySet());
+            size = store.size();
+        }
+        try (MappedSegmentGameStore store = new MappedSegmentGameStore(segment)) {
+            assertEquals(size, store.size());
+            assertEquals(Set.of("maze-1.dmb", "maze-1.json"), Set.copyOf(store.list()));
+        }
+    }
+
+    /**
+     * Waits for the catalogue to pick up a change to a directory it watches
+     */
+    private void assertEventually(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 100 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    public void testGameCatalogue() throws Exception {
+        Path dungeons = Files.createTempDirectory("dungeons");
+        Path root = Files.createTempDirectory("persistence");
+        Files.writeString(dungeons.resolve("small.json"), "{\"entities\": [{\"x\": 1, \"y\": 1, \"type\": \"player\"}, {\"x\": 4, \"y\": 2, \"type\": \"wall\"}]}");
+        FileGameStore store = new FileGameStore(root);
+        store.save("old-1.json", GameInOut.toJSONBytes(new DungeonTemplateCache().get("advanced").instantiate(0, "hard")));
+
+        try (DungeonCatalogue dungeonCatalogue = new DungeonCatalogue(dungeons); GameCatalogue catalogue = new GameCatalogue(store)) {
+            assertEquals(List.of("small"), dungeonCatalogue.dungeonNames());
+            assertEquals(List.of("old-1"), catalogue.savedGameNames());
+            DungeonInfo small = dungeonCatalogue.dungeonInfo("small");
+            assertEquals(2, small.getEntityCount());
+            assertEquals(4, small.getWidth());
+            assertEquals(2, small.getHeight());
+            assertNull(small.getGameMode());
+            assertEquals("hard", catalogue.savedGameInfo("old-1").getGameMode());
+            assertNull(dungeonCatalogue.dungeonInfo("missing"));
+
+            // Files added and removed by hand are picked up
+            Files.writeString(dungeons.resolve("added.json"), "{\"entities\": []}");
+            Files.delete(dungeons.resolve("small.json"));
+            assertEventually(() -> dungeonCatalogue.hasDungeon("added") && !dungeonCatalogue.hasDungeon("small"));
+            store.save("other-2.dmb", new byte[0]);
+            assertEventually(() -> catalogue.hasSavedGame("other-2"));
+
+            // Games saved through a controller are listed straight away
+            catalogue.noteSaved("noted-3.dmb");
+            assertTrue(catalogue.hasSavedGame("noted-3"));
+        }
+
+        // The dungeons on the classpath are listed apart from any store
+        assertTrue(DungeonCatalogue.getDefault().hasDungeon("maze"));
+    }
+
+    private static long catalogueThreads() {
+        return Thread.getAllStackTraces().keySet().stream().filter(t -> t.getName().equals("game-catalogue")).count();
+    }
+
+    @Test
+    public void testWriterClosesItsCatalogue() throws Exception {
+        // A store not kept as files has nothing to watch
+        long before = catalogueThreads();
+        PersistenceWriter inMemory = new PersistenceWriter(new InMemoryGameStore(), PersistenceWriter.DEFAULT_CAPACITY);
+        new DungeonManiaController(RewindBuffer.MIN_CAPACITY, inMemory);
+        assertEquals(before, catalogueThreads());
+
+        PersistenceWriter writer = new PersistenceWriter(new FileGameStore(Files.createTempDirectory("persistence")), PersistenceWriter.DEFAULT_CAPACITY);
+        writer.getCatalogue();
+        assertEquals(before + 1, catalogueThreads());
+        writer.close();
+        assertEventually(() -> catalogueThreads() == before);
+    }
+
+    @Test
+    public void testControllerSavesIntoStore() {
+        InMemoryGameStore store = new InMemoryGameStore();
+        PersistenceWriter writer = new PersistenceWriter(store, PersistenceWriter.DEFAULT_CAPACITY);
+        DungeonManiaController controller = new DungeonManiaController(RewindBuffer.MIN_CAPACITY, writer);
+        assertDoesNotThrow(() -> controller.newGame("advanced", "Standard"));
+        for (int i = 0; i < 3; i++) {
+            controller.tick(null, Direction.RIGHT);
+        }
+        DungeonResponse saved = controller.getDungeonInfo(controller.getCurrentDungeon().getId());
+
+        assertDoesNotThrow(() -> controller.saveGameAsync("testStore-1636079593059").join());
+        assertEquals(List.of("testStore-1636079593059.dmb"), store.list());
+        assertTrue(controller.allGames().contains("testStore-1636079593059"));
+        assertTrue(store.loadHistory(controller.getCurrentDungeon().getRewindPath()).size() > 0);
+
+        DungeonManiaController loader = new DungeonManiaController(RewindBuffer.MIN_CAPACITY, writer);
+        DungeonResponse loaded = loader.loadGame("testStore-1636079593059");
+        assertEquals(saved.getEntities(), loaded.getEntities());
+        assertEquals(saved.getInventory(), loaded.getInventory());
+        assertDoesNotThrow(() -> loader.rewind(2));
+    }
+
+    @Test
+    public void testControllerSpillsIdleGames() {
+        InMemoryGameStore store = new InMemoryGameStore();
+        PersistenceWriter writer = new PersistenceWriter(store, PersistenceWriter.DEFAULT_CAPACITY);
+        DungeonManiaController controller = new DungeonManiaController(RewindBuffer.MIN_CAPACITY, writer, 2);
+        assertDoesNotThrow(() -> controller.newGame("advanced", "Peaceful"));
+        for (int i = 0; i < 3; i++) {
+            controller.tick(null, Direction.RIGHT);
+        }
+        DungeonResponse first = controller.getDungeonInfo(0);
+        assertDoesNotThrow(() -> controller.newGame("maze", "Peaceful"));
+        assertDoesNotThrow(() -> controller.newGame("boulders", "Peaceful"));
+        assertEquals(2, controller.gamesInMemory());
+
+        // The first game is read back from the store when it is used again
+        DungeonResponse spilled = controller.getDungeonInfo(0);
+        assertEquals(first.getEntities(), spilled.getEntities());
+        assertEquals(first.getInventory(), spilled.getInventory());
+        assertEquals(first.getGoals(), spilled.getGoals());
+        assertEquals(2, controller.gamesInMemory());
+
+        DungeonResponse current = controller.getDungeonInfo(controller.getCurrentDungeon().getId());
+        assertDoesNotThrow(() -> controller.suspend("testSession").join());
+        assertTrue(controller.isSuspended());
+        assertEquals(0, controller.gamesInMemory());
+        assertTrue(controller.allGames().isEmpty());
+
+        DungeonManiaController resumed = DungeonManiaController.resume("testSession", new DungeonManiaController(RewindBuffer.MIN_CAPACITY, writer, 2));
+        assertEquals(current.getEntities(), resumed.getDungeonInfo(resumed.getCurrentDungeon().getId()).getEntities());
+        assertEquals(first.getEntities(), resumed.getDungeonInfo(0).getEntities());
+        assertDoesNotThrow(() -> resumed.tick(null, Direction.DOWN));
+        assertNull(DungeonManiaController.resume("otherSession", new DungeonManiaController(RewindBuffer.MIN_CAPACITY, writer, 2)));
+    }
+
+    @Test
+    public void testSpilledGamesAreRemovedFromStore() throws IOException {
+        Path root = Files.createTempDirectory("persistence");
+        PersistenceWriter writer = new PersistenceWriter(new FileGameStore(root), PersistenceWriter.DEFAULT_CAPACITY);
+        DungeonManiaController controller = new DungeonManiaController(RewindBuffer.MIN_CAPACITY, writer, 1);
+        assertDoesNotThrow(() -> controller.newGame("advanced", "Peaceful"));
+        controller.tick(null, Direction.RIGHT);
+        assertDoesNotThrow(() -> controller.newGame("maze", "Peaceful"));
+        assertEquals(1, controller.gamesInMemory());
+
+        // Reading a spilled game back removes it from the store, and spills the other game
+        controller.getDungeonInfo(0);
+        assertDoesNotThrow(() -> controller.suspend("testSession").join());
+        DungeonManiaController resumed = DungeonManiaController.resume("testSession", new DungeonManiaController(RewindBuffer.MIN_CAPACITY, writer, 3));
+        resumed.getDungeonInfo(0);
+        resumed.getDungeonInfo(1);
+        assertEquals(2, resumed.gamesInMemory());
+        writer.close();
+
+        try (Stream<Path> files = Files.walk(root)) {
+            assertEquals(List.of(), files.filter(Files::isRegularFile).collect(Collectors.toList()));
+        }
+    }
+}
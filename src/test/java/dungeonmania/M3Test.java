@@ -2,6 +2,7 @@ package dungeonmania;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
@@ -9,6 +10,9 @@ import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
 import dungeonmania.allEntities.*;
 import dungeonmania.util.Direction;
 import dungeonmania.util.Position;
@@ -171,6 +175,183 @@ public class M3Test {
 
     }
 
+    @Test
+    public void testRewindKeepsLastTicksInMemory() {
+        assertThrows(IllegalArgumentException.class, () -> new DungeonManiaController(10));
+
+        DungeonManiaController controller = new DungeonManiaController(30);
+        assertDoesNotThrow(() -> controller.newGame("timeTravel", "Standard", 2021));
+
+        for (int i = 0; i < 40; i++) {
+            controller.tick(null, (i % 2 == 0) ? Direction.RIGHT : Direction.LEFT);
+        }
+
+        // Saved games keep their ticks for rewinding once loaded
+        assertDoesNotThrow(() -> controller.saveGame("testRewindKeepsLastTicksInMemory-1636079593059"));
+        DungeonManiaController loaded = new DungeonManiaController();
+        assertDoesNotThrow(() -> loaded.loadGame("testRewindKeepsLastTicksInMemory-1636079593059"));
+        assertDoesNotThrow(() -> loaded.rewind(5));
+        assertEquals(35, loaded.getCurrentDungeon().getTickNumber());
+
+        // Only the last 30 ticks are kept
+        assertThrows(IllegalArgumentException.class, () -> controller.rewind(31));
+        assertDoesNotThrow(() -> controller.rewind(30));
+        assertEquals(10, controller.getCurrentDungeon().getTickNumber());
+    }
+
+    @Test
+    public void testRewindJournalRebuildsEveryTick() {
+        DungeonManiaController controller = new DungeonManiaController();
+        assertDoesNotThrow(() -> controller.newGame("advanced", "Standard"));
+        RewindBuffer buffer = new RewindBuffer(RewindBuffer.MIN_CAPACITY);
+        List<String> snapshots = new ArrayList<String>();
+
+        Direction[] moves = {Direction.RIGHT, Direction.RIGHT, Direction.DOWN, Direction.DOWN, Direction.LEFT, Direction.UP};
+        for (int i = 0; i < 35; i++) {
+            Dungeon dungeon = controller.getCurrentDungeon();
+            buffer.record(i, dungeon);
+            snapshots.add(GameInOut.toJSONString(dungeon));
+            controller.tick(null, moves[i % moves.length]);
+        }
+
+        // Deltas are replayed from the keyframe before each tick, only the last 30 ticks need to be kept
+        for (int i = 5; i < 35; i++) {
+            assertEquals(JsonParser.parseString(snapshots.get(i)), JsonParser.parseString(buffer.get(i)));
+        }
+        assertEquals(null, buffer.get(35));
+    }
+
+    @Test
+    public void testRewindDeltaHoldsOnlyChangedEntities() {
+        DungeonManiaController controller = new DungeonManiaController();
+        assertDoesNotThrow(() -> controller.newGame("advanced", "Standard"));
+        Dungeon dungeon = controller.getCurrentDungeon();
+        List<String> snapshots = new ArrayList<String>();
+
+        // The game records each tick before playing it
+        for (int i = 0; i < 25; i++) {
+            // Walls are placed, moved and removed between ticks, besides what the tick itself changes
+            if (i % 3 == 0) {
+                dungeon.addEntity(new Wall("added" + i, new Position(-5 - i, -5)));
+            } else if (i % 3 == 1) {
+                dungeon.getEntity("added" + (i - 1)).setPosition(new Position(-5 - i, -6));
+            } else {
+                dungeon.removeEntity(dungeon.getEntity("added" + (i - 2)));
+            }
+            assertEquals(i, dungeon.getTickNumber());
+            snapshots.add(GameInOut.toJSONString(dungeon));
+            controller.tick(null, (i % 2 == 0) ? Direction.RIGHT : Direction.LEFT);
+        }
+
+        RewindBuffer buffer = dungeon.getRewindBuffer();
+        for (int i = 0; i < 25; i++) {
+            assertEquals(JsonParser.parseString(snapshots.get(i)), JsonParser.parseString(buffer.get(i)));
+        }
+        // Walls that have not been touched are not part of a delta
+        JsonObject delta = JsonParser.parseString(new String(buffer.files().get("tick-1.delta.json"))).getAsJsonObject();
+        for (String key : delta.getAsJsonObject("changed").keySet()) {
+            JsonObject entity = delta.getAsJsonObject("changed").getAsJsonObject(key);
+            assertTrue(!entity.get("type").getAsString().equals("wall") || entity.get("id").getAsString().equals("added0"));
+        }
+    }
+
+    /**
+     * The dungeon as json, without what differs between games of the same dungeon
+     */
+    private JsonObject gameState(Dungeon dungeon) {
+        JsonObject state = JsonParser.parseString(GameInOut.toJSONString(dungeon)).getAsJsonObject();
+        state.remove("id");
+        state.remove("rewindPath");
+        return state;
+    }
+
+    @Test
+    public void testActionLogReplaysEveryTick() throws Exception {
+        PersistenceWriter writer = new PersistenceWriter(new InMemoryGameStore(), PersistenceWriter.DEFAULT_CAPACITY);
+        DungeonManiaController controller = new DungeonManiaController(RewindBuffer.MIN_CAPACITY, writer,
+            DungeonManiaController.DEFAULT_MAX_GAMES, DungeonManiaController.RewindMode.ACTION_LOG);
+        assertDoesNotThrow(() -> controller.newGame("advanced", "Peaceful", 2021));
+        List<JsonObject> states = new ArrayList<JsonObject>();
+
+        Direction[] moves = {Direction.RIGHT, Direction.RIGHT, Direction.DOWN, Direction.DOWN, Direction.LEFT, Direction.UP, Direction.NONE};
+        for (int i = 0; i < 120; i++) {
+            states.add(gameState(controller.getCurrentDungeon()));
+            controller.tick(null, moves[i % moves.length]);
+        }
+
+        // Every tick is rebuilt exactly, from the start or the checkpoint before it, from a byte or two per tick
+        ActionLog log = controller.getCurrentDungeon().getActionLog();
+        assertTrue(log.toBytes().length < 2 * 120);
+        for (int i = 0; i < 120; i++) {
+            assertEquals(states.get(i), gameState(log.replay(i)));
+        }
+        assertEquals(states.get(40), gameState(ActionLog.read(log.toBytes()).replay(40)));
+        assertEquals(null, log.replay(121));
+
+        // A game loaded carries on with its log, so it can be rewound to before it was saved
+        controller.saveGameAsync("testActionLogReplaysEveryTick-1636079593059").join();
+        DungeonManiaController loaded = new DungeonManiaController(RewindBuffer.MIN_CAPACITY, writer,
+            DungeonManiaController.DEFAULT_MAX_GAMES, DungeonManiaController.RewindMode.ACTION_LOG);
+        assertDoesNotThrow(() -> loaded.loadGame("testActionLogReplaysEveryTick-1636079593059"));
+        assertEquals(0, loaded.getCurrentDungeon().getActionLog().getStartTick());
+        assertDoesNotThrow(() -> loaded.rewind(60));
+        assertEquals(60, loaded.getCurrentDungeon().getTickNumber());
+
+        // Rewinding is not limited to the last 30 ticks
+        assertDoesNotThrow(() -> controller.rewind(100));
+        assertEquals(20, controller.getCurrentDungeon().getTickNumber());
+        assertEquals(1, controller.getCurrentDungeon().numOfEntities("older_player"));
+    }
+
+    @Test
+    public void testActionLogRewindMatchesSnapshotRewind() {
+        PersistenceWriter writer = new PersistenceWriter(new InMemoryGameStore(), PersistenceWriter.DEFAULT_CAPACITY);
+        DungeonManiaController snapshots = new DungeonManiaController(RewindBuffer.MIN_CAPACITY, writer,
+            DungeonManiaController.DEFAULT_MAX_GAMES, DungeonManiaController.RewindMode.SNAPSHOTS);
+        DungeonManiaController replays = new DungeonManiaController(RewindBuffer.MIN_CAPACITY, writer,
+            DungeonManiaController.DEFAULT_MAX_GAMES, DungeonManiaController.RewindMode.ACTION_LOG);
+        assertDoesNotThrow(() -> snapshots.newGame("timeTravel", "Peaceful", 2021));
+        assertDoesNotThrow(() -> replays.newGame("timeTravel", "Peaceful", 2021));
+        for (int i = 0; i < 12; i++) {
+            Direction move = (i % 2 == 0) ? Direction.RIGHT : Direction.DOWN;
+            snapshots.tick(null, move);
+            replays.tick(null, move);
+        }
+
+        // The replayed game is played on as it is, rather than read back as a snapshot, but is rewound the same way
+        DungeonResponse fromSnapshot = assertDoesNotThrow(() -> snapshots.rewind(5));
+        DungeonResponse fromReplay = assertDoesNotThrow(() -> replays.rewind(5));
+        assertEquals(fromSnapshot, fromReplay);
+        assertEquals(1, replays.getCurrentDungeon().numOfEntities("older_player"));
+        assertEquals(0, replays.getCurrentDungeon().numOfEntities("time_turner"));
+    }
+
+    @Test
+    public void testRewoundGameKeepsItsOwnActionLog() {
+        PersistenceWriter writer = new PersistenceWriter(new InMemoryGameStore(), PersistenceWriter.DEFAULT_CAPACITY);
+        DungeonManiaController controller = new DungeonManiaController(RewindBuffer.MIN_CAPACITY, writer,
+            DungeonManiaController.DEFAULT_MAX_GAMES, DungeonManiaController.RewindMode.ACTION_LOG);
+        assertDoesNotThrow(() -> controller.newGame("advanced", "Peaceful", 2021));
+        for (int i = 0; i < 60; i++) {
+            controller.tick(null, (i % 2 == 0) ? Direction.RIGHT : Direction.LEFT);
+        }
+        controller.saveGameAsync("testRewoundGameKeepsItsOwnActionLog-1636079593059").join();
+
+        // Rewound from the checkpoint kept at tick 50, then saved under another name
+        assertDoesNotThrow(() -> controller.rewind(5));
+        assertTrue(!controller.getCurrentDungeon().getRewindPath().equals(controller.getDungeon(0).getRewindPath()));
+        controller.tick(null, Direction.NONE);
+        controller.saveGameAsync("testRewoundGameKeepsItsOwnActionLog-1636079593060").join();
+
+        // The game saved first still carries on with its own log, reaching back to its start
+        DungeonManiaController loaded = new DungeonManiaController(RewindBuffer.MIN_CAPACITY, writer,
+            DungeonManiaController.DEFAULT_MAX_GAMES, DungeonManiaController.RewindMode.ACTION_LOG);
+        assertDoesNotThrow(() -> loaded.loadGame("testRewoundGameKeepsItsOwnActionLog-1636079593059"));
+        assertEquals(0, loaded.getCurrentDungeon().getActionLog().getStartTick());
+        assertEquals(60, loaded.getCurrentDungeon().getActionLog().getEndTick());
+        assertDoesNotThrow(() -> loaded.rewind(40));
+    }
+
     @Test
     public void testCantRewindLessThanZero() {
         DungeonManiaController controller = new DungeonManiaController();
@@ -28,7 +28,7 @@ public class MiscTest {
     @Test
     public void testDurability() {
         DungeonManiaController controller = new DungeonManiaController();
-        assertDoesNotThrow(() -> controller.newGame("testDurability", "Hard"));
+        assertDoesNotThrow(() -> controller.newGame("testDurability", "Hard", 2021));
 
         // Assert correct spawn positions
         List<EntityResponse> startList = new ArrayList<EntityResponse>();
@@ -8,7 +8,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.Test;
@@ -473,15 +473,16 @@ public class MovingEntityTest {
 	@Test
 	public void testZombieMovement() {
 		DungeonManiaController controller = new DungeonManiaController();
-		assertDoesNotThrow(() -> controller.newGame("testZombieMovement", "Standard"));
+		assertDoesNotThrow(() -> controller.newGame("testZombieMovement", "Standard", 2021));
 		ZombieToast zombie = (ZombieToast) controller.getDungeon(0).getEntity("0");
-		int seed = zombie.getSeed();
-		Random random = new Random(seed);
+		long seed = 2021;
 		
 		// For all 10 ticks, all movements will be random
 		for (int i = 0; i < 10; i++) {
 			Position prevPos = zombie.getPosition();
-			int num = random.nextInt(4);
+			// The zombie is the only entity drawing from the random stream of each tick
+			seed = new SplittableRandom(seed).nextLong();
+			int num = new SplittableRandom(seed).nextInt(4);
 
 			Direction dir = Direction.NONE;
 			switch (num) {
@@ -815,7 +816,7 @@ public class MovingEntityTest {
 	@Test
 	public void testHydraAnduril() {
 		DungeonManiaController controller = new DungeonManiaController();
-		assertDoesNotThrow(() -> controller.newGame("testHydraAnduril", "Hard"));
+		assertDoesNotThrow(() -> controller.newGame("testHydraAnduril", "Hard", 2021));
 
 		// Move the player right
 		controller.tick(null, Direction.RIGHT);